@@ -0,0 +1,184 @@
+package Benchmark;
+
+import Controller.CustomerController;
+import Controller.CustomerLoadResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The CustomerControllerBenchmark class measures logging in, registering and
+ * loading customers with {@link CustomerController}.
+ *
+ * <h1>Method Details</h1>
+ * The controller reads {@link LedgerFixture#CUSTOMERS_FILE_PATH}, so each
+ * trial writes {@link #size} generated customers there before constructing
+ * it. Logins use credentials drawn ahead of time from a seeded
+ * {@link Random}. Registering is timed as a single shot over a batch of
+ * {@link #BATCH} new customers, each saving the customers file once. Before
+ * every iteration the file generated for the trial is copied back and loaded
+ * again, so the customer list keeps its size and no clean-up is measured.
+ *
+ * @see LedgerFixture
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+@State(Scope.Benchmark)
+public class CustomerControllerBenchmark {
+
+  /**
+   * The number of customers registered in one iteration.
+   */
+  static final int BATCH = 100;
+
+  /**
+   * The number of pre-drawn logins; a power of two.
+   */
+  private static final int LOGIN_COUNT = 1 << 12;
+
+  /**
+   * The number of registered customers.
+   */
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  public int size;
+
+  /**
+   * The scratch directory holding a copy of the generated customers file.
+   */
+  private Path directory;
+  /**
+   * The copy of the generated customers file, restored before each iteration
+   * of {@link #registerNewUser}.
+   */
+  Path pristine;
+  /**
+   * The controller under test.
+   */
+  CustomerController controller;
+  /**
+   * Usernames to log in with.
+   */
+  private String[] usernames;
+  /**
+   * The password matching each username in {@link #usernames}.
+   */
+  private String[] passwords;
+  /**
+   * The position of the next login.
+   */
+  private int next;
+  /**
+   * The number of customers registered so far, used to make new usernames.
+   */
+  private int registered;
+
+  /**
+   * Writes the customers file and loads it.
+   *
+   * @throws IOException If the customers file cannot be written.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    LedgerFixture.checkWorkingDirectory();
+    LedgerFixture.writeCustomers(LedgerFixture.CUSTOMERS_FILE_PATH, size);
+    directory = LedgerFixture.createScratchDirectory();
+    pristine = directory.resolve("customers.txt");
+    Files.copy(Paths.get(LedgerFixture.CUSTOMERS_FILE_PATH), pristine);
+    controller = new CustomerController();
+    Random random = new Random(LedgerFixture.SEED);
+    usernames = new String[LOGIN_COUNT];
+    passwords = new String[LOGIN_COUNT];
+    for (int i = 0; i < LOGIN_COUNT; i++) {
+      int customer = random.nextInt(size);
+      usernames[i] = LedgerFixture.username(customer);
+      passwords[i] = "password" + customer;
+    }
+  }
+
+  /**
+   * Deletes the scratch directory.
+   *
+   * @throws IOException If a file cannot be deleted.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    LedgerFixture.deleteRecursively(directory);
+  }
+
+  /**
+   * Checks one customer's credentials.
+   *
+   * @return Whether the login is valid.
+   */
+  @Benchmark
+  public boolean validateLogin() {
+    int login = next++ & (LOGIN_COUNT - 1);
+    return controller.validateLogin(usernames[login], passwords[login]);
+  }
+
+  /**
+   * Registers one new customer, saving the customers file.
+   *
+   * @param scratch Restores the customers file before the iteration.
+   * @return Whether the customer was registered.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 3, batchSize = BATCH)
+  @Measurement(iterations = 5, batchSize = BATCH)
+  public boolean registerNewUser(RegisteredCustomer scratch) {
+    String username = "newcustomer" + registered++;
+    return controller.registerNewUser(username, "secret", username + "@example.com");
+  }
+
+  /**
+   * Reloads every customer from the customers file.
+   *
+   * @return The number of customers loaded and the records rejected.
+   */
+  @Benchmark
+  public CustomerLoadResult loadCustomersFromFile() {
+    return controller.loadCustomersFromFile();
+  }
+
+  /**
+   * Restores the customer list before each iteration of
+   * {@link #registerNewUser}.
+   */
+  @State(Scope.Thread)
+  public static class RegisteredCustomer {
+
+    /**
+     * Copies the generated customers file back and loads it.
+     *
+     * @param benchmark The benchmark whose controller is reset.
+     * @throws IOException If the file cannot be copied.
+     */
+    @Setup(Level.Iteration)
+    public void restore(CustomerControllerBenchmark benchmark) throws IOException {
+      Files.copy(benchmark.pristine, Paths.get(LedgerFixture.CUSTOMERS_FILE_PATH),
+          StandardCopyOption.REPLACE_EXISTING);
+      benchmark.controller.loadCustomersFromFile();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package Benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The LedgerFixture class writes the bills and customers files the benchmarks
+ * run against.
+ *
+ * <h1>Contents</h1>
+ * The files are written by {@link LedgerGenerator} with a fixed seed, so every
+ * run of a benchmark sees the same files. A ledger of {@code n} bills belongs
+ * to {@code n / 10} customers (at least one), spread over them with the
+ * generator's default Zipfian distribution.
+ *
+ * <h1>Working Directory</h1>
+ * The controllers read {@code src/Model/bills.txt} and
+ * {@code src/Model/customers.txt} relative to the working directory. The
+ * benchmarks are therefore run from the {@code benchmarks} directory, where
+ * those paths hold generated data; {@link #checkWorkingDirectory()} refuses to
+ * overwrite the application's own data files.
+ *
+ * @see WrittenBillsBenchmark
+ * @see StaffControllerBenchmark
+ * @see CustomerControllerBenchmark
+ */
+public final class LedgerFixture {
+
+  /**
+   * The bills file read by the shared ledger.
+   */
+  public static final String BILLS_FILE_PATH = "src/Model/bills.txt";
+  /**
+   * The customers file read by the customer controller.
+   */
+  public static final String CUSTOMERS_FILE_PATH = "src/Model/customers.txt";
+  /**
+   * The seed of every generated file.
+   */
+  public static final long SEED = 42;
+
+  /**
+   * Prevents instantiation.
+   */
+  private LedgerFixture() {
+  }
+
+  /**
+   * Gets the number of customers owning a ledger of bills.
+   *
+   * @param bills The number of bills.
+   * @return The number of customers.
+   */
+  public static int customerCount(int bills) {
+    return Math.max(1, bills / 10);
+  }
+
+  /**
+   * Gets the username of a generated customer.
+   *
+   * @param index The index of the customer.
+   * @return The username.
+   * @see LedgerGenerator#username(int)
+   */
+  public static String username(int index) {
+    return LedgerGenerator.username(index);
+  }
+
+  /**
+   * Checks that the working directory is not the application's own project
+   * directory, whose data files the fixture would otherwise overwrite.
+   *
+   * @throws IllegalStateException If the benchmarks are run from the project
+   *                               root.
+   */
+  public static void checkWorkingDirectory() {
+    if (new File("src/Model/UtilityBill.java").exists()) {
+      throw new IllegalStateException(
+          "Run the benchmarks from the benchmarks directory, not the project root");
+    }
+  }
+
+  /**
+   * Writes a bills file of generated bills with IDs {@code 1} to
+   * {@code size}, removing any journal left next to it.
+   *
+   * @param path The path of the bills file.
+   * @param size The number of bills.
+   * @throws IOException If the file cannot be written.
+   */
+  public static void writeBills(String path, int size) throws IOException {
+    prepare(path);
+    Files.deleteIfExists(Paths.get(path + ".journal"));
+    Files.deleteIfExists(Paths.get(path + ".journal.compacting"));
+    LedgerGenerator generator = new LedgerGenerator(SEED);
+    generator.setCustomerCount(customerCount(size));
+    generator.setBillCount(size);
+    generator.writeBills(path);
+  }
+
+  /**
+   * Writes a customers file of generated customers. Customer {@code i} has
+   * password {@code password}{@code i}.
+   *
+   * @param path The path of the customers file.
+   * @param size The number of customers.
+   * @throws IOException If the file cannot be written.
+   */
+  public static void writeCustomers(String path, int size) throws IOException {
+    prepare(path);
+    LedgerGenerator generator = new LedgerGenerator(SEED);
+    generator.setCustomerCount(size);
+    generator.writeCustomers(path);
+  }
+
+  /**
+   * Creates a temporary directory for a benchmark's files.
+   *
+   * @return The directory.
+   * @throws IOException If the directory cannot be created.
+   */
+  public static Path createScratchDirectory() throws IOException {
+    return Files.createTempDirectory("utility-benchmark");
+  }
+
+  /**
+   * Deletes a directory and everything in it.
+   *
+   * @param directory The directory, or {@code null} to do nothing.
+   * @throws IOException If a file cannot be deleted.
+   */
+  public static void deleteRecursively(Path directory) throws IOException {
+    if (directory == null || !Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Creates the parent directories of a file.
+   *
+   * @param path The path of the file.
+   * @throws IOException If a directory cannot be created.
+   */
+  private static void prepare(String path) throws IOException {
+    Path parent = Paths.get(path).getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+  }
+}
@@ -0,0 +1,680 @@
+package Benchmark;
+
+import Model.BinaryBillStore;
+import Model.ServiceType;
+import Model.TariffSnapshot;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The LedgerGenerator class writes synthetic customers, bills and tariffs
+ * files for benchmarking and load testing.
+ *
+ * <h1>Contents</h1>
+ * Customer {@code i} is named {@code customer} followed by {@code i} as eight
+ * digits, so searching for one username never matches another. Each bill
+ * belongs to a customer drawn from a Zipfian distribution over the customers
+ * in index order, so a few heavy users own most of the bills; an exponent of
+ * {@code 0} spreads bills evenly. Service types follow a configurable mix,
+ * dates are uniform over a range of days, and readings are uniform tenths
+ * from {@code 0.0} to {@code 999.9}. Every bill is priced under the generated
+ * tariffs, which are the defaults declared by {@link ServiceType}.
+ *
+ * <h1>Determinism</h1>
+ * All values come from a {@link SplittableRandom} with the given seed, so the
+ * same seed and settings always produce byte-identical files, and the text and
+ * binary bills files hold the same bills.
+ *
+ * <h1>Method Details</h1>
+ * Text files are formatted straight into a byte buffer and written through a
+ * {@link FileChannel}, without building a string per line.
+ * Date text is formatted once per day of the range. The binary file is written
+ * by {@link BinaryBillStore}.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * java -cp target/benchmarks.jar Benchmark.LedgerGenerator /tmp/ledger 1000000 10000000 42 --zipf 1.2
+ * </code>
+ * </pre>
+ *
+ * <pre>
+ * <code>
+ * LedgerGenerator generator = new LedgerGenerator(42);
+ * generator.setCustomerCount(1000);
+ * generator.setBillCount(10000);
+ * generator.setZipfExponent(0);
+ * generator.writeBills("bills.txt");
+ * </code>
+ * </pre>
+ *
+ * @see BinaryBillStore
+ * @see TariffSnapshot
+ */
+public class LedgerGenerator {
+
+  /**
+   * The largest number of customers, limited by the eight-digit usernames.
+   */
+  public static final int MAX_CUSTOMERS = 100_000_000;
+  /**
+   * The default Zipf exponent.
+   */
+  public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+  /**
+   * The number of reading steps; readings are tenths below 1000.
+   */
+  private static final int READING_TENTHS = 10_000;
+  /**
+   * The size of the buffer text is formatted into.
+   */
+  private static final int BUFFER_BYTES = 1 << 20;
+  /**
+   * The service types, indexed by ordinal.
+   */
+  private static final ServiceType[] TYPES = ServiceType.values();
+  /**
+   * The text every generated username starts with.
+   */
+  private static final byte[] USERNAME_PREFIX = "customer".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * The seed of every random value.
+   */
+  private final long seed;
+  /**
+   * The number of customers.
+   */
+  private int customerCount = 1000;
+  /**
+   * The number of bills.
+   */
+  private int billCount = 10_000;
+  /**
+   * The exponent of the Zipfian distribution of bills over customers.
+   */
+  private double zipfExponent = DEFAULT_ZIPF_EXPONENT;
+  /**
+   * The relative weight of each service type, indexed by ordinal.
+   */
+  private double[] serviceMix = { 1, 1, 1 };
+  /**
+   * The first epoch day of the date range, inclusive.
+   */
+  private int fromDay = (int) LocalDate.of(2020, 1, 1).toEpochDay();
+  /**
+   * The last epoch day of the date range, inclusive.
+   */
+  private int toDay = (int) LocalDate.of(2024, 12, 31).toEpochDay();
+  /**
+   * The tariffs the bills are priced under.
+   */
+  private final TariffSnapshot tariffs = TariffSnapshot.defaults();
+
+  /**
+   * Constructs a generator with the default settings: 1000 customers, 10000
+   * bills, a Zipf exponent of 1, an even service mix and dates from 2020 to
+   * 2024.
+   *
+   * @param seed The seed of every random value.
+   */
+  public LedgerGenerator(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Sets the number of customers.
+   *
+   * @param customerCount The number of customers, from 1 to
+   *                      {@link #MAX_CUSTOMERS}.
+   * @throws IllegalArgumentException If the count is out of range.
+   */
+  public void setCustomerCount(int customerCount) {
+    if (customerCount < 1 || customerCount > MAX_CUSTOMERS) {
+      throw new IllegalArgumentException("Customer count out of range: " + customerCount);
+    }
+    this.customerCount = customerCount;
+  }
+
+  /**
+   * Sets the number of bills.
+   *
+   * @param billCount The number of bills, at least 0.
+   * @throws IllegalArgumentException If the count is negative.
+   */
+  public void setBillCount(int billCount) {
+    if (billCount < 0) {
+      throw new IllegalArgumentException("Bill count out of range: " + billCount);
+    }
+    this.billCount = billCount;
+  }
+
+  /**
+   * Sets the exponent of the Zipfian distribution of bills over customers.
+   * Customer {@code i} receives bills in proportion to
+   * {@code 1 / (i + 1)^exponent}.
+   *
+   * @param zipfExponent The exponent, at least 0; 0 spreads bills evenly.
+   * @throws IllegalArgumentException If the exponent is negative.
+   */
+  public void setZipfExponent(double zipfExponent) {
+    if (!(zipfExponent >= 0)) {
+      throw new IllegalArgumentException("Zipf exponent out of range: " + zipfExponent);
+    }
+    this.zipfExponent = zipfExponent;
+  }
+
+  /**
+   * Sets the relative share of each service type.
+   *
+   * @param type   The service type.
+   * @param weight The relative weight of the type, at least 0.
+   * @throws IllegalArgumentException If the weight is negative.
+   */
+  public void setServiceWeight(ServiceType type, double weight) {
+    if (!(weight >= 0)) {
+      throw new IllegalArgumentException("Service weight out of range: " + weight);
+    }
+    serviceMix[type.ordinal()] = weight;
+  }
+
+  /**
+   * Sets the range of bill dates.
+   *
+   * @param from The first date, inclusive.
+   * @param to   The last date, inclusive.
+   * @throws IllegalArgumentException If the range is empty.
+   */
+  public void setDateRange(LocalDate from, LocalDate to) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("Empty date range: " + from + " to " + to);
+    }
+    this.fromDay = (int) from.toEpochDay();
+    this.toDay = (int) to.toEpochDay();
+  }
+
+  /**
+   * Gets the username of a generated customer.
+   *
+   * @param index The index of the customer.
+   * @return The username.
+   */
+  public static String username(int index) {
+    char[] name = { 'c', 'u', 's', 't', 'o', 'm', 'e', 'r', '0', '0', '0', '0', '0', '0', '0', '0' };
+    for (int i = name.length - 1; index > 0; i--) {
+      name[i] = (char) ('0' + index % 10);
+      index /= 10;
+    }
+    return new String(name);
+  }
+
+  /**
+   * Writes the customers file, one {@code username,password,email} line per
+   * customer. Customer {@code i} has password {@code password}{@code i}.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void writeCustomers(String path) throws IOException {
+    try (ChannelWriter out = new ChannelWriter(Paths.get(path))) {
+      for (int i = 0; i < customerCount; i++) {
+        out.putUsername(i);
+        out.put(",password").putNumber(i).put(',');
+        out.putUsername(i);
+        out.put("@example.com\n");
+      }
+    }
+  }
+
+  /**
+   * Writes the bills in the comma-separated text format.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void writeBills(String path) throws IOException {
+    byte[][] typeNames = new byte[TYPES.length][];
+    for (ServiceType type : TYPES) {
+      typeNames[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+    }
+    byte[][] dates = new byte[toDay - fromDay + 1][];
+    for (int i = 0; i < dates.length; i++) {
+      dates[i] = LocalDate.ofEpochDay(fromDay + i).toString().getBytes(StandardCharsets.US_ASCII);
+    }
+    try (ChannelWriter out = new ChannelWriter(Paths.get(path))) {
+      generateBills((id, customer, type, readingTenths, priceCents, epochDay) -> {
+        out.putNumber(id).put(',');
+        out.putUsername(customer).put(',');
+        out.put(typeNames[type]).put(',');
+        out.putNumber(readingTenths / 10).put('.').putNumber(readingTenths % 10).put(',');
+        out.putNumber(priceCents / 100).put('.').putPadded(priceCents % 100, 2).put(',');
+        out.put(dates[epochDay - fromDay]).put('\n');
+      });
+    }
+  }
+
+  /**
+   * Writes the same bills as {@link #writeBills(String)} in the binary format
+   * of {@link BinaryBillStore}.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void writeBinaryBills(String path) throws IOException {
+    BinaryBillStore.Columns columns = new BinaryBillStore.Columns(billCount);
+    int[] userCodes = new int[customerCount];
+    Arrays.fill(userCodes, -1);
+    int[] typeCodes = new int[TYPES.length];
+    Arrays.fill(typeCodes, -1);
+    generateBills((id, customer, type, readingTenths, priceCents, epochDay) -> {
+      if (userCodes[customer] < 0) {
+        userCodes[customer] = columns.code(username(customer));
+      }
+      if (typeCodes[type] < 0) {
+        typeCodes[type] = columns.code(TYPES[type].name());
+      }
+      columns.add(id, userCodes[customer], typeCodes[type], readingTenths / 10.0, priceCents, epochDay);
+    });
+    columns.writeTo(path);
+  }
+
+  /**
+   * Writes the tariffs the bills are priced under in the prices file format.
+   *
+   * @param path The path of the file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void writePrices(String path) throws IOException {
+    tariffs.write(path);
+  }
+
+  /**
+   * Receives the generated bills in ID order.
+   */
+  private interface BillSink {
+
+    /**
+     * Receives one bill.
+     *
+     * @param id            The bill ID, counting from 1.
+     * @param customer      The index of the customer owning the bill.
+     * @param type          The ordinal of the service type.
+     * @param readingTenths The reading in tenths of a unit.
+     * @param priceCents    The price in cents.
+     * @param epochDay      The epoch day of the bill date.
+     * @throws IOException If the bill cannot be written.
+     */
+    void accept(int id, int customer, int type, int readingTenths, long priceCents, int epochDay)
+        throws IOException;
+  }
+
+  /**
+   * Generates every bill from the seed.
+   *
+   * @param sink Receives the bills.
+   * @throws IOException If the sink cannot write a bill.
+   */
+  private void generateBills(BillSink sink) throws IOException {
+    SplittableRandom random = new SplittableRandom(seed);
+    AliasTable customers = zipfExponent == 0 ? null : new AliasTable(zipfWeights());
+    AliasTable mix = new AliasTable(serviceMix);
+    int days = toDay - fromDay + 1;
+    for (int id = 1; id <= billCount; id++) {
+      int customer = customers == null ? random.nextInt(customerCount) : customers.sample(random);
+      int type = mix.sample(random);
+      int readingTenths = random.nextInt(READING_TENTHS);
+      int epochDay = fromDay + random.nextInt(days);
+      long priceCents = tariffs.price(TYPES[type], readingTenths / 10.0, epochDay);
+      sink.accept(id, customer, type, readingTenths, priceCents, epochDay);
+    }
+  }
+
+  /**
+   * Builds the Zipfian weights of bills over customers.
+   *
+   * @return The relative weight of each customer.
+   */
+  private double[] zipfWeights() {
+    double[] weights = new double[customerCount];
+    for (int i = 0; i < customerCount; i++) {
+      weights[i] = Math.pow(i + 1, -zipfExponent);
+    }
+    return weights;
+  }
+
+  /**
+   * Draws indexes from a discrete distribution in constant time with Vose's
+   * alias method.
+   */
+  private static final class AliasTable {
+
+    /**
+     * The scale of the keep probabilities, one more than the largest value of
+     * a 31-bit random draw.
+     */
+    private static final long KEEP_SCALE = 1L << 31;
+
+    /**
+     * One entry per column: the probability of keeping the column, scaled by
+     * {@link #KEEP_SCALE}, in the high 32 bits and the index it falls back to
+     * in the low 32 bits, so a draw touches a single array element.
+     */
+    private final long[] columns;
+
+    /**
+     * Builds the table.
+     *
+     * @param weights The relative weight of each index.
+     * @throws IllegalArgumentException If every weight is 0.
+     */
+    AliasTable(double[] weights) {
+      int n = weights.length;
+      double sum = 0;
+      for (double weight : weights) {
+        sum += weight;
+      }
+      if (!(sum > 0)) {
+        throw new IllegalArgumentException("Weights must not all be zero");
+      }
+      double[] keep = new double[n];
+      int[] alias = new int[n];
+      int[] small = new int[n];
+      int[] large = new int[n];
+      int smallCount = 0;
+      int largeCount = 0;
+      for (int i = 0; i < n; i++) {
+        alias[i] = i;
+        keep[i] = weights[i] * n / sum;
+        if (keep[i] < 1) {
+          small[smallCount++] = i;
+        } else {
+          large[largeCount++] = i;
+        }
+      }
+      while (smallCount > 0 && largeCount > 0) {
+        int less = small[--smallCount];
+        int more = large[--largeCount];
+        alias[less] = more;
+        keep[more] += keep[less] - 1;
+        if (keep[more] < 1) {
+          small[smallCount++] = more;
+        } else {
+          large[largeCount++] = more;
+        }
+      }
+      while (largeCount > 0) {
+        keep[large[--largeCount]] = 1;
+      }
+      while (smallCount > 0) {
+        keep[small[--smallCount]] = 1;
+      }
+      columns = new long[n];
+      for (int i = 0; i < n; i++) {
+        columns[i] = (long) (Math.min(keep[i], 1) * KEEP_SCALE) << 32 | alias[i];
+      }
+    }
+
+    /**
+     * Draws an index.
+     *
+     * @param random The source of randomness.
+     * @return An index drawn in proportion to its weight.
+     */
+    int sample(SplittableRandom random) {
+      int column = random.nextInt(columns.length);
+      long entry = columns[column];
+      return (random.nextInt() >>> 1) < (entry >>> 32) ? column : (int) entry;
+    }
+  }
+
+  /**
+   * Writes ASCII text to a file through a buffered channel.
+   */
+  private static final class ChannelWriter implements AutoCloseable {
+
+    /**
+     * The file being written.
+     */
+    private final FileChannel channel;
+    /**
+     * The text not yet written; only the first {@link #position} bytes are
+     * used.
+     */
+    private final byte[] bytes = new byte[BUFFER_BYTES];
+    /**
+     * The number of bytes in {@link #bytes}.
+     */
+    private int position;
+
+    /**
+     * Opens a file, replacing any existing file.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    ChannelWriter(Path path) throws IOException {
+      channel = FileChannel.open(
+          path,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes one ASCII character.
+     */
+    ChannelWriter put(char c) throws IOException {
+      ensure(1);
+      bytes[position++] = (byte) c;
+      return this;
+    }
+
+    /**
+     * Writes ASCII bytes.
+     */
+    ChannelWriter put(byte[] text) throws IOException {
+      ensure(text.length);
+      System.arraycopy(text, 0, bytes, position, text.length);
+      position += text.length;
+      return this;
+    }
+
+    /**
+     * Writes an ASCII string.
+     */
+    ChannelWriter put(String ascii) throws IOException {
+      ensure(ascii.length());
+      for (int i = 0; i < ascii.length(); i++) {
+        bytes[position++] = (byte) ascii.charAt(i);
+      }
+      return this;
+    }
+
+    /**
+     * Writes a non-negative number without leading zeros.
+     */
+    ChannelWriter putNumber(long value) throws IOException {
+      int width = 1;
+      for (long rest = value / 10; rest > 0; rest /= 10) {
+        width++;
+      }
+      return putPadded(value, width);
+    }
+
+    /**
+     * Writes a non-negative number padded with leading zeros to a width.
+     */
+    ChannelWriter putPadded(long value, int width) throws IOException {
+      ensure(width);
+      for (int i = position + width - 1; i >= position; i--) {
+        bytes[i] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+      position += width;
+      return this;
+    }
+
+    /**
+     * Writes the username of a generated customer.
+     */
+    ChannelWriter putUsername(int index) throws IOException {
+      return put(USERNAME_PREFIX).putPadded(index, 8);
+    }
+
+    /**
+     * Makes room for some bytes, writing the buffer out if needed.
+     */
+    private void ensure(int count) throws IOException {
+      if (bytes.length - position < count) {
+        flush();
+      }
+    }
+
+    /**
+     * Writes out the buffered text.
+     */
+    private void flush() throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, position);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * The command line usage of {@link #main(String[])}.
+   */
+  private static final String USAGE =
+      "Usage: LedgerGenerator <directory> <customers> <bills> [seed]"
+          + " [--zipf <exponent>] [--mix <type>=<weight>,...]"
+          + " [--from <yyyy-MM-dd>] [--to <yyyy-MM-dd>]";
+
+  /**
+   * Generates a ledger from the command line, writing {@code customers.txt},
+   * {@code bills.txt}, {@code bills.bin} and {@code ServicePrices.txt} to a
+   * directory, which is created if it does not exist.
+   *
+   * <pre>
+   * <code>
+   * java Benchmark.LedgerGenerator &lt;directory&gt; &lt;customers&gt; &lt;bills&gt; [seed]
+   *     [--zipf &lt;exponent&gt;] [--mix &lt;type&gt;=&lt;weight&gt;,...]
+   *     [--from &lt;yyyy-MM-dd&gt;] [--to &lt;yyyy-MM-dd&gt;]
+   * </code>
+   * </pre>
+   *
+   * <p>
+   * {@code --mix} sets the weight of each listed service type, for example
+   * {@code --mix electricity=3,gas=1,water=0}; unlisted types keep a weight of
+   * 1. {@code --from} and {@code --to} bound the bill dates; either may be
+   * given alone.
+   * </p>
+   *
+   * @param args The directory, customer count, bill count, optional seed and
+   *             options.
+   * @throws IOException If a file cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    LedgerGenerator generator;
+    try {
+      generator = fromArguments(args);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      System.out.println(e.getMessage());
+      System.out.println(USAGE);
+      return;
+    }
+    Path directory = Paths.get(args[0]);
+    Files.createDirectories(directory);
+
+    long start = System.nanoTime();
+    generator.writeCustomers(directory.resolve("customers.txt").toString());
+    generator.writeBills(directory.resolve("bills.txt").toString());
+    generator.writeBinaryBills(directory.resolve("bills.bin").toString());
+    generator.writePrices(directory.resolve("ServicePrices.txt").toString());
+    System.out.println(
+        "Generated " + generator.billCount + " bills for " + generator.customerCount + " customers in " +
+            (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+
+  /**
+   * Builds a generator from the arguments of {@link #main(String[])}.
+   *
+   * @param args The command line arguments.
+   * @return The configured generator.
+   * @throws IllegalArgumentException If an argument is missing or invalid.
+   * @throws DateTimeParseException   If a date is not {@code yyyy-MM-dd}.
+   */
+  private static LedgerGenerator fromArguments(String[] args) {
+    int positional = 0;
+    while (positional < args.length && !args[positional].startsWith("--")) {
+      positional++;
+    }
+    if (positional != 3 && positional != 4) {
+      throw new IllegalArgumentException("Expected a directory, customer and bill counts and an optional seed");
+    }
+    LedgerGenerator generator = new LedgerGenerator(positional == 4 ? Long.parseLong(args[3]) : 42);
+    generator.setCustomerCount(Integer.parseInt(args[1]));
+    generator.setBillCount(Integer.parseInt(args[2]));
+    LocalDate from = LocalDate.ofEpochDay(generator.fromDay);
+    LocalDate to = LocalDate.ofEpochDay(generator.toDay);
+    for (int i = positional; i < args.length; i += 2) {
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--zipf":
+          generator.setZipfExponent(Double.parseDouble(value));
+          break;
+        case "--mix":
+          for (String entry : value.split(",")) {
+            int equals = entry.indexOf('=');
+            if (equals < 0) {
+              throw new IllegalArgumentException("Expected <type>=<weight> in --mix: " + entry);
+            }
+            String type = entry.substring(0, equals).trim();
+            ServiceType serviceType;
+            try {
+              serviceType = ServiceType.valueOf(type.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+              throw new IllegalArgumentException("Unknown service type in --mix: " + type);
+            }
+            generator.setServiceWeight(serviceType, Double.parseDouble(entry.substring(equals + 1).trim()));
+          }
+          break;
+        case "--from":
+          from = LocalDate.parse(value);
+          break;
+        case "--to":
+          to = LocalDate.parse(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+    generator.setDateRange(from, to);
+    return generator;
+  }
+}
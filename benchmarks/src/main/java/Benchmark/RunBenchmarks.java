@@ -0,0 +1,49 @@
+package Benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The RunBenchmarks class runs the benchmarks with the GC profiler enabled,
+ * so every result reports allocation rate and bytes allocated per operation
+ * alongside throughput and average latency.
+ *
+ * <h1>Example Usage</h1>
+ * Run from the {@code benchmarks} directory; any JMH option may be passed.
+ *
+ * <pre>
+ * <code>
+ * mvn package
+ * java -jar target/benchmarks.jar
+ * java -jar target/benchmarks.jar WrittenBillsBenchmark.findbill -p size=1000,1000000
+ * </code>
+ * </pre>
+ */
+public final class RunBenchmarks {
+
+  /**
+   * Prevents instantiation.
+   */
+  private RunBenchmarks() {
+  }
+
+  /**
+   * Runs the benchmarks selected on the command line, or all of them.
+   *
+   * @param args JMH command-line options.
+   * @throws CommandLineOptionException If an option is invalid.
+   * @throws RunnerException            If a benchmark fails.
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    new Runner(
+        new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build())
+        .run();
+  }
+}
@@ -0,0 +1,99 @@
+package Benchmark;
+
+import Controller.StaffController;
+import Model.UtilityBill;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StaffControllerBenchmark class measures the admin dashboard queries of
+ * {@link StaffController}.
+ *
+ * <h1>Method Details</h1>
+ * The controller works on the shared ledger backed by
+ * {@link LedgerFixture#BILLS_FILE_PATH}, so each trial writes a generated
+ * ledger of {@link #size} bills there before the controller is first used.
+ * Every parameter value runs in its own fork, so the shared ledger is loaded
+ * once per size.
+ *
+ * @see LedgerFixture
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+@State(Scope.Benchmark)
+public class StaffControllerBenchmark {
+
+  /**
+   * The number of pre-drawn usernames; a power of two.
+   */
+  private static final int USERNAME_COUNT = 1 << 12;
+
+  /**
+   * The number of bills in the ledger.
+   */
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  public int size;
+
+  /**
+   * Usernames to look up, drawn uniformly from the ledger's customers.
+   */
+  private String[] usernames;
+  /**
+   * The position of the next username in {@link #usernames}.
+   */
+  private int next;
+
+  /**
+   * Writes the shared ledger's bills file.
+   *
+   * @throws IOException If the bills file cannot be written.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    LedgerFixture.checkWorkingDirectory();
+    LedgerFixture.writeBills(LedgerFixture.BILLS_FILE_PATH, size);
+    Random random = new Random(LedgerFixture.SEED);
+    int customers = LedgerFixture.customerCount(size);
+    usernames = new String[USERNAME_COUNT];
+    for (int i = 0; i < usernames.length; i++) {
+      usernames[i] = LedgerFixture.username(random.nextInt(customers));
+    }
+  }
+
+  /**
+   * Lists one customer's bills.
+   *
+   * @return The customer's bills.
+   */
+  @Benchmark
+  public ArrayList<UtilityBill> viewUserBills() {
+    return StaffController.viewUserBills(usernames[next++ & (USERNAME_COUNT - 1)]);
+  }
+
+  /**
+   * Reads the total price of every bill.
+   *
+   * @return The total in cents.
+   */
+  @Benchmark
+  public long calculateTotalPrice() {
+    return StaffController.calculateTotalPrice();
+  }
+}
@@ -0,0 +1,88 @@
+package Benchmark;
+
+import Model.UtilityBill;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The UtilityBillBenchmark class measures pricing a bill with
+ * {@link UtilityBill#setprice()}.
+ *
+ * <h1>Method Details</h1>
+ * Each trial builds {@link #size} bills in memory with seeded readings,
+ * service types and dates, and the benchmark reprices them in turn, so larger
+ * sizes show the cost of bills that are no longer in cache.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+@State(Scope.Benchmark)
+public class UtilityBillBenchmark {
+
+  /**
+   * The utility types of the generated bills.
+   */
+  private static final String[] UTILITY_TYPES = { "Electricity", "GAS", "WATER" };
+
+  /**
+   * The number of bills priced in turn.
+   */
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  public int size;
+
+  /**
+   * The bills to price.
+   */
+  private UtilityBill[] bills;
+  /**
+   * The position of the next bill to price.
+   */
+  private int next;
+
+  /**
+   * Builds the bills.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(LedgerFixture.SEED);
+    long firstDay = LocalDate.of(2020, 1, 1).toEpochDay();
+    bills = new UtilityBill[size];
+    for (int i = 0; i < size; i++) {
+      bills[i] = new UtilityBill(
+          i + 1,
+          LedgerFixture.username(i / 10),
+          UTILITY_TYPES[random.nextInt(UTILITY_TYPES.length)],
+          random.nextInt(1000),
+          0.0,
+          LocalDate.ofEpochDay(firstDay + random.nextInt(5 * 365)).toString());
+    }
+  }
+
+  /**
+   * Prices the next bill.
+   *
+   * @return The new price in cents.
+   */
+  @Benchmark
+  public long setprice() {
+    UtilityBill bill = bills[next];
+    next = next + 1 == size ? 0 : next + 1;
+    bill.setprice();
+    return bill.getPriceCents();
+  }
+}
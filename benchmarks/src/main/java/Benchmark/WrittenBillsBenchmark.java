@@ -0,0 +1,254 @@
+package Benchmark;
+
+import Model.UtilityBill;
+import Model.WrittenBills;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The WrittenBillsBenchmark class measures loading, finding, adding, editing
+ * and deleting bills in a {@link WrittenBills} ledger.
+ *
+ * <h1>Method Details</h1>
+ * Each trial writes a generated ledger of {@link #size} bills to a scratch
+ * directory and opens a journaled ledger over it, as the application does.
+ * Lookups and edits use bill IDs drawn ahead of time from a seeded
+ * {@link Random}, so drawing them is not measured. Adding and deleting are
+ * timed as single shots over batches of {@link #BATCH} bills of a scratch
+ * customer, which are removed or added again between iterations, so the
+ * ledger keeps its size however many operations run and no setup runs inside
+ * the measured window.
+ *
+ * <h1>Compaction</h1>
+ * Mutations never trigger a compaction during an iteration; the journal is
+ * folded into the bills file after each iteration instead, so every iteration
+ * starts from an empty journal and no background snapshot is written while
+ * time is measured.
+ *
+ * @see LedgerFixture
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+@State(Scope.Benchmark)
+public class WrittenBillsBenchmark {
+
+  /**
+   * The username of the bill added and deleted around each invocation.
+   */
+  static final String SCRATCH_USER = "benchmark_scratch";
+
+  /**
+   * The number of bills added or deleted in one iteration.
+   */
+  static final int BATCH = 1000;
+
+  /**
+   * The number of pre-drawn bill IDs; a power of two.
+   */
+  private static final int ID_COUNT = 1 << 16;
+
+  /**
+   * The number of bills in the ledger.
+   */
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  public int size;
+
+  /**
+   * The scratch directory holding the bills file and its journal.
+   */
+  private Path directory;
+  /**
+   * The ledger under test.
+   */
+  WrittenBills ledger;
+  /**
+   * Bill IDs to look up and edit, drawn uniformly from the ledger.
+   */
+  private int[] ids;
+  /**
+   * The position of the next ID in {@link #ids}.
+   */
+  private int next;
+
+  /**
+   * Writes the ledger and opens it.
+   *
+   * @throws IOException If the bills file cannot be written.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = LedgerFixture.createScratchDirectory();
+    String path = directory.resolve("bills.txt").toString();
+    LedgerFixture.writeBills(path, size);
+    ledger = new WrittenBills(path, true);
+    ledger.setCompactionThreshold(Integer.MAX_VALUE);
+    Random random = new Random(LedgerFixture.SEED);
+    ids = new int[ID_COUNT];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = 1 + random.nextInt(size);
+    }
+  }
+
+  /**
+   * Folds the journal written during the iteration into the bills file.
+   */
+  @TearDown(Level.Iteration)
+  public void compact() {
+    ledger.scheduleCompaction().join();
+  }
+
+  /**
+   * Deletes the scratch directory.
+   *
+   * @throws IOException If a file cannot be deleted.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    LedgerFixture.deleteRecursively(directory);
+  }
+
+  /**
+   * Gets the next pre-drawn bill ID.
+   *
+   * @return A bill ID in the ledger.
+   */
+  private int nextId() {
+    return ids[next++ & (ID_COUNT - 1)];
+  }
+
+  /**
+   * Reloads the whole ledger from its file and journal.
+   *
+   * @return The number of bills loaded.
+   */
+  @Benchmark
+  public int loadBillsFromFile() {
+    ledger.loadBillsFromFile();
+    return ledger.size();
+  }
+
+  /**
+   * Finds one bill by ID.
+   *
+   * @return The bill found.
+   */
+  @Benchmark
+  public UtilityBill findbill() {
+    return ledger.findbill(nextId());
+  }
+
+  /**
+   * Changes the reading of one bill, repricing and journaling it.
+   */
+  @Benchmark
+  public void editBill() {
+    int id = nextId();
+    ledger.editBill(id, (double) ((id + next) & 1023));
+  }
+
+  /**
+   * Adds one bill for the scratch customer.
+   *
+   * @param scratch Deletes the added bills after the iteration.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 3, batchSize = BATCH)
+  @Measurement(iterations = 5, batchSize = BATCH)
+  public void addBill(AddedBill scratch) {
+    ledger.addBill(SCRATCH_USER, "Electricity", 250.0, "2024-06-01");
+  }
+
+  /**
+   * Deletes one of the scratch customer's bills.
+   *
+   * @param scratch Adds the bills before the iteration.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 3, batchSize = BATCH)
+  @Measurement(iterations = 5, batchSize = BATCH)
+  public void deleteBill(ScratchBill scratch) {
+    ledger.deleteBill(scratch.nextId());
+  }
+
+  /**
+   * Removes the bills added by an iteration of {@link #addBill}.
+   */
+  @State(Scope.Thread)
+  public static class AddedBill {
+
+    /**
+     * Deletes every bill of the scratch customer.
+     *
+     * @param benchmark The benchmark whose ledger is cleaned up.
+     */
+    @TearDown(Level.Iteration)
+    public void delete(WrittenBillsBenchmark benchmark) {
+      for (UtilityBill bill : benchmark.ledger.getBillsForUser(SCRATCH_USER)) {
+        benchmark.ledger.deleteBill(bill.getId());
+      }
+    }
+  }
+
+  /**
+   * Provides the scratch bills for an iteration of {@link #deleteBill} to
+   * remove.
+   */
+  @State(Scope.Thread)
+  public static class ScratchBill {
+
+    /**
+     * The IDs of the bills to delete.
+     */
+    private final int[] ids = new int[BATCH];
+    /**
+     * The position of the next ID in {@link #ids}.
+     */
+    private int next;
+
+    /**
+     * Adds a batch of bills for the scratch customer.
+     *
+     * @param benchmark The benchmark whose ledger receives the bills.
+     */
+    @Setup(Level.Iteration)
+    public void add(WrittenBillsBenchmark benchmark) {
+      for (int i = 0; i < BATCH; i++) {
+        benchmark.ledger.addBill(SCRATCH_USER, "Electricity", 250.0, "2024-06-01");
+      }
+      int i = 0;
+      for (UtilityBill bill : benchmark.ledger.getBillsForUser(SCRATCH_USER)) {
+        ids[i++] = bill.getId();
+      }
+      next = 0;
+    }
+
+    /**
+     * Gets the ID of the next bill to delete.
+     *
+     * @return A scratch bill ID.
+     */
+    int nextId() {
+      return ids[next++];
+    }
+  }
+}
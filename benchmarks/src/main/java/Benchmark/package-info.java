@@ -0,0 +1,21 @@
+/**
+ * The Benchmark package contains JMH benchmarks for the hot paths of the Model
+ * and Controller packages.
+ *
+ * <p>Each benchmark is parameterized by ledger size, from a thousand to ten
+ * million records, and reports throughput, average latency and, through
+ * {@link Benchmark.RunBenchmarks}, allocation rate.</p>
+ *
+ * <p>This package includes the following classes:</p>
+ * <ul>
+ *   <li>{@link Benchmark.CustomerControllerBenchmark}</li>
+ *   <li>{@link Benchmark.LedgerFixture}</li>
+ *   <li>{@link Benchmark.LedgerGenerator}</li>
+ *   <li>{@link Benchmark.RunBenchmarks}</li>
+ *   <li>{@link Benchmark.StaffControllerBenchmark}</li>
+ *   <li>{@link Benchmark.UtilityBillBenchmark}</li>
+ *   <li>{@link Benchmark.WrittenBillsBenchmark}</li>
+ * </ul>
+ */
+
+package Benchmark;
@@ -0,0 +1,506 @@
+package Controller;
+
+import Model.BillChanges;
+import Model.Customer;
+import Model.UtilityBill;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * <h1>AsyncController Class</h1>
+ *
+ * The AsyncController class runs the controller and ledger calls that read or
+ * rewrite files on a bounded pool of background threads, returning a
+ * {@link CompletableFuture} for each, so the Swing event dispatch thread never
+ * waits for the disk.
+ *
+ * <h1>Executor</h1>
+ * The pool has {@value #THREADS} threads and holds at most
+ * {@value #QUEUE_CAPACITY} waiting calls. A call submitted while the queue is
+ * full is not run; its future completes exceptionally with a
+ * {@link RejectedExecutionException} instead of blocking the caller. The
+ * threads are daemon threads that stop after a while without work.
+ *
+ * <h1>Cancellation</h1>
+ * A call whose future is cancelled, or otherwise completed, before a pool
+ * thread takes it is skipped, so superseded work does not occupy the pool.
+ * A call that has already started runs to completion.
+ *
+ * <h1>Debouncing</h1>
+ * {@link #searchUserBills(String)} waits {@value #SEARCH_DEBOUNCE_MILLIS}
+ * milliseconds before taking a pool thread. A search cancelled within that
+ * time, because a newer one replaced it, never runs, so a burst of keystrokes
+ * costs one query.
+ *
+ * <h1>Streaming</h1>
+ * {@link #streamAllBills(ChunkSink)} and {@link #streamBills(Customer, ChunkSink)}
+ * read the bills a page at a time and hand each page to the caller as soon as
+ * it is read: first {@value #FIRST_PAGE_SIZE} bills, then chunks of
+ * {@value #CHUNK_SIZE}. The first page therefore arrives in the same time
+ * however large the ledger is, and the lock is never held for a whole copy.
+ * Each page is read by its own task, queued only when the caller asks for it
+ * through the token handed over with the previous page, so a stream never
+ * holds a pool thread while the caller catches up. A stream completes with the version of the ledger read before its first
+ * page; the bills changed while it ran are caught up with
+ * {@link #changesSince(long)} or {@link #changesSince(Customer, long)}.
+ *
+ * <h1>Results</h1>
+ * Futures complete on a pool thread. Swing callers hand the results to the
+ * event dispatch thread, for example with
+ * {@code future.thenAcceptAsync(action, SwingUtilities::invokeLater)}.
+ *
+ * <p>
+ * <strong>Usage Example:</strong>
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * AsyncController.viewAllBills()
+ *     .thenAcceptAsync(bills -&gt; tableModel.setBills(bills), SwingUtilities::invokeLater);
+ * </code>
+ * </pre>
+ *
+ * @see StaffController
+ * @see Customer
+ */
+public final class AsyncController {
+
+  /**
+   * The number of background threads.
+   */
+  public static final int THREADS = 2;
+
+  /**
+   * The number of calls that can wait for a background thread.
+   */
+  public static final int QUEUE_CAPACITY = 64;
+
+  /**
+   * The number of bills in the first page of a stream.
+   */
+  public static final int FIRST_PAGE_SIZE = 100;
+
+  /**
+   * The number of bills in each later chunk of a stream.
+   */
+  public static final int CHUNK_SIZE = 2000;
+
+  /**
+   * The number of milliseconds a search waits for further input before it
+   * runs.
+   */
+  public static final long SEARCH_DEBOUNCE_MILLIS = 150;
+
+  /**
+   * The number of the next background thread, used to name it.
+   */
+  private static final AtomicInteger threadNumber = new AtomicInteger(1);
+
+  /**
+   * The bounded pool the calls run on.
+   */
+  private static final ThreadPoolExecutor executor = createExecutor();
+
+  /**
+   * Prevents instantiation.
+   */
+  private AsyncController() {
+  }
+
+  /**
+   * Runs a call on a background thread.
+   *
+   * @param <T>  The type of the result.
+   * @param call The call.
+   * @return A future completing with the result of the call, or exceptionally
+   *         if it throws or the pool is full.
+   */
+  public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    execute(future, call);
+    return future;
+  }
+
+  /**
+   * Runs a call on a background thread after a delay. The call is skipped,
+   * without taking a pool thread, if its future is cancelled or otherwise
+   * completed before the delay ends.
+   *
+   * @param <T>         The type of the result.
+   * @param delayMillis The number of milliseconds to wait first.
+   * @param call        The call.
+   * @return A future completing with the result of the call, or exceptionally
+   *         if it throws or the pool is full.
+   */
+  public static <T> CompletableFuture<T> supplyAfter(long delayMillis, Supplier<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+      if (!future.isDone()) {
+        execute(future, call);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Hands a call to the pool, to complete a future with its result.
+   *
+   * @param <T>    The type of the result.
+   * @param future The future to complete.
+   * @param call   The call.
+   */
+  private static <T> void execute(CompletableFuture<T> future, Supplier<T> call) {
+    try {
+      executor.execute(() -> {
+        if (future.isDone()) {
+          return;
+        }
+        try {
+          future.complete(call.get());
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Runs a call without a result on a background thread.
+   *
+   * @param call The call.
+   * @return A future completing when the call returns, or exceptionally if it
+   *         throws or the pool is full.
+   */
+  public static CompletableFuture<Void> run(Runnable call) {
+    return supply(() -> {
+      call.run();
+      return null;
+    });
+  }
+
+  /**
+   * Gets every bill in the background.
+   *
+   * @return A future completing with the bills.
+   * @see StaffController#viewAllBills()
+   */
+  public static CompletableFuture<ArrayList<UtilityBill>> viewAllBills() {
+    return supply(StaffController::viewAllBills);
+  }
+
+  /**
+   * Streams every bill in the background, a page at a time.
+   *
+   * @param chunks Receives each non-empty page on a pool thread, in order,
+   *               with the token that reads the next page.
+   * @return A future completing with the ledger version the stream started
+   *         from. Cancelling it stops the stream before the next page.
+   * @see StaffController#viewBills(int, int)
+   */
+  public static CompletableFuture<Long> streamAllBills(ChunkSink<ArrayList<UtilityBill>> chunks) {
+    return stream(StaffController::viewBills, chunks);
+  }
+
+  /**
+   * Streams a customer's bills in the background, a page at a time.
+   *
+   * @param customer The customer.
+   * @param chunks   Receives each non-empty page on a pool thread, in order,
+   *                 with the token that reads the next page.
+   * @return A future completing with the ledger version the stream started
+   *         from. Cancelling it stops the stream before the next page.
+   * @see Customer#getBills(int, int)
+   */
+  public static CompletableFuture<Long> streamBills(
+      Customer customer,
+      ChunkSink<ArrayList<UtilityBill>> chunks) {
+    return stream(customer::getBills, chunks);
+  }
+
+  /**
+   * Gets the bills changed since a version of the ledger in the background.
+   *
+   * @param version The version the caller's bills are from.
+   * @return A future completing with the changes, or with {@code null} if
+   *         every bill must be read again.
+   * @see StaffController#viewChangesSince(long)
+   */
+  public static CompletableFuture<BillChanges> changesSince(long version) {
+    return supply(() -> StaffController.viewChangesSince(version));
+  }
+
+  /**
+   * Gets the changes to a customer's bills since a version of the ledger in
+   * the background.
+   *
+   * @param customer The customer.
+   * @param version  The version the caller's bills are from.
+   * @return A future completing with the changes, or with {@code null} if
+   *         every bill must be read again.
+   * @see Customer#getChangesSince(long)
+   */
+  public static CompletableFuture<BillChanges> changesSince(Customer customer, long version) {
+    return supply(() -> customer.getChangesSince(version));
+  }
+
+  /**
+   * Gets the bills of the users matching a search in the background.
+   *
+   * @param username The text to search usernames for.
+   * @return A future completing with the matching bills.
+   * @see StaffController#viewUserBills(String)
+   */
+  public static CompletableFuture<ArrayList<UtilityBill>> viewUserBills(String username) {
+    return supply(() -> StaffController.viewUserBills(username));
+  }
+
+  /**
+   * Runs a search as the user types, after {@value #SEARCH_DEBOUNCE_MILLIS}
+   * milliseconds in the background.
+   *
+   * <p>
+   * Cancelling the future before the delay ends abandons the search, so a
+   * caller that cancels the previous search whenever it starts a new one, as
+   * {@code RequestTracker.submitLatest} does, only queries the text typed
+   * last.
+   * </p>
+   *
+   * @param username The text to search usernames for.
+   * @return A future completing with the matching bills.
+   * @see StaffController#searchUserBills(String)
+   */
+  public static CompletableFuture<ArrayList<UtilityBill>> searchUserBills(String username) {
+    return supplyAfter(SEARCH_DEBOUNCE_MILLIS, () -> StaffController.searchUserBills(username));
+  }
+
+  /**
+   * Gets the total price of every bill in the background.
+   *
+   * @return A future completing with the total in cents.
+   * @see StaffController#calculateTotalPrice()
+   */
+  public static CompletableFuture<Long> calculateTotalPrice() {
+    return supply(StaffController::calculateTotalPrice);
+  }
+
+  /**
+   * Gets a customer's bills in the background.
+   *
+   * @param customer The customer.
+   * @return A future completing with the customer's bills.
+   * @see Customer#getBills()
+   */
+  public static CompletableFuture<ArrayList<UtilityBill>> getBills(Customer customer) {
+    return supply(customer::getBills);
+  }
+
+  /**
+   * Adds a bill for a customer in the background.
+   *
+   * @param customer         The customer.
+   * @param utilityType      The type of utility.
+   * @param meterMeasurement The meter measurement.
+   * @param date             The date of the bill.
+   * @return A future completing when the bill has been written.
+   * @see Customer#addBill(String, double, String)
+   */
+  public static CompletableFuture<Void> addBill(
+      Customer customer,
+      String utilityType,
+      double meterMeasurement,
+      String date) {
+    return run(() -> customer.addBill(utilityType, meterMeasurement, date));
+  }
+
+  /**
+   * Edits a customer's bill in the background.
+   *
+   * @param customer            The customer.
+   * @param billId              The ID of the bill.
+   * @param newMeterMeasurement The new meter measurement.
+   * @return A future completing when the change has been written.
+   * @see Customer#editBill(int, double)
+   */
+  public static CompletableFuture<Void> editBill(
+      Customer customer,
+      int billId,
+      double newMeterMeasurement) {
+    return run(() -> customer.editBill(billId, newMeterMeasurement));
+  }
+
+  /**
+   * Deletes a customer's bill in the background.
+   *
+   * @param customer The customer.
+   * @param billId   The ID of the bill.
+   * @return A future completing when the deletion has been written.
+   * @see Customer#deleteBill(int)
+   */
+  public static CompletableFuture<Void> deleteBill(Customer customer, int billId) {
+    return run(() -> customer.deleteBill(billId));
+  }
+
+  /**
+   * Streams bills in the background, a page at a time.
+   *
+   * <p>
+   * Each page is read by its own task on the pool, and the task reading the
+   * next page is only queued once the caller runs the {@code next} token it
+   * was handed with the previous page. No pool thread is held between pages,
+   * so other calls run in between, and a caller that runs the token as soon as
+   * it receives a page has at most one more page read ahead of it.
+   * </p>
+   *
+   * @param pages  Reads the page at an offset with a limit.
+   * @param chunks Receives each non-empty page.
+   * @return A future completing with the ledger version read before the first
+   *         page, once the last page has been handed over.
+   */
+  private static CompletableFuture<Long> stream(
+      BiFunction<Integer, Integer, ArrayList<UtilityBill>> pages,
+      ChunkSink<ArrayList<UtilityBill>> chunks) {
+    CompletableFuture<Long> future = new CompletableFuture<>();
+    new PageStream(pages, chunks, future).schedule();
+    return future;
+  }
+
+  /**
+   * Receives the chunks of a stream.
+   *
+   * @param <C> The type of a chunk.
+   */
+  @FunctionalInterface
+  public interface ChunkSink<C> {
+
+    /**
+     * Receives one chunk on a pool thread.
+     *
+     * @param chunk The chunk.
+     * @param next  Queues the reading of the next chunk when run, from any
+     *              thread; the stream stops until it is. It does nothing after
+     *              the last chunk.
+     */
+    void accept(C chunk, Runnable next);
+  }
+
+  /**
+   * The state of one stream of pages, read by one pool task per page.
+   */
+  private static final class PageStream implements Runnable {
+
+    /**
+     * Reads the page at an offset with a limit.
+     */
+    private final BiFunction<Integer, Integer, ArrayList<UtilityBill>> pages;
+    /**
+     * Receives each non-empty page.
+     */
+    private final ChunkSink<ArrayList<UtilityBill>> chunks;
+    /**
+     * Completes with the version once the last page has been handed over.
+     */
+    private final CompletableFuture<Long> future;
+    /**
+     * The ledger version read before the first page, or -1 until then.
+     */
+    private long version = -1;
+    /**
+     * The offset of the next page.
+     */
+    private int offset;
+    /**
+     * The size of the next page.
+     */
+    private int limit = FIRST_PAGE_SIZE;
+
+    /**
+     * Constructs a stream that has not read any page yet.
+     *
+     * @param pages  Reads the page at an offset with a limit.
+     * @param chunks Receives each non-empty page.
+     * @param future Completes with the version after the last page.
+     */
+    PageStream(
+        BiFunction<Integer, Integer, ArrayList<UtilityBill>> pages,
+        ChunkSink<ArrayList<UtilityBill>> chunks,
+        CompletableFuture<Long> future) {
+      this.pages = pages;
+      this.chunks = chunks;
+      this.future = future;
+    }
+
+    /**
+     * Queues the reading of the next page, unless the stream is over.
+     */
+    void schedule() {
+      if (future.isDone()) {
+        return;
+      }
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    /**
+     * Reads one page and hands it over, with the token to read the next.
+     */
+    @Override
+    public void run() {
+      if (future.isDone()) {
+        return;
+      }
+      try {
+        if (version < 0) {
+          version = StaffController.getLedgerVersion();
+        }
+        ArrayList<UtilityBill> page = pages.apply(offset, limit);
+        offset += page.size();
+        boolean last = page.size() < limit;
+        limit = CHUNK_SIZE;
+        if (last) {
+          if (!page.isEmpty()) {
+            chunks.accept(page, () -> { });
+          }
+          future.complete(version);
+        } else {
+          chunks.accept(page, this::schedule);
+        }
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Creates the bounded pool of daemon threads.
+   *
+   * @return The pool.
+   */
+  private static ThreadPoolExecutor createExecutor() {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+        THREADS,
+        THREADS,
+        30,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+        r -> {
+          Thread thread = new Thread(r, "controller-io-" + threadNumber.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+}
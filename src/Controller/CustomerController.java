@@ -1,10 +1,18 @@
 package Controller;
 
+import Metrics.CustomerLoadEvent;
+import Metrics.Instrumentation;
+import Metrics.LoginEvent;
+import Metrics.OperationStats;
+import Model.CsvRecordReader;
 import Model.Customer;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * This class is responsible for managing customer data, including registration,
@@ -32,6 +40,17 @@ import java.util.Scanner;
  * This class provides methods to load customers from the file and save
  * customers to the file.
  *
+ * <h1>Lookup</h1>
+ * Customers are indexed by username and by email in hash maps kept in step
+ * with the customer list, so login, lookup and availability checks take
+ * constant time however many customers are registered.
+ *
+ * <h1>Instrumentation</h1>
+ * Loading, saving, registering, removing and logging in are timed and counted
+ * through {@link Instrumentation} under the {@code CustomerController} MBean
+ * type. Loads and logins are also recorded as {@link CustomerLoadEvent} and
+ * {@link LoginEvent} Flight Recorder events.
+ *
  * <h1>Thread Safety</h1>
  * This class is not thread-safe, so external synchronization may be required
  * when accessed
@@ -42,6 +61,20 @@ import java.util.Scanner;
 
 public class CustomerController {
 
+  /**
+   * The statistics of each instrumented operation.
+   */
+  private static final OperationStats LOAD_CUSTOMERS =
+      Instrumentation.operation("CustomerController", "loadCustomersFromFile");
+  private static final OperationStats SAVE_CUSTOMERS =
+      Instrumentation.operation("CustomerController", "saveCustomersToFile");
+  private static final OperationStats REGISTER_NEW_USER =
+      Instrumentation.operation("CustomerController", "registerNewUser");
+  private static final OperationStats REMOVE_CUSTOMER =
+      Instrumentation.operation("CustomerController", "removeCustomer");
+  private static final OperationStats VALIDATE_LOGIN =
+      Instrumentation.operation("CustomerController", "validateLogin");
+
   /**
    * A list that holds customer objects.
    *
@@ -54,6 +87,26 @@ public class CustomerController {
    */
   private List<Customer> customers;
 
+  /**
+   * The registered customers keyed by username.
+   *
+   * <h1>Description</h1>
+   * The `customersByUsername` map indexes every customer in the `customers`
+   * list by username. It is updated whenever a customer is registered or
+   * removed.
+   */
+  private HashMap<String, Customer> customersByUsername;
+
+  /**
+   * The registered customers keyed by email address.
+   *
+   * <h1>Description</h1>
+   * The `customersByEmail` map indexes every customer in the `customers` list
+   * by email address. It is updated whenever a customer is registered or
+   * removed.
+   */
+  private HashMap<String, Customer> customersByEmail;
+
   /**
    * The file path for storing customer data.
    *
@@ -67,6 +120,16 @@ public class CustomerController {
    */
   private String customersFilePath; // File path for storing customer data
 
+  /**
+   * The outcome of the most recent load of the customer file.
+   *
+   * <h1>Description</h1>
+   * The `lastLoadResult` field keeps the result of the latest call to
+   * `loadCustomersFromFile`, including the load made by the constructor, so
+   * the records skipped at startup can still be inspected.
+   */
+  private CustomerLoadResult lastLoadResult;
+
   /**
    * Constructor for the CustomerController class that initializes the list of
    * customers
@@ -83,6 +146,8 @@ public class CustomerController {
    * This constructor automatically calls the `loadCustomersFromFile` method to
    * load
    * existing customer data from the file specified by the `customersFilePath`.
+   * Every record it skips is printed, and the result is kept for
+   * {@link #getLastLoadResult()}.
    *
    * <h1>Default File Path</h1>
    * By default, the `customersFilePath` is set to "src/Model/customers.txt". You
@@ -91,26 +156,46 @@ public class CustomerController {
    */
   public CustomerController() {
     this.customers = new ArrayList<>();
+    this.customersByUsername = new HashMap<>();
+    this.customersByEmail = new HashMap<>();
     this.customersFilePath = "src/Model/customers.txt";
-    this.loadCustomersFromFile();
+    CustomerLoadResult result = this.loadCustomersFromFile();
+    for (CustomerLoadResult.Rejection rejection : result.getRejections()) {
+      System.out.println(
+          "Skipped customer record on line " + rejection.getLineNumber() + ": " + rejection.getReason());
+    }
   }
 
   /**
    * Retrieves the list of customer objects.
    *
    * <h1>Usage</h1>
-   * Use this method to obtain a reference to the list of customer objects
-   * maintained
-   * by the {@link CustomerController} instance.
+   * Use this method to read the list of customer objects maintained
+   * by the {@link CustomerController} instance. The list cannot be changed
+   * through it, since customers must be registered and removed through the
+   * controller to keep its username and email indexes in step.
    *
-   * @return A list containing {@link Customer} objects.
+   * @return A read-only view of the {@link Customer} objects.
    */
   public List<Customer> getCustomers() {
-    return customers;
+    return Collections.unmodifiableList(customers);
   }
 
   /**
-   * Load customer data from a file, populating the customer list.
+   * Retrieves the outcome of the most recent load of the customer file.
+   *
+   * <h1>Usage</h1>
+   * Use this method to find the records skipped when the customer file was
+   * last loaded, including the load made by the constructor.
+   *
+   * @return The result of the latest {@link #loadCustomersFromFile()}.
+   */
+  public CustomerLoadResult getLastLoadResult() {
+    return lastLoadResult;
+  }
+
+  /**
+   * Load customer data from a file, replacing the customer list.
    * If the file is not found, it creates a new file.
    *
    * <h1>File Loading</h1>
@@ -118,33 +203,79 @@ public class CustomerController {
    * data is
    * stored in CSV (Comma-Separated Values) format, with each line containing
    * customer
-   * information in the order: username, password, email.
+   * information in the order: username, password, email. The file is streamed
+   * through the shared {@link CsvRecordReader}.
+   *
+   * <h1>Bulk Loading</h1>
+   * The customer list and its username and email indexes are built in a single
+   * pass and installed together once the whole file has been read. Uniqueness is
+   * checked against the indexes being built, so loading costs one lookup per
+   * record, and nothing is written back to the file.
+   *
+   * <h1>Rejected Records</h1>
+   * Records with a username or email already used by an earlier record, and
+   * records with fewer than three fields, are skipped and reported in the
+   * returned {@link CustomerLoadResult}.
    *
    * <h1>Error Handling</h1>
-   * If the file is not found, it will catch a `FileNotFoundException` and create
+   * If the file is not found, it will catch a `NoSuchFileException` and create
    * a new
    * customer file using the `saveCustomersToFile` method.
    *
-   * @throws FileNotFoundException If the customer data file is not found.
+   * @return The number of customers loaded and the records that were rejected.
+   * @see CsvRecordReader
+   * @see CustomerLoadResult
    */
-  public void loadCustomersFromFile() {
+  public CustomerLoadResult loadCustomersFromFile() {
+    long start = LOAD_CUSTOMERS.start();
+    CustomerLoadEvent event = CustomerLoadEvent.start(customersFilePath);
+    CustomerLoadResult result = new CustomerLoadResult();
     try {
-      File file = new File(customersFilePath);
-      Scanner scanner = new Scanner(file);
-
-      while (scanner.hasNextLine()) {
-        String line = scanner.nextLine();
-        String[] parts = line.split(",");
-        String username = parts[0].trim();
-        String password = parts[1].trim();
-        String email = parts[2].trim();
-        this.registerNewUser(username, password, email);
+      List<Customer> loaded = new ArrayList<>();
+      HashMap<String, Customer> byUsername = new HashMap<>();
+      HashMap<String, Customer> byEmail = new HashMap<>();
+      try {
+        CsvRecordReader.read(customersFilePath, record -> {
+          int line = record.getLineNumber();
+          if (record.getFieldCount() < 3) {
+            result.recordRejected(line,
+                record.getFieldCount() > 0 ? record.getString(0) : null, null,
+                CustomerLoadResult.Reason.MALFORMED);
+            return;
+          }
+          String username = record.getString(0);
+          String email = record.getString(2);
+          if (byUsername.containsKey(username)) {
+            result.recordRejected(line, username, email, CustomerLoadResult.Reason.DUPLICATE_USERNAME);
+            return;
+          }
+          if (byEmail.containsKey(email)) {
+            result.recordRejected(line, username, email, CustomerLoadResult.Reason.DUPLICATE_EMAIL);
+            return;
+          }
+          Customer customer = new Customer(username, record.getString(1), email);
+          loaded.add(customer);
+          byUsername.put(username, customer);
+          byEmail.put(email, customer);
+          result.recordLoaded();
+        });
+      } catch (NoSuchFileException e) {
+        System.out.println("Customers file not found. Creating a new file...");
+        saveCustomersToFile();
+        return result;
+      } catch (IOException e) {
+        LOAD_CUSTOMERS.recordError();
+        System.out.println("Error reading customers file: " + e.getMessage());
+        return result;
       }
-
-      scanner.close();
-    } catch (FileNotFoundException e) {
-      System.out.println("Customers file not found. Creating a new file...");
-      saveCustomersToFile();
+      this.customers = loaded;
+      this.customersByUsername = byUsername;
+      this.customersByEmail = byEmail;
+      return result;
+    } finally {
+      lastLoadResult = result;
+      event.finish(result.getLoadedCount(), result.getRejections().size());
+      LOAD_CUSTOMERS.stop(start);
     }
   }
 
@@ -180,21 +311,28 @@ public class CustomerController {
       String username,
       String password,
       String email) {
-    if (isUsernameTaken(username)) {
-      System.out.println(
-          "Username already exists. Please choose a different username.");
-      return false;
-    }
+    long start = REGISTER_NEW_USER.start();
+    try {
+      if (isUsernameTaken(username)) {
+        System.out.println(
+            "Username already exists. Please choose a different username.");
+        return false;
+      }
 
-    if (isEmailTaken(email)) {
-      System.out.println(
-          "Email address already exists. Please provide a different email address.");
-      return false;
+      if (isEmailTaken(email)) {
+        System.out.println(
+            "Email address already exists. Please provide a different email address.");
+        return false;
+      }
+      Customer customer = new Customer(username, password, email);
+      customers.add(customer);
+      customersByUsername.put(username, customer);
+      customersByEmail.put(email, customer);
+      saveCustomersToFile();
+      return true;
+    } finally {
+      REGISTER_NEW_USER.stop(start);
     }
-    Customer customer = new Customer(username, password, email);
-    customers.add(customer);
-    saveCustomersToFile();
-    return true;
   }
 
   /**
@@ -262,12 +400,18 @@ public class CustomerController {
    *                 the console.
    */
   public void removeCustomer(String username) {
-    if (isUsernameTaken(username)) {
-      Customer customer = getCustomerByUsername(username);
-      customers.remove(customer);
-      saveCustomersToFile();
-    } else {
-      System.out.println("Customer not found.");
+    long start = REMOVE_CUSTOMER.start();
+    try {
+      if (isUsernameTaken(username)) {
+        Customer customer = customersByUsername.remove(username);
+        customersByEmail.remove(customer.getEmail());
+        customers.remove(customer);
+        saveCustomersToFile();
+      } else {
+        System.out.println("Customer not found.");
+      }
+    } finally {
+      REMOVE_CUSTOMER.stop(start);
     }
   }
 
@@ -275,8 +419,8 @@ public class CustomerController {
    * Retrieve a customer by their username.
    *
    * <h1>Customer Retrieval</h1>
-   * This method searches the list of registered customers and attempts to
-   * retrieve a
+   * This method looks up the username index of registered customers and
+   * attempts to retrieve a
    * customer by their username. If a customer with the specified username is
    * found, the
    * customer object is returned. If the username is not found, the method returns
@@ -291,12 +435,7 @@ public class CustomerController {
    *         found.
    */
   public Customer getCustomerByUsername(String username) {
-    for (Customer customer : customers) {
-      if (customer.getUsername().equals(username)) {
-        return customer;
-      }
-    }
-    return null; // Customer not found
+    return customersByUsername.get(username); // null if not found
   }
 
   /**
@@ -321,12 +460,7 @@ public class CustomerController {
    *         registration.
    */
   public boolean isUsernameTaken(String username) {
-    for (Customer customer : customers) {
-      if (customer.getUsername().equals(username)) {
-        return true;
-      }
-    }
-    return false;
+    return customersByUsername.containsKey(username);
   }
 
   /**
@@ -352,12 +486,7 @@ public class CustomerController {
    *         registration.
    */
   public boolean isEmailTaken(String email) {
-    for (Customer customer : customers) {
-      if (customer.getEmail().equals(email)) {
-        return true;
-      }
-    }
-    return false;
+    return customersByEmail.containsKey(email);
   }
 
   /**
@@ -380,13 +509,16 @@ public class CustomerController {
    * @return `true` if the login credentials are valid, `false` if they are not.
    */
   public boolean validateLogin(String username, String password) {
-    for (Customer customer : customers) {
-      if (customer.getUsername().equals(username) &&
-          customer.getPassword().equals(password)) {
-        return true;
-      }
+    long start = VALIDATE_LOGIN.start();
+    LoginEvent event = LoginEvent.start();
+    boolean valid = false;
+    try {
+      valid = loadCustomer(username, password) != null;
+      return valid;
+    } finally {
+      event.finish(valid);
+      VALIDATE_LOGIN.stop(start);
     }
-    return false;
   }
 
   /**
@@ -428,9 +560,10 @@ public class CustomerController {
    *                     file.
    */
   public void saveCustomersToFile() {
+    long start = SAVE_CUSTOMERS.start();
     try {
       File file = new File(customersFilePath);
-      PrintWriter writer = new PrintWriter(file);
+      PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8);
 
       for (Customer customer : customers) {
         writer.println(
@@ -443,7 +576,10 @@ public class CustomerController {
 
       writer.close();
     } catch (IOException e) {
+      SAVE_CUSTOMERS.recordError();
       System.out.println("Error writing to customers file: " + e.getMessage());
+    } finally {
+      SAVE_CUSTOMERS.stop(start);
     }
   }
 
@@ -469,11 +605,9 @@ public class CustomerController {
    *         found based on the provided username and password.
    */
   public Customer loadCustomer(String username, String password) {
-    for (Customer customer : customers) {
-      if (customer.getUsername().equals(username) &&
-          customer.getPassword().equals(password)) {
-        return customer;
-      }
+    Customer customer = customersByUsername.get(username);
+    if (customer != null && customer.getPassword().equals(password)) {
+      return customer;
     }
     return null; // Customer not found
   }
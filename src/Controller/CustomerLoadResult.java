@@ -0,0 +1,177 @@
+package Controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class describes the outcome of bulk-loading the customer file.
+ *
+ * <h1>Usage</h1>
+ * An instance is returned by {@link CustomerController#loadCustomersFromFile()}.
+ * It reports how many customers were loaded and lists every record that was
+ * rejected, with its line number and the reason, instead of printing them.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * CustomerLoadResult result = controller.loadCustomersFromFile();
+ * for (CustomerLoadResult.Rejection rejection : result.getRejections()) {
+ *   log(rejection.getLineNumber() + ": " + rejection.getReason());
+ * }
+ * </code>
+ * </pre>
+ *
+ * @see CustomerController
+ */
+public class CustomerLoadResult {
+
+  /**
+   * The reasons a customer record can be rejected.
+   */
+  public enum Reason {
+    /**
+     * The username was already used by an earlier record.
+     */
+    DUPLICATE_USERNAME,
+    /**
+     * The email address was already used by an earlier record.
+     */
+    DUPLICATE_EMAIL,
+    /**
+     * The record did not have a username, password and email.
+     */
+    MALFORMED
+  }
+
+  /**
+   * One customer record that was not loaded.
+   */
+  public static final class Rejection {
+
+    /**
+     * The one-based line number of the record.
+     */
+    private final int lineNumber;
+    /**
+     * The username of the record, or {@code null} if it had none.
+     */
+    private final String username;
+    /**
+     * The email address of the record, or {@code null} if it had none.
+     */
+    private final String email;
+    /**
+     * Why the record was rejected.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructs a rejection.
+     *
+     * @param lineNumber The one-based line number of the record.
+     * @param username   The username of the record.
+     * @param email      The email address of the record.
+     * @param reason     Why the record was rejected.
+     */
+    Rejection(int lineNumber, String username, String email, Reason reason) {
+      this.lineNumber = lineNumber;
+      this.username = username;
+      this.email = email;
+      this.reason = reason;
+    }
+
+    /**
+     * Gets the one-based line number of the record.
+     *
+     * @return The line number.
+     */
+    public int getLineNumber() {
+      return lineNumber;
+    }
+
+    /**
+     * Gets the username of the record.
+     *
+     * @return The username, or {@code null} if the record had none.
+     */
+    public String getUsername() {
+      return username;
+    }
+
+    /**
+     * Gets the email address of the record.
+     *
+     * @return The email address, or {@code null} if the record had none.
+     */
+    public String getEmail() {
+      return email;
+    }
+
+    /**
+     * Gets why the record was rejected.
+     *
+     * @return The reason.
+     */
+    public Reason getReason() {
+      return reason;
+    }
+  }
+
+  /**
+   * The number of customers loaded.
+   */
+  private int loadedCount;
+
+  /**
+   * The records that were rejected, in file order.
+   */
+  private final List<Rejection> rejections = new ArrayList<>();
+
+  /**
+   * Counts one loaded customer.
+   */
+  void recordLoaded() {
+    loadedCount++;
+  }
+
+  /**
+   * Records a rejected customer record.
+   *
+   * @param lineNumber The one-based line number of the record.
+   * @param username   The username of the record.
+   * @param email      The email address of the record.
+   * @param reason     Why the record was rejected.
+   */
+  void recordRejected(int lineNumber, String username, String email, Reason reason) {
+    rejections.add(new Rejection(lineNumber, username, email, reason));
+  }
+
+  /**
+   * Gets the number of customers loaded.
+   *
+   * @return The number of customers loaded.
+   */
+  public int getLoadedCount() {
+    return loadedCount;
+  }
+
+  /**
+   * Gets the records that were rejected.
+   *
+   * @return An unmodifiable list of rejections in file order.
+   */
+  public List<Rejection> getRejections() {
+    return Collections.unmodifiableList(rejections);
+  }
+
+  /**
+   * Checks whether every record was loaded.
+   *
+   * @return `true` if no record was rejected.
+   */
+  public boolean isClean() {
+    return rejections.isEmpty();
+  }
+}
@@ -1,18 +1,25 @@
 package Controller;
 
+import Metrics.Instrumentation;
+import Metrics.OperationStats;
+import Metrics.TariffPublishEvent;
+import Model.Money;
+import Model.PricingEngine;
 import Model.ServiceType;
-import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import Model.TariffSnapshot;
+import java.io.IOException;
 
 /**
  * This class manages service prices for various service types.
  * It provides methods to update and retrieve service prices from a file.
- * Service prices are stored in a map, and changes are persisted to a text file.
+ * Service prices are published as immutable {@link TariffSnapshot} versions
+ * through the {@link PricingEngine}, and changes are persisted to a text file.
  * The file format for storing service prices is as follows:
  * - Each line contains the service name, unit price, and service price
  * separated by colons and commas.
  * - Example: GAS:0.4,0.6
+ * - A tariff that takes effect on a date adds the date after an at sign.
+ * - Example: GAS@2024-01-01:0.5,0.6
  *
  * @version 1.0
  * @since 2023-10-16
@@ -21,100 +28,68 @@ import java.util.Map;
 public class ServiceController {
 
   /**
-   * The file path for storing and loading service prices, and the map to store
-   * service prices.
+   * The file path for storing and loading service prices.
    *
    * <p>
-   * This class utilizes a text file to persist service prices and a map to
-   * maintain
-   * them in memory. The path to the prices file and the map are initialized as
-   * constants
-   * to manage service prices efficiently.
+   * This class utilizes a text file to persist service prices. The prices in
+   * force are kept in memory as the current {@link TariffSnapshot} of the
+   * {@link PricingEngine}, the same tariffs every bill is priced with.
    *
    * @since 2023-10-16
    * @version 1.0
+   * @see PricingEngine#PRICES_FILE_PATH
    */
-  private static final String PRICES_FILE_PATH = "src\\Model\\ServicePrices.txt";
+  private static final String PRICES_FILE_PATH = PricingEngine.PRICES_FILE_PATH;
 
   /**
-   * A map that associates {@link ServiceType} with an array of {@link Double} to
-   * represent service prices.
-   *
-   * <p>
-   * The map is used to store service prices in memory, and it is populated during
-   * the class
-   * initialization by reading data from the prices file.
-   *
-   * @see ServiceType
-   * @see Double
-   * @see #loadPricesFromFile()
-   */
-  private static Map<ServiceType, Double[]> servicePrices = new HashMap<>();
-
-  /**
-   * Initializes the {@code servicePrices} map by loading data from the prices
-   * file.
-   *
-   * @implSpec This method is automatically called when the class is loaded to
-   *           populate
-   *           the service prices map from the prices file.
-   * @see #servicePrices
-   * @see #PRICES_FILE_PATH
-   * @see #loadPricesFromFile()
+   * The statistics of each instrumented operation, published as MBeans under
+   * the {@code ServiceController} type by {@link Instrumentation}. Each change
+   * of tariffs is also recorded as a {@link TariffPublishEvent} Flight
+   * Recorder event, ending once the new tariffs are saved.
    */
-  static {
-    loadPricesFromFile();
-  }
+  private static final OperationStats LOAD_PRICES =
+      Instrumentation.operation("ServiceController", "loadPricesFromFile");
+  private static final OperationStats SAVE_PRICES =
+      Instrumentation.operation("ServiceController", "savePricesToFile");
+  private static final OperationStats UPDATE_UNIT_CHARGES =
+      Instrumentation.operation("ServiceController", "updateUnitCharges");
+  private static final OperationStats UPDATE_SERVICE_CHARGES =
+      Instrumentation.operation("ServiceController", "updateServiceCharges");
 
   /**
-   * Loads service prices from the prices file and populates the
-   * {@link #servicePrices} map.
-   *
-   * <p>
-   * This method reads service prices from a text file specified by the
-   * {@link #PRICES_FILE_PATH}
-   * constant and parses them into a map, associating service types with their
-   * respective unit and
-   * service prices.
+   * Loads service prices from the prices file and publishes them as the
+   * current tariffs.
    *
    * <p>
    * The format of each line in the prices file should be:
-   * {@code ServiceType:unitPrice,servicePrice}
+   * {@code ServiceType:unitPrice,servicePrice} for the base tariff, or
+   * {@code ServiceType@yyyy-MM-dd:unitPrice,servicePrice} for a tariff taking
+   * effect on that date. Tariffs missing from the file are kept. The file is
+   * applied on top of whatever tariffs are current when it is published, so
+   * a tariff published while the file was being read is kept as well.
    *
-   * @throws IOException if an I/O error occurs while reading the prices file.
    * @see #PRICES_FILE_PATH
-   * @see #servicePrices
-   * @see ServiceType
-   * @see Double
+   * @see TariffSnapshot#readChanges(String)
    */
-  private static void loadPricesFromFile() {
-    try (
-        BufferedReader reader = new BufferedReader(new FileReader(PRICES_FILE_PATH))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        String[] parts = line.split(":");
-        if (parts.length == 2) {
-          String serviceName = parts[0];
-          String[] prices = parts[1].split(",");
-          if (prices.length == 2) {
-            Double unitPrice = Double.parseDouble(prices[0]);
-            Double servicePrice = Double.parseDouble(prices[1]);
-            ServiceType serviceType = ServiceType.valueOf(serviceName);
-            servicePrices.put(serviceType, new Double[] { unitPrice, servicePrice });
-          }
-        }
-      }
-    } catch (IOException e) {
+  public static void loadPricesFromFile() {
+    long start = LOAD_PRICES.start();
+    TariffPublishEvent event = TariffPublishEvent.start(TariffPublishEvent.LOAD, null);
+    try {
+      PricingEngine.update(TariffSnapshot.readChanges(PRICES_FILE_PATH));
+    } catch (IOException | IllegalArgumentException e) {
+      LOAD_PRICES.recordError();
       e.printStackTrace();
+    } finally {
+      event.finish(PricingEngine.current().getVersion());
+      LOAD_PRICES.stop(start);
     }
   }
 
   /**
-   * Saves service prices from the {@link #servicePrices} map to the prices file.
+   * Saves the current tariffs to the prices file.
    *
    * <p>
-   * This method writes the service prices stored in the {@code servicePrices} map
-   * to a text file,
+   * This method writes the charges of every service type to a text file,
    * specified by the {@link #PRICES_FILE_PATH} constant, in the format:
    * {@code ServiceType:unitPrice,servicePrice}.
    *
@@ -122,23 +97,22 @@ public class ServiceController {
    * Existing data in the prices file will be overwritten with the updated service
    * prices.
    *
-   * @throws IOException if an I/O error occurs while writing to the prices file.
+   * @param tariffs The tariffs to save.
    * @see #PRICES_FILE_PATH
-   * @see #servicePrices
-   * @see ServiceType
-   * @see Double
+   * @see TariffSnapshot#write(String)
    */
-  private static void savePricesToFile() {
-    try (
-        BufferedWriter writer = new BufferedWriter(new FileWriter(PRICES_FILE_PATH))) {
-      for (Map.Entry<ServiceType, Double[]> entry : servicePrices.entrySet()) {
-        ServiceType serviceType = entry.getKey();
-        Double[] prices = entry.getValue();
-        writer.write(serviceType.name() + ":" + prices[0] + "," + prices[1]);
-        writer.newLine();
-      }
+  private static synchronized void savePricesToFile(TariffSnapshot tariffs) {
+    if (tariffs.getVersion() < PricingEngine.current().getVersion()) {
+      return;
+    }
+    long start = SAVE_PRICES.start();
+    try {
+      tariffs.write(PRICES_FILE_PATH);
     } catch (IOException e) {
+      SAVE_PRICES.recordError();
       e.printStackTrace();
+    } finally {
+      SAVE_PRICES.stop(start);
     }
   }
 
@@ -147,33 +121,38 @@ public class ServiceController {
    *
    * <p>
    * This method allows you to update the unit charges for a given
-   * {@link ServiceType}. If the
-   * specified service type does not exist in the price data, it will be added
-   * with default prices
-   * (0.0 for unit charges and service charges).
+   * {@link ServiceType} by publishing a new {@link TariffSnapshot}, which
+   * every bill priced afterwards uses.
    *
    * <p>
    * After updating the unit charges, the changes are saved to the prices file
    * using
-   * {@link #savePricesToFile()} to persist the updated service prices.
+   * {@link #savePricesToFile(TariffSnapshot)} to persist the updated service
+   * prices.
    *
    * @param serviceType    The type of service for which unit charges need to be
    *                       updated.
    * @param newUnitCharges The new unit charges to set for the specified service
-   *                       type.
-   * @throws IOException if an I/O error occurs while saving the updated prices to
-   *                     the file.
-   * @see #servicePrices
-   * @see #savePricesToFile()
+   *                       type, in dollars; stored to the nearest
+   *                       {@link Money#UNIT_CHARGE_SCALE}th of a dollar.
+   * @see PricingEngine#update
+   * @see #savePricesToFile(TariffSnapshot)
    * @see ServiceType
    */
   public static void updateUnitCharges(
       ServiceType serviceType,
       double newUnitCharges) {
-    Double[] prices = servicePrices.getOrDefault(serviceType, new Double[] { 0.0, 0.0 });
-    prices[0] = newUnitCharges;
-    servicePrices.put(serviceType, prices);
-    savePricesToFile();
+    long start = UPDATE_UNIT_CHARGES.start();
+    TariffPublishEvent event =
+        TariffPublishEvent.start(TariffPublishEvent.UNIT_CHARGES, serviceType.name());
+    try {
+      TariffSnapshot published = PricingEngine.update(
+          tariffs -> tariffs.withUnitCharges(serviceType, Money.unitChargeOf(newUnitCharges)));
+      savePricesToFile(published);
+      event.finish(published.getVersion());
+    } finally {
+      UPDATE_UNIT_CHARGES.stop(start);
+    }
   }
 
   /**
@@ -182,72 +161,72 @@ public class ServiceController {
    *
    * <p>
    * This method allows you to update the service charges for a given
-   * {@link ServiceType}. If the
-   * specified service type does not exist in the price data, it will be added
-   * with default prices
-   * (0.0 for unit charges and service charges).
+   * {@link ServiceType} by publishing a new {@link TariffSnapshot}, which
+   * every bill priced afterwards uses.
    *
    * <p>
    * After updating the service charges, the changes are saved to the prices file
    * using
-   * {@link #savePricesToFile()} to persist the updated service prices.
+   * {@link #savePricesToFile(TariffSnapshot)} to persist the updated service
+   * prices.
    *
    * @param serviceType       The type of service for which service charges need
    *                          to be updated.
    * @param newServiceCharges The new service charges to set for the specified
-   *                          service type.
-   * @throws IOException if an I/O error occurs while saving the updated prices to
-   *                     the file.
-   * @see #servicePrices
-   * @see #savePricesToFile()
+   *                          service type, in dollars; stored to the nearest
+   *                          cent.
+   * @see PricingEngine#update
+   * @see #savePricesToFile(TariffSnapshot)
    * @see ServiceType
    */
   public static void updateServiceCharges(
       ServiceType serviceType,
       double newServiceCharges) {
-    Double[] prices = servicePrices.getOrDefault(serviceType, new Double[] { 0.0, 0.0 });
-    prices[1] = newServiceCharges;
-    servicePrices.put(serviceType, prices);
-    savePricesToFile();
+    long start = UPDATE_SERVICE_CHARGES.start();
+    TariffPublishEvent event =
+        TariffPublishEvent.start(TariffPublishEvent.SERVICE_CHARGES, serviceType.name());
+    try {
+      TariffSnapshot published = PricingEngine.update(
+          tariffs -> tariffs.withServiceCharges(serviceType, Money.centsOf(newServiceCharges)));
+      savePricesToFile(published);
+      event.finish(published.getVersion());
+    } finally {
+      UPDATE_SERVICE_CHARGES.stop(start);
+    }
   }
 
   /**
    * Retrieves the service price for a specific service type.
    *
    * <p>
-   * This method returns the service price for the specified {@link ServiceType}.
-   * If the service type
-   * does not exist in the price data, it will return a default service price of
-   * 0.0.
+   * This method returns the service price for the specified {@link ServiceType}
+   * from the current tariffs.
    *
    * @param serviceType The type of service for which the service price is to be
    *                    retrieved.
-   * @return The service price for the specified service type.
-   * @see #servicePrices
+   * @return The service price for the specified service type, in dollars.
+   * @see PricingEngine#current()
    * @see ServiceType
    */
   public static double getServicePrice(ServiceType serviceType) {
-    Double[] prices = servicePrices.getOrDefault(serviceType, new Double[] { 0.0, 0.0 });
-    return prices[1]; // Return the service price
+    return Money.toDollars(PricingEngine.current().getServiceCharges(serviceType));
   }
 
   /**
    * Retrieves the unit price for a specific service type.
    *
    * <p>
-   * This method returns the unit price for the specified {@link ServiceType}. If
-   * the service type
-   * does not exist in the price data, it will return a default unit price of 0.0.
+   * This method returns the unit price for the specified {@link ServiceType}
+   * from the current tariffs.
    *
    * @param serviceType The type of service for which the unit price is to be
    *                    retrieved.
-   * @return The unit price for the specified service type.
-   * @see #servicePrices
+   * @return The unit price for the specified service type, in dollars.
+   * @see PricingEngine#current()
    * @see ServiceType
    */
   public static double getUnitPrice(ServiceType serviceType) {
-    Double[] prices = servicePrices.getOrDefault(serviceType, new Double[] { 0.0, 0.0 });
-    return prices[0]; // Return the unit price
+    return Money.unitChargeToDollars(PricingEngine.current().getUnitCharges(serviceType));
   }
 
   /**
@@ -1,8 +1,19 @@
 package Controller;
 
+import Metrics.Instrumentation;
+import Metrics.OperationStats;
+import Metrics.RepriceEvent;
+import Metrics.SearchEvent;
+import Model.BillChanges;
+import Model.Money;
+import Model.RepricingJob;
+import Model.ServiceType;
 import Model.UtilityBill;
 import Model.WrittenBills;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <h1>StaffController Class</h1>
@@ -32,8 +43,8 @@ import java.util.ArrayList;
  * printBills(userBills, "Bills for User " + usernameToView + ":");
  *
  * // Test calculateTotalPrice
- * double totalPrice = calculateTotalPrice();
- * System.out.println("Total Price for All Bills: " + totalPrice);
+ * long totalPrice = calculateTotalPrice();
+ * System.out.println("Total Price for All Bills: " + Money.format(totalPrice));
  * </code>
  * </pre>
  *
@@ -49,8 +60,9 @@ public class StaffController {
    * the application.
    *
    * <p>
-   * This object is instantiated as a static member of the {@link StaffController}
-   * class and serves as a
+   * This object is the application-wide ledger returned by
+   * {@link WrittenBills#getInstance()}, the same one customers add their bills
+   * to, and serves as a
    * central repository for utility bills. It provides methods to add, retrieve,
    * and manage utility bills.
    * </p>
@@ -61,14 +73,41 @@ public class StaffController {
    * 
    * <pre>
    * <code>
-   * private static WrittenBills writtenBills = new WrittenBills();
+   * private static final WrittenBills writtenBills = WrittenBills.getInstance();
    * </code>
    * </pre>
    *
    * @see StaffController
    * @see WrittenBills
    */
-  private static WrittenBills writtenBills = new WrittenBills();
+  private static final WrittenBills writtenBills = WrittenBills.getInstance();
+
+  /**
+   * The largest number of bills a search as the user types returns.
+   */
+  public static final int MAX_SEARCH_RESULTS = 1000;
+
+  /**
+   * <h1>Operation Statistics</h1>
+   *
+   * The statistics of each instrumented operation, published as MBeans under
+   * the {@code StaffController} type by {@link Instrumentation}. A search is
+   * timed while its query runs, and a repricing until its job completes; both
+   * are also recorded as {@link SearchEvent} and {@link RepriceEvent} Flight
+   * Recorder events.
+   */
+  private static final OperationStats VIEW_ALL_BILLS =
+      Instrumentation.operation("StaffController", "viewAllBills");
+  private static final OperationStats VIEW_USER_BILLS =
+      Instrumentation.operation("StaffController", "viewUserBills");
+  private static final OperationStats BILLS_BETWEEN =
+      Instrumentation.operation("StaffController", "billsBetween");
+  private static final OperationStats SEARCH_USER_BILLS =
+      Instrumentation.operation("StaffController", "searchUserBills");
+  private static final OperationStats CALCULATE_TOTAL_PRICE =
+      Instrumentation.operation("StaffController", "calculateTotalPrice");
+  private static final OperationStats REPRICE_BILLS =
+      Instrumentation.operation("StaffController", "repriceBills");
 
   /**
    * <h1>Main Method for Testing</h1>
@@ -111,8 +150,8 @@ public class StaffController {
    *     printBills(userBills, "Bills for User " + usernameToView + ":");
    *
    *     // Test calculateTotalPrice
-   *     double totalPrice = calculateTotalPrice();
-   *     System.out.println("Total Price for All Bills: " + totalPrice);
+   *     long totalPrice = calculateTotalPrice();
+   *     System.out.println("Total Price for All Bills: " + Money.format(totalPrice));
    * }
    * </code>
    * </pre>
@@ -167,8 +206,8 @@ public class StaffController {
    *     printBills(userBills, "Bills for User " + usernameToView + ":");
    *
    *     // Test calculateTotalPrice
-   *     double totalPrice = calculateTotalPrice();
-   *     System.out.println("Total Price for All Bills: " + totalPrice);
+   *     long totalPrice = calculateTotalPrice();
+   *     System.out.println("Total Price for All Bills: " + Money.format(totalPrice));
    * }
    * </code>
    * </pre>
@@ -193,8 +232,8 @@ public class StaffController {
     printBills(userBills, "Bills for User " + usernameToView + ":");
 
     // Test calculateTotalPrice
-    double totalPrice = calculateTotalPrice();
-    System.out.println("Total Price for All Bills: " + totalPrice);
+    long totalPrice = calculateTotalPrice();
+    System.out.println("Total Price for All Bills: " + Money.format(totalPrice));
   }
 
   /**
@@ -226,7 +265,75 @@ public class StaffController {
    * @see StaffController
    */
   public static ArrayList<UtilityBill> viewAllBills() {
-    return writtenBills.getBills();
+    long start = VIEW_ALL_BILLS.start();
+    try {
+      return writtenBills.getBills();
+    } finally {
+      VIEW_ALL_BILLS.stop(start);
+    }
+  }
+
+  /**
+   * <h1>View One Page of Utility Bills</h1>
+   *
+   * Retrieves one page of the utility bills stored in the application.
+   *
+   * <p>
+   * Each page is copied under the ledger's lock on its own, so paging through
+   * the ledger lets a view show the first bills before the rest are read.
+   * </p>
+   *
+   * <p>
+   * <strong>Usage Example:</strong>
+   * </p>
+   *
+   * <pre>
+   * <code>
+   * ArrayList<UtilityBill> firstPage = viewBills(0, 100);
+   * </code>
+   * </pre>
+   *
+   * @param offset The index of the first bill of the page.
+   * @param limit  The largest number of bills in the page.
+   * @return An ArrayList of {@link UtilityBill} objects holding the page,
+   *         empty past the last bill.
+   *
+   * @see WrittenBills#getBills(int, int)
+   */
+  public static ArrayList<UtilityBill> viewBills(int offset, int limit) {
+    return writtenBills.getBills(offset, limit);
+  }
+
+  /**
+   * <h1>Get the Ledger Version</h1>
+   *
+   * Returns the version of the ledger, which advances with every change to a
+   * bill. A view remembers the version of the bills it shows and later asks
+   * {@link #viewChangesSince(long)} for the bills changed since.
+   *
+   * @return The current version of the ledger.
+   *
+   * @see WrittenBills#getChangeVersion()
+   */
+  public static long getLedgerVersion() {
+    return writtenBills.getChangeVersion();
+  }
+
+  /**
+   * <h1>View Changed Utility Bills</h1>
+   *
+   * Retrieves the utility bills added, edited or deleted since a version of
+   * the ledger, so a view can update just those bills.
+   *
+   * @param version A version returned earlier by {@link #getLedgerVersion()}
+   *                or {@link BillChanges#getVersion()}.
+   * @return The changes, or {@code null} if the ledger no longer remembers all
+   *         of them and every bill must be read again.
+   *
+   * @see WrittenBills#getChangesSince(long)
+   */
+  public static BillChanges viewChangesSince(long version) {
+    return writtenBills.getChangesSince(version);
   }
 
   /**
@@ -237,9 +344,10 @@ public class StaffController {
    * <p>
    * This method takes a username as a parameter and retrieves a list of utility
    * bills associated with that user
-   * from the {@link WrittenBills} object. It creates a new ArrayList to store the
-   * user's bills and populates it
-   * with the matching utility bills.
+   * from the {@link WrittenBills} object. The usernames containing the given
+   * text are found through the ledger's search index, those starting with it
+   * first, and the bills of each matching user are collected from the per-user
+   * index, so only matching bills are visited.
    * </p>
    *
    * <p>
@@ -263,13 +371,126 @@ public class StaffController {
    * @see StaffController
    */
   public static ArrayList<UtilityBill> viewUserBills(String username) {
-    ArrayList<UtilityBill> userBills = new ArrayList<>();
-    for (UtilityBill bill : writtenBills.getBills()) {
-      if (bill.getUserName().contains(username)) {
-        userBills.add(bill);
+    return viewUserBills(username, Integer.MAX_VALUE);
+  }
+
+  /**
+   * <h1>View a Limited Number of Utility Bills for Users</h1>
+   *
+   * Retrieves at most a given number of the bills of the users whose usernames
+   * contain the given text.
+   *
+   * <p>
+   * Usernames are searched only until enough users to fill the limit have
+   * been found, and their bills are collected until the limit is reached, so
+   * a short query that matches most users costs no more than the bills it
+   * returns.
+   * </p>
+   *
+   * @param username The text to search usernames for.
+   * @param limit    The largest number of bills to return.
+   * @return An ArrayList of at most {@code limit} {@link UtilityBill} objects.
+   *
+   * @see #viewUserBills(String)
+   * @see WrittenBills#searchUsernames(String, int)
+   */
+  public static ArrayList<UtilityBill> viewUserBills(String username, int limit) {
+    long start = VIEW_USER_BILLS.start();
+    try {
+      ArrayList<UtilityBill> userBills = new ArrayList<>();
+      for (String name : writtenBills.searchUsernames(username, limit)) {
+        if (userBills.size() >= limit) {
+          break;
+        }
+        userBills.addAll(writtenBills.getBillsForUser(name, 0, limit - userBills.size()));
       }
+      return userBills;
+    } finally {
+      VIEW_USER_BILLS.stop(start);
+    }
+  }
+
+  /**
+   * <h1>View Utility Bills Between Two Dates</h1>
+   *
+   * Retrieves the utility bills dated between two dates, both inclusive.
+   *
+   * <p>
+   * The bills are read from the ledger's date index, so the cost grows with
+   * the number of bills returned rather than the size of the ledger. Bills
+   * without a valid date are never included.
+   * </p>
+   *
+   * <p>
+   * <strong>Usage Example:</strong>
+   * </p>
+   *
+   * <pre>
+   * <code>
+   * ArrayList<UtilityBill> bills = billsBetween(
+   *     LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+   * </code>
+   * </pre>
+   *
+   * @param from The first date, inclusive.
+   * @param to   The last date, inclusive.
+   * @return An ArrayList of {@link UtilityBill} objects ordered by date.
+   *
+   * @see WrittenBills#getBillsBetween(int, int)
+   */
+  public static ArrayList<UtilityBill> billsBetween(LocalDate from, LocalDate to) {
+    long start = BILLS_BETWEEN.start();
+    try {
+      return writtenBills.getBillsBetween((int) from.toEpochDay(), (int) to.toEpochDay());
+    } finally {
+      BILLS_BETWEEN.stop(start);
+    }
+  }
+
+  /**
+   * <h1>View Utility Bills of a Month</h1>
+   *
+   * Retrieves the utility bills dated in one month, ordered by date.
+   *
+   * @param month The month.
+   * @return An ArrayList of {@link UtilityBill} objects ordered by date.
+   *
+   * @see #billsBetween(LocalDate, LocalDate)
+   */
+  public static ArrayList<UtilityBill> billsForMonth(YearMonth month) {
+    return billsBetween(month.atDay(1), month.atEndOfMonth());
+  }
+
+  /**
+   * <h1>Search Utility Bills as the User Types</h1>
+   *
+   * Retrieves at most {@link #MAX_SEARCH_RESULTS} bills of the users whose
+   * usernames contain the given text.
+   *
+   * <p>
+   * This is the query behind the search bar. It is timed as the
+   * {@code searchUserBills} operation and recorded as a {@link SearchEvent}.
+   * Waiting for the user to stop typing and dropping the results of
+   * superseded searches are left to the caller, for example
+   * {@link AsyncController#searchUserBills(String)}.
+   * </p>
+   *
+   * @param username The text to search usernames for.
+   * @return An ArrayList of the matching {@link UtilityBill} objects.
+   *
+   * @see #viewUserBills(String, int)
+   */
+  public static ArrayList<UtilityBill> searchUserBills(String username) {
+    long start = SEARCH_USER_BILLS.start();
+    SearchEvent event = SearchEvent.start(SearchEvent.USER_BILLS, username);
+    ArrayList<UtilityBill> bills = null;
+    try {
+      bills = viewUserBills(username, MAX_SEARCH_RESULTS);
+      return bills;
+    } finally {
+      event.finish(bills == null ? 0 : bills.size());
+      SEARCH_USER_BILLS.stop(start);
     }
-    return userBills;
   }
 
   /**
@@ -278,11 +499,10 @@ public class StaffController {
    * Calculates the total price of all utility bills stored in the application.
    *
    * <p>
-   * This method iterates through the list of utility bills stored in the
-   * {@link WrittenBills} object and calculates
-   * the total price by summing the prices of all the bills. It provides a way to
-   * determine the overall cost of all
-   * utility bills in the system.
+   * This method reads the running total kept by the {@link WrittenBills}
+   * object, which is updated on every add, edit and delete, so it costs the
+   * same however many bills are stored. It provides a way to determine the
+   * overall cost of all utility bills in the system.
    * </p>
    *
    * <p>
@@ -291,23 +511,124 @@ public class StaffController {
    * 
    * <pre>
    * <code>
-   * double totalPrice = calculateTotalPrice();
-   * System.out.println("Total Price for All Bills: " + totalPrice);
+   * long totalPrice = calculateTotalPrice();
+   * System.out.println("Total Price for All Bills: " + Money.format(totalPrice));
    * </code>
    * </pre>
    *
-   * @return The total price of all utility bills as a double value.
+   * @return The total price of all utility bills in cents.
    *
    * @see UtilityBill
    * @see WrittenBills
    * @see StaffController
    */
-  public static double calculateTotalPrice() {
-    double total = 0.0;
-    for (UtilityBill bill : writtenBills.getBills()) {
-      total += bill.getPrice();
+  public static long calculateTotalPrice() {
+    long start = CALCULATE_TOTAL_PRICE.start();
+    try {
+      return writtenBills.getTotalPriceCents();
+    } finally {
+      CALCULATE_TOTAL_PRICE.stop(start);
     }
-    return total;
+  }
+
+  /**
+   * <h1>Calculate Total Price of a Service Type</h1>
+   *
+   * Returns the running total of the bills of one service type.
+   *
+   * @param serviceType The service type to total.
+   * @return The total price of the service type's bills in cents.
+   *
+   * @see WrittenBills#getTotalPriceCents(ServiceType)
+   */
+  public static long calculateTotalPrice(ServiceType serviceType) {
+    return writtenBills.getTotalPriceCents(serviceType);
+  }
+
+  /**
+   * <h1>Calculate Total Price of a User's Bills</h1>
+   *
+   * Returns the running total of one customer's bills.
+   *
+   * @param username The username of the customer.
+   * @return The total price of the customer's bills in cents.
+   *
+   * @see WrittenBills#getTotalPriceCentsForUser(String)
+   */
+  public static long calculateUserTotalPrice(String username) {
+    return writtenBills.getTotalPriceCentsForUser(username);
+  }
+
+  /**
+   * <h1>Calculate Total Price of a Month</h1>
+   *
+   * Returns the running total of the bills dated in one month.
+   *
+   * @param month The month to total.
+   * @return The total price of the month's bills in cents.
+   *
+   * @see WrittenBills#getTotalPriceCentsForMonth(String)
+   */
+  public static long calculateMonthlyTotalPrice(YearMonth month) {
+    return writtenBills.getTotalPriceCentsForMonth(month.toString());
+  }
+
+  /**
+   * <h1>Reprice Bills</h1>
+   *
+   * Starts a background job that reprices the bills of one service type dated
+   * inside a window, using the tariff in force on each bill's date.
+   *
+   * <p>
+   * The job prices in parallel on the common fork-join pool and saves the
+   * ledger once when it finishes. The listener receives the job with every
+   * progress report and may cancel it, in which case no price is changed.
+   * </p>
+   *
+   * <p>
+   * <strong>Usage Example:</strong>
+   * </p>
+   *
+   * <pre>
+   * <code>
+   * repriceBills(ServiceType.GAS, LocalDate.now(), null, null)
+   *     .thenAccept(count -> System.out.println(count + " bills repriced"));
+   * </code>
+   * </pre>
+   *
+   * @param serviceType The service type whose bills are repriced.
+   * @param from        The first date of the window, or {@code null} for no
+   *                    lower bound.
+   * @param to          The last date of the window, or {@code null} for no
+   *                    upper bound, which also includes undated bills.
+   * @param listener    Receives progress on pool threads, or {@code null}.
+   * @return A future completing with the number of bills repriced.
+   *
+   * @see RepricingJob
+   */
+  public static CompletableFuture<Integer> repriceBills(
+      ServiceType serviceType,
+      LocalDate from,
+      LocalDate to,
+      RepricingJob.ProgressListener listener) {
+    RepricingJob job = new RepricingJob(
+        writtenBills,
+        serviceType,
+        from == null ? Integer.MIN_VALUE : (int) from.toEpochDay(),
+        to == null ? Integer.MAX_VALUE : (int) to.toEpochDay(),
+        listener);
+    long start = REPRICE_BILLS.start();
+    RepriceEvent event = RepriceEvent.start(
+        serviceType.name(),
+        from == null ? null : from.toString(),
+        to == null ? null : to.toString());
+    return job.start().whenComplete((count, error) -> {
+      if (error != null) {
+        REPRICE_BILLS.recordError();
+      }
+      event.finish(count == null ? 0 : count, error == null);
+      REPRICE_BILLS.stop(start);
+    });
   }
 
   /**
@@ -348,7 +669,7 @@ public class StaffController {
               ", Username: " + bill.getUserName() +
               ", Utility Type: " + bill.getUtilityType() +
               ", Meter Measurement: " + bill.getMeterMeasurement() +
-              ", Price: " + bill.getPrice() +
+              ", Price: " + Money.format(bill.getPriceCents()) +
               ", Date: " + bill.getDate());
     }
     System.out.println();
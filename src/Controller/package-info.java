@@ -7,6 +7,7 @@
  *
  * <p>This package includes the following classes:</p>
  * <ul>
+ *   <li>{@link Controller.AsyncController}</li>
  *   <li>{@link Controller.CustomerController}</li>
  *   <li>{@link Controller.StaffController}</li>
  * </ul>
@@ -0,0 +1,76 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The AllocationEvent class is the Flight Recorder event committed for each
+ * call whose allocations {@link OperationStats} measured.
+ *
+ * <h1>Recording</h1>
+ * The event is enabled by default and has no stack trace, so a recording
+ * shows the allocations of the sampled calls next to the JVM's own allocation
+ * events. It can be turned off in a recording's settings as
+ * {@code UtilityCalculator.Allocation}.
+ *
+ * @see OperationStats
+ */
+@Name("UtilityCalculator.Allocation")
+@Label("Operation Allocation")
+@Category({"Utility Calculator", "Allocation"})
+@Description("Bytes allocated by one sampled call of an instrumented operation")
+@StackTrace(false)
+final class AllocationEvent extends Event {
+
+  /**
+   * The class the operation belongs to.
+   */
+  @Label("Component")
+  String component;
+
+  /**
+   * The name of the operation.
+   */
+  @Label("Operation")
+  String operation;
+
+  /**
+   * The bytes the call allocated on its thread.
+   */
+  @Label("Allocated")
+  @DataAmount
+  long allocated;
+
+  /**
+   * The duration of the call.
+   */
+  @Label("Call Duration")
+  @Timespan
+  long callDuration;
+
+  /**
+   * Commits an event for one measured call, if a recording has the event
+   * enabled.
+   *
+   * @param component The class the operation belongs to.
+   * @param operation The name of the operation.
+   * @param allocated The bytes the call allocated.
+   * @param duration  The duration of the call in nanoseconds.
+   */
+  static void emit(String component, String operation, long allocated, long duration) {
+    AllocationEvent event = new AllocationEvent();
+    if (event.isEnabled()) {
+      event.component = component;
+      event.operation = operation;
+      event.allocated = allocated;
+      event.callDuration = duration;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package Metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The AllocationSampler class reads how many bytes the current thread has
+ * allocated, for the allocation accounting of {@link OperationStats}.
+ *
+ * <h1>Sampling</h1>
+ * Reading the counter costs about as much as reading the clock, so only one
+ * call in every {@link #getInterval() interval} calls of an operation on a
+ * thread is measured; the first call on each thread always is. An interval of
+ * {@code 0} turns the accounting off. If the JVM cannot count allocations per
+ * thread the interval stays {@code 0}.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe.
+ *
+ * @see com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()
+ */
+final class AllocationSampler {
+
+  /**
+   * The default number of calls between measured calls.
+   */
+  static final int DEFAULT_INTERVAL = 8;
+
+  /**
+   * The thread MXBean that counts allocations, or {@code null} if the JVM
+   * cannot count them.
+   */
+  private static final com.sun.management.ThreadMXBean THREADS = threads();
+  /**
+   * The number of calls between measured calls, or {@code 0} if no call is
+   * measured.
+   */
+  private static volatile int interval = THREADS == null ? 0 : DEFAULT_INTERVAL;
+
+  /**
+   * Prevents instantiation.
+   */
+  private AllocationSampler() {
+  }
+
+  /**
+   * Checks whether the JVM counts allocations per thread.
+   *
+   * @return {@code true} if allocations can be measured.
+   */
+  static boolean isSupported() {
+    return THREADS != null;
+  }
+
+  /**
+   * Gets the number of calls between measured calls.
+   *
+   * @return The interval, or {@code 0} if no call is measured.
+   */
+  static int getInterval() {
+    return interval;
+  }
+
+  /**
+   * Sets the number of calls between measured calls. The setting is ignored
+   * if the JVM cannot count allocations per thread.
+   *
+   * @param calls The interval, {@code 1} to measure every call or {@code 0} to
+   *              measure none.
+   * @throws IllegalArgumentException If {@code calls} is negative.
+   */
+  static void setInterval(int calls) {
+    if (calls < 0) {
+      throw new IllegalArgumentException("Sample interval must not be negative: " + calls);
+    }
+    if (THREADS != null) {
+      interval = calls;
+    }
+  }
+
+  /**
+   * Gets the number of bytes the current thread has allocated since it
+   * started. Only differences between two readings are meaningful.
+   *
+   * @return The allocated bytes.
+   */
+  static long allocatedBytes() {
+    return THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * Gets the thread MXBean, enabling its allocation counting if needed.
+   *
+   * @return The thread MXBean, or {@code null} if it cannot count allocations.
+   */
+  private static com.sun.management.ThreadMXBean threads() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    if (!threads.isThreadAllocatedMemorySupported()) {
+      return null;
+    }
+    try {
+      if (!threads.isThreadAllocatedMemoryEnabled()) {
+        threads.setThreadAllocatedMemoryEnabled(true);
+      }
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return null;
+    }
+    return threads;
+  }
+}
@@ -0,0 +1,111 @@
+package Metrics;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The BillFileEvent class is the Flight Recorder event of one load or save of
+ * the bills file.
+ *
+ * <h1>Recording</h1>
+ * The event's duration covers the whole operation; a load includes replaying
+ * the journal. The size of the file is only read if a recording has the event
+ * enabled, so a disabled event costs an allocation the JIT compiler removes.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * BillFileEvent event = BillFileEvent.start(BillFileEvent.LOAD, path);
+ * ...
+ * event.finish(bills.size(), true);
+ * </code>
+ * </pre>
+ *
+ * @see Model.WrittenBills
+ */
+@Name("UtilityCalculator.BillFile")
+@Label("Bill File")
+@Category({"Utility Calculator", "Persistence"})
+@Description("Load or save of the bills file")
+@StackTrace(false)
+public final class BillFileEvent extends Event {
+
+  /**
+   * The operation of a load.
+   */
+  public static final String LOAD = "load";
+  /**
+   * The operation of a save.
+   */
+  public static final String SAVE = "save";
+
+  /**
+   * Whether the file was loaded or saved.
+   */
+  @Label("Operation")
+  String operation;
+
+  /**
+   * The path of the bills file.
+   */
+  @Label("Path")
+  String path;
+
+  /**
+   * The number of bills loaded or saved.
+   */
+  @Label("Records")
+  long records;
+
+  /**
+   * The size of the bills file afterwards.
+   */
+  @Label("Size")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Whether the operation succeeded.
+   */
+  @Label("Succeeded")
+  boolean succeeded;
+
+  /**
+   * Starts timing a load or save.
+   *
+   * @param operation {@link #LOAD} or {@link #SAVE}.
+   * @param path      The path of the bills file.
+   * @return The event, to finish when the operation ends.
+   */
+  public static BillFileEvent start(String operation, String path) {
+    BillFileEvent event = new BillFileEvent();
+    event.operation = operation;
+    event.path = path;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the operation and commits the event if a recording has it
+   * enabled.
+   *
+   * @param records   The number of bills loaded or saved.
+   * @param succeeded Whether the operation succeeded.
+   */
+  public void finish(long records, boolean succeeded) {
+    end();
+    if (shouldCommit()) {
+      this.records = records;
+      this.bytes = new File(path).length();
+      this.succeeded = succeeded;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package Metrics;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The CustomerLoadEvent class is the Flight Recorder event of one load of the
+ * customers file. The size of the file is only read if a recording has the
+ * event enabled.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * CustomerLoadEvent event = CustomerLoadEvent.start(path);
+ * ...
+ * event.finish(result.getLoadedCount(), result.getRejections().size());
+ * </code>
+ * </pre>
+ *
+ * @see Controller.CustomerController#loadCustomersFromFile()
+ */
+@Name("UtilityCalculator.CustomerLoad")
+@Label("Customer Load")
+@Category({"Utility Calculator", "Persistence"})
+@Description("Load of the customers file")
+@StackTrace(false)
+public final class CustomerLoadEvent extends Event {
+
+  /**
+   * The path of the customers file.
+   */
+  @Label("Path")
+  String path;
+
+  /**
+   * The number of customers loaded.
+   */
+  @Label("Records")
+  long records;
+
+  /**
+   * The number of records rejected.
+   */
+  @Label("Rejected")
+  long rejected;
+
+  /**
+   * The size of the customers file.
+   */
+  @Label("Size")
+  @DataAmount
+  long bytes;
+
+  /**
+   * Starts timing a load.
+   *
+   * @param path The path of the customers file.
+   * @return The event, to finish when the load ends.
+   */
+  public static CustomerLoadEvent start(String path) {
+    CustomerLoadEvent event = new CustomerLoadEvent();
+    event.path = path;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the load and commits the event if a recording has it
+   * enabled.
+   *
+   * @param records  The number of customers loaded.
+   * @param rejected The number of records rejected.
+   */
+  public void finish(long records, long rejected) {
+    end();
+    if (shouldCommit()) {
+      this.records = records;
+      this.rejected = rejected;
+      this.bytes = new File(path).length();
+      commit();
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The Instrumentation class keeps the {@link OperationStats} of every
+ * instrumented operation and publishes them as platform MBeans.
+ *
+ * <h1>Naming</h1>
+ * Each operation is registered once, on first use, under the object name
+ * {@code UtilityCalculator:type=<component>,name=<operation>}, so a running
+ * instance can be watched in JConsole under the {@code UtilityCalculator}
+ * domain. Asking for the same component and operation again returns the same
+ * statistics.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * OperationStats login = Instrumentation.operation("CustomerController", "validateLogin");
+ * System.out.println(login.getP99Micros());
+ * </code>
+ * </pre>
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe.
+ *
+ * @see OperationStats
+ */
+public final class Instrumentation {
+
+  /**
+   * The JMX domain of every MBean.
+   */
+  public static final String DOMAIN = "UtilityCalculator";
+
+  /**
+   * The statistics of every operation, keyed by {@code component.operation}.
+   */
+  private static final ConcurrentHashMap<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+
+  /**
+   * Prevents instantiation.
+   */
+  private Instrumentation() {
+  }
+
+  /**
+   * Gets the statistics of an operation, creating and registering them on
+   * first use.
+   *
+   * @param component The class the operation belongs to, for example
+   *                  {@code "WrittenBills"}.
+   * @param operation The name of the operation, for example
+   *                  {@code "addBill"}.
+   * @return The statistics of the operation.
+   */
+  public static OperationStats operation(String component, String operation) {
+    return OPERATIONS.computeIfAbsent(component + "." + operation, key -> {
+      OperationStats stats = new OperationStats(component, operation);
+      register(component, operation, stats);
+      return stats;
+    });
+  }
+
+  /**
+   * Gets the statistics of every operation used so far.
+   *
+   * @return An unmodifiable map from {@code component.operation} to its
+   *         statistics, sorted by key.
+   */
+  public static Map<String, OperationStats> getOperations() {
+    return Collections.unmodifiableMap(new TreeMap<>(OPERATIONS));
+  }
+
+  /**
+   * Checks whether the JVM can measure the bytes each thread allocates, which
+   * the allocation accounting of {@link OperationStats} needs.
+   *
+   * @return {@code true} if allocations are measured.
+   */
+  public static boolean isAllocationAccountingSupported() {
+    return AllocationSampler.isSupported();
+  }
+
+  /**
+   * Gets how often the allocations of a call are measured.
+   *
+   * @return The number of calls of an operation on a thread between measured
+   *         calls, or {@code 0} if allocations are not measured.
+   */
+  public static int getAllocationSampleInterval() {
+    return AllocationSampler.getInterval();
+  }
+
+  /**
+   * Sets how often the allocations of a call are measured. The default is
+   * one call in {@value AllocationSampler#DEFAULT_INTERVAL}. The setting is
+   * ignored if allocation accounting is not supported.
+   *
+   * @param calls The number of calls of an operation on a thread between
+   *              measured calls, {@code 1} to measure every call or {@code 0}
+   *              to turn the accounting off.
+   * @throws IllegalArgumentException If {@code calls} is negative.
+   */
+  public static void setAllocationSampleInterval(int calls) {
+    AllocationSampler.setInterval(calls);
+  }
+
+  /**
+   * Registers the statistics of an operation with the platform MBean server.
+   * The statistics are still recorded if registration fails.
+   *
+   * @param component The class the operation belongs to.
+   * @param operation The name of the operation.
+   * @param stats     The statistics.
+   */
+  private static void register(String component, String operation, OperationStats stats) {
+    try {
+      ObjectName name = new ObjectName(
+          DOMAIN + ":type=" + component + ",name=" + operation);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(stats, name);
+    } catch (JMException e) {
+      System.out.println("Error registering metrics for " + component + "." + operation + ": " + e.getMessage());
+    }
+  }
+}
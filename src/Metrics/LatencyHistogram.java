@@ -0,0 +1,177 @@
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in a fixed number of
+ * log-linear buckets and reports their percentiles.
+ *
+ * <h1>Buckets</h1>
+ * Values below {@code 64} each have their own bucket. Above that, every power
+ * of two is split into {@value #SUB_BUCKETS} equal buckets, so a recorded value
+ * is reported within about 3% of its true value, like an HDR histogram with two
+ * significant digits. Values up to {@link #MAX_VALUE} nanoseconds, about
+ * eighteen minutes, are tracked; larger values are counted as
+ * {@link #MAX_VALUE}. The histogram therefore uses the same
+ * {@link #BUCKET_COUNT} counters whatever it records. The same buckets also
+ * hold the byte counts of {@link OperationStats#getAllocations()}.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe and lock-free. Recording increments one atomic
+ * counter; percentiles are computed from a snapshot of the counters, which may
+ * miss values recorded while it is taken.
+ *
+ * @see OperationStats
+ */
+public final class LatencyHistogram {
+
+  /**
+   * The number of bits of precision kept below the highest set bit.
+   */
+  private static final int SUB_BUCKET_BITS = 5;
+  /**
+   * The number of buckets each power of two is split into.
+   */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /**
+   * The largest value tracked exactly by its bucket.
+   */
+  public static final long MAX_VALUE = (1L << 40) - 1;
+  /**
+   * The number of buckets.
+   */
+  public static final int BUCKET_COUNT = bucketOf(MAX_VALUE) + 1;
+
+  /**
+   * The number of values recorded in each bucket.
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  /**
+   * The number of values recorded.
+   */
+  private final LongAdder count = new LongAdder();
+  /**
+   * The sum of the values recorded.
+   */
+  private final LongAdder sum = new LongAdder();
+  /**
+   * The largest value recorded.
+   */
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one value.
+   *
+   * @param value The value, normally in nanoseconds; negative values count
+   *              as 0.
+   */
+  public void record(long value) {
+    long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+    counts.incrementAndGet(bucketOf(clamped));
+    count.increment();
+    sum.add(clamped);
+    long current = max.get();
+    while (clamped > current && !max.compareAndSet(current, clamped)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Gets the number of values recorded.
+   *
+   * @return The count.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Gets the mean of the values recorded.
+   *
+   * @return The mean, or 0 if nothing has been recorded.
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Gets the largest value recorded.
+   *
+   * @return The maximum, or 0 if nothing has been recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Gets the value below which a fraction of the recorded values fall.
+   *
+   * @param quantile The fraction, from 0 to 1; for example {@code 0.99}.
+   * @return The highest value of the bucket holding the quantile, no larger
+   *         than the maximum, or 0 if nothing has been recorded.
+   */
+  public long getValueAtQuantile(double quantile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(quantile, 0), 1) * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Clears every recorded value.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+  /**
+   * Finds the bucket of a value.
+   *
+   * @param value The value, from 0 to {@link #MAX_VALUE}.
+   * @return The bucket index.
+   */
+  static int bucketOf(long value) {
+    if (value < 2 * SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Finds the highest value that falls in a bucket.
+   *
+   * @param bucket The bucket index.
+   * @return The highest value of the bucket.
+   */
+  static long highestValueOf(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,63 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The LoginEvent class is the Flight Recorder event of one customer login
+ * check. Neither the username nor the password is recorded.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * LoginEvent event = LoginEvent.start();
+ * boolean valid = ...;
+ * event.finish(valid);
+ * </code>
+ * </pre>
+ *
+ * @see Controller.CustomerController#validateLogin(String, String)
+ */
+@Name("UtilityCalculator.Login")
+@Label("Login")
+@Category({"Utility Calculator", "Customers"})
+@Description("Validation of a customer's login credentials")
+@StackTrace(false)
+public final class LoginEvent extends Event {
+
+  /**
+   * Whether the credentials were valid.
+   */
+  @Label("Succeeded")
+  boolean succeeded;
+
+  /**
+   * Starts timing a login check.
+   *
+   * @return The event, to finish when the check ends.
+   */
+  public static LoginEvent start() {
+    LoginEvent event = new LoginEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the check and commits the event if a recording has it
+   * enabled.
+   *
+   * @param succeeded Whether the credentials were valid.
+   */
+  public void finish(boolean succeeded) {
+    end();
+    if (shouldCommit()) {
+      this.succeeded = succeeded;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The OperationStats class counts and times the calls of one operation.
+ *
+ * <h1>Recording</h1>
+ * A call is timed by taking {@link #start()} before it and passing the result
+ * to {@link #stop(long)} after it, normally in a {@code finally} block. The
+ * latency goes into a {@link LatencyHistogram}, and the call is counted for
+ * the rates.
+ *
+ * <h1>Allocations</h1>
+ * One call in every {@link Instrumentation#getAllocationSampleInterval()}
+ * calls on a thread also has the bytes it allocated on that thread measured,
+ * from {@link #start()} to {@link #stop(long)}, into a second histogram. Each
+ * measured call is also committed as an {@code UtilityCalculator.Allocation}
+ * Flight Recorder event. Allocations of other threads the call waits for are
+ * not counted, and a call that starts the same operation again on its own
+ * thread loses its measurement.
+ *
+ * <h1>Rates</h1>
+ * The one-minute rate is an exponentially weighted moving average updated
+ * every five seconds, on whichever thread first notices that a tick is due,
+ * so no timer thread is needed.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * private static final OperationStats FIND = Instrumentation.operation("WrittenBills", "findbill");
+ *
+ * long start = FIND.start();
+ * try {
+ *   ...
+ * } finally {
+ *   FIND.stop(start);
+ * }
+ * </code>
+ * </pre>
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe and lock-free.
+ *
+ * @see Instrumentation
+ */
+public final class OperationStats implements OperationStatsMXBean {
+
+  /**
+   * The interval between updates of the one-minute rate.
+   */
+  private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(5);
+  /**
+   * The weight of each tick in the one-minute rate.
+   */
+  private static final double ONE_MINUTE_ALPHA = 1 - Math.exp(-5.0 / 60.0);
+  /**
+   * The number of nanoseconds in a microsecond.
+   */
+  private static final double NANOS_PER_MICRO = 1000.0;
+
+  /**
+   * The class the operation belongs to.
+   */
+  private final String component;
+  /**
+   * The name of the operation.
+   */
+  private final String operation;
+  /**
+   * The latencies of completed calls.
+   */
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  /**
+   * The bytes allocated by measured calls.
+   */
+  private final LatencyHistogram allocations = new LatencyHistogram();
+  /**
+   * The allocation state of the current thread: element {@code 0} counts its
+   * calls, element {@code 1} holds its allocated bytes when the current call
+   * started, or {@code -1} if the call is not measured.
+   */
+  private final ThreadLocal<long[]> calls = ThreadLocal.withInitial(() -> new long[] {0, -1});
+  /**
+   * The number of calls that reported an error.
+   */
+  private final LongAdder errors = new LongAdder();
+  /**
+   * The calls completed since the last tick.
+   */
+  private final LongAdder uncounted = new LongAdder();
+  /**
+   * The time of the last tick.
+   */
+  private final AtomicLong lastTick;
+  /**
+   * The time the statistics were created or reset.
+   */
+  private volatile long startTime;
+  /**
+   * The one-minute rate in calls per second, or a negative value before the
+   * first tick.
+   */
+  private volatile double oneMinuteRate = -1;
+
+  /**
+   * Constructs empty statistics.
+   *
+   * @param component The class the operation belongs to.
+   * @param operation The name of the operation.
+   */
+  OperationStats(String component, String operation) {
+    this.component = component;
+    this.operation = operation;
+    startTime = System.nanoTime();
+    lastTick = new AtomicLong(startTime);
+  }
+
+  /**
+   * Starts timing a call.
+   *
+   * @return The start time, to pass to {@link #stop(long)}.
+   */
+  public long start() {
+    int interval = AllocationSampler.getInterval();
+    if (interval > 0) {
+      long[] call = calls.get();
+      call[1] = call[0]++ % interval == 0 ? AllocationSampler.allocatedBytes() : -1;
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Finishes timing a call.
+   *
+   * @param start The value returned by {@link #start()}.
+   */
+  public void stop(long start) {
+    long now = System.nanoTime();
+    if (AllocationSampler.getInterval() > 0) {
+      long[] call = calls.get();
+      if (call[1] >= 0) {
+        long allocated = AllocationSampler.allocatedBytes() - call[1];
+        call[1] = -1;
+        allocations.record(allocated);
+        AllocationEvent.emit(component, operation, allocated, now - start);
+      }
+    }
+    latencies.record(now - start);
+    tickIfDue(now);
+    uncounted.increment();
+  }
+
+  /**
+   * Counts a call that reported an error. The call is still timed by
+   * {@link #stop(long)}.
+   */
+  public void recordError() {
+    errors.increment();
+  }
+
+  /**
+   * Gets the histogram of call latencies in nanoseconds.
+   *
+   * @return The histogram.
+   */
+  public LatencyHistogram getLatencies() {
+    return latencies;
+  }
+
+  /**
+   * Gets the histogram of bytes allocated by measured calls.
+   *
+   * @return The histogram.
+   */
+  public LatencyHistogram getAllocations() {
+    return allocations;
+  }
+
+  @Override
+  public long getCount() {
+    return latencies.getCount();
+  }
+
+  @Override
+  public long getErrorCount() {
+    return errors.sum();
+  }
+
+  @Override
+  public double getMeanRate() {
+    double seconds = (System.nanoTime() - startTime) / 1e9;
+    return seconds <= 0 ? 0 : latencies.getCount() / seconds;
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    tickIfDue(System.nanoTime());
+    return Math.max(oneMinuteRate, 0);
+  }
+
+  @Override
+  public double getMeanMicros() {
+    return latencies.getMean() / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getP50Micros() {
+    return latencies.getValueAtQuantile(0.5) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getP99Micros() {
+    return latencies.getValueAtQuantile(0.99) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getP999Micros() {
+    return latencies.getValueAtQuantile(0.999) / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public double getMaxMicros() {
+    return latencies.getMax() / NANOS_PER_MICRO;
+  }
+
+  @Override
+  public long getAllocationSampleCount() {
+    return allocations.getCount();
+  }
+
+  @Override
+  public double getMeanAllocatedBytes() {
+    return allocations.getMean();
+  }
+
+  @Override
+  public long getP99AllocatedBytes() {
+    return allocations.getValueAtQuantile(0.99);
+  }
+
+  @Override
+  public long getMaxAllocatedBytes() {
+    return allocations.getMax();
+  }
+
+  @Override
+  public long getEstimatedAllocatedBytes() {
+    return Math.round(allocations.getMean() * latencies.getCount());
+  }
+
+  @Override
+  public void reset() {
+    latencies.reset();
+    allocations.reset();
+    errors.reset();
+    uncounted.reset();
+    oneMinuteRate = -1;
+    startTime = System.nanoTime();
+    lastTick.set(startTime);
+  }
+
+  /**
+   * Updates the one-minute rate for every tick that has passed. Only the
+   * thread that advances {@link #lastTick} applies the ticks.
+   *
+   * @param now The current time.
+   */
+  private void tickIfDue(long now) {
+    long last = lastTick.get();
+    long age = now - last;
+    if (age < TICK_NANOS || !lastTick.compareAndSet(last, now - age % TICK_NANOS)) {
+      return;
+    }
+    double rate = oneMinuteRate;
+    for (long ticks = age / TICK_NANOS; ticks > 0; ticks--) {
+      double instant = uncounted.sumThenReset() / (TICK_NANOS / 1e9);
+      rate = rate < 0 ? instant : rate + ONE_MINUTE_ALPHA * (instant - rate);
+    }
+    oneMinuteRate = rate;
+  }
+}
@@ -0,0 +1,115 @@
+package Metrics;
+
+/**
+ * The OperationStatsMXBean interface is the management view of one
+ * instrumented operation, as shown by JConsole.
+ *
+ * @see OperationStats
+ */
+public interface OperationStatsMXBean {
+
+  /**
+   * Gets the number of completed calls.
+   *
+   * @return The call count.
+   */
+  long getCount();
+
+  /**
+   * Gets the number of calls that reported an error.
+   *
+   * @return The error count.
+   */
+  long getErrorCount();
+
+  /**
+   * Gets the average number of calls per second since the statistics were
+   * created or reset.
+   *
+   * @return The mean rate.
+   */
+  double getMeanRate();
+
+  /**
+   * Gets the number of calls per second, exponentially weighted over about
+   * the last minute.
+   *
+   * @return The one-minute rate.
+   */
+  double getOneMinuteRate();
+
+  /**
+   * Gets the mean latency.
+   *
+   * @return The mean in microseconds.
+   */
+  double getMeanMicros();
+
+  /**
+   * Gets the median latency.
+   *
+   * @return The 50th percentile in microseconds.
+   */
+  double getP50Micros();
+
+  /**
+   * Gets the 99th percentile latency.
+   *
+   * @return The 99th percentile in microseconds.
+   */
+  double getP99Micros();
+
+  /**
+   * Gets the 99.9th percentile latency.
+   *
+   * @return The 99.9th percentile in microseconds.
+   */
+  double getP999Micros();
+
+  /**
+   * Gets the largest latency.
+   *
+   * @return The maximum in microseconds.
+   */
+  double getMaxMicros();
+
+  /**
+   * Gets the number of calls whose allocations were measured.
+   *
+   * @return The number of measured calls.
+   */
+  long getAllocationSampleCount();
+
+  /**
+   * Gets the mean number of bytes a measured call allocated.
+   *
+   * @return The mean in bytes.
+   */
+  double getMeanAllocatedBytes();
+
+  /**
+   * Gets the 99th percentile of the bytes a measured call allocated.
+   *
+   * @return The 99th percentile in bytes.
+   */
+  long getP99AllocatedBytes();
+
+  /**
+   * Gets the most bytes a measured call allocated.
+   *
+   * @return The maximum in bytes.
+   */
+  long getMaxAllocatedBytes();
+
+  /**
+   * Gets the bytes allocated by every call, estimated from the measured calls.
+   *
+   * @return The estimated total in bytes.
+   */
+  long getEstimatedAllocatedBytes();
+
+  /**
+   * Clears the counts, rates, latencies and allocations.
+   */
+  void reset();
+}
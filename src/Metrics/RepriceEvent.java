@@ -0,0 +1,95 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The RepriceEvent class is the Flight Recorder event of one repricing job,
+ * from its start to the ledger being saved. The event is committed by the
+ * pool thread that completes the job.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * RepriceEvent event = RepriceEvent.start("GAS", "2024-01-01", null);
+ * job.start().whenComplete((count, error) -&gt; event.finish(count == null ? 0 : count, error == null));
+ * </code>
+ * </pre>
+ *
+ * @see Model.RepricingJob
+ */
+@Name("UtilityCalculator.Reprice")
+@Label("Reprice")
+@Category({"Utility Calculator", "Pricing"})
+@Description("Repricing of the bills affected by a tariff change")
+@StackTrace(false)
+public final class RepriceEvent extends Event {
+
+  /**
+   * The service type whose bills were repriced.
+   */
+  @Label("Service Type")
+  String serviceType;
+
+  /**
+   * The first date of the window, or {@code null} for no lower bound.
+   */
+  @Label("From")
+  String from;
+
+  /**
+   * The last date of the window, or {@code null} for no upper bound.
+   */
+  @Label("To")
+  String to;
+
+  /**
+   * The number of bills repriced.
+   */
+  @Label("Repriced")
+  long repriced;
+
+  /**
+   * Whether the job completed rather than failing or being cancelled.
+   */
+  @Label("Completed")
+  boolean completed;
+
+  /**
+   * Starts timing a repricing job.
+   *
+   * @param serviceType The service type whose bills are repriced.
+   * @param from        The first date of the window, or {@code null}.
+   * @param to          The last date of the window, or {@code null}.
+   * @return The event, to finish when the job completes.
+   */
+  public static RepriceEvent start(String serviceType, String from, String to) {
+    RepriceEvent event = new RepriceEvent();
+    event.serviceType = serviceType;
+    event.from = from;
+    event.to = to;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the job and commits the event if a recording has it
+   * enabled.
+   *
+   * @param repriced  The number of bills repriced.
+   * @param completed Whether the job completed.
+   */
+  public void finish(long repriced, boolean completed) {
+    end();
+    if (shouldCommit()) {
+      this.repriced = repriced;
+      this.completed = completed;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The SearchEvent class is the Flight Recorder event of one search query. The
+ * query text itself is not recorded, only its length.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * SearchEvent event = SearchEvent.start(SearchEvent.USERNAMES, query);
+ * ...
+ * event.finish(matches.size());
+ * </code>
+ * </pre>
+ *
+ * @see Model.WrittenBills#searchUsernames(String)
+ */
+@Name("UtilityCalculator.Search")
+@Label("Search")
+@Category({"Utility Calculator", "Search"})
+@Description("Search query over the ledger")
+@StackTrace(false)
+public final class SearchEvent extends Event {
+
+  /**
+   * The kind of a search of the usernames that own bills.
+   */
+  public static final String USERNAMES = "usernames";
+  /**
+   * The kind of a search of the bills of matching users.
+   */
+  public static final String USER_BILLS = "userBills";
+
+  /**
+   * What was searched.
+   */
+  @Label("Kind")
+  String kind;
+
+  /**
+   * The number of characters in the query.
+   */
+  @Label("Query Length")
+  int queryLength;
+
+  /**
+   * The number of results.
+   */
+  @Label("Hits")
+  int hits;
+
+  /**
+   * Starts timing a search.
+   *
+   * @param kind  {@link #USERNAMES} or {@link #USER_BILLS}.
+   * @param query The query text, or {@code null}.
+   * @return The event, to finish when the results are known.
+   */
+  public static SearchEvent start(String kind, String query) {
+    SearchEvent event = new SearchEvent();
+    event.kind = kind;
+    event.queryLength = query == null ? 0 : query.length();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the search and commits the event if a recording has it
+   * enabled.
+   *
+   * @param hits The number of results.
+   */
+  public void finish(int hits) {
+    end();
+    if (shouldCommit()) {
+      this.hits = hits;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The TariffPublishEvent class is the Flight Recorder event of one change to
+ * the tariffs in force, from reading the prices file or editing a charge up
+ * to the new snapshot being saved.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * TariffPublishEvent event = TariffPublishEvent.start(TariffPublishEvent.UNIT_CHARGES, "GAS");
+ * ...
+ * event.finish(tariffs.getVersion());
+ * </code>
+ * </pre>
+ *
+ * @see Controller.ServiceController
+ */
+@Name("UtilityCalculator.TariffPublish")
+@Label("Tariff Publish")
+@Category({"Utility Calculator", "Pricing"})
+@Description("Publication of a new tariff snapshot")
+@StackTrace(false)
+public final class TariffPublishEvent extends Event {
+
+  /**
+   * The change of tariffs read from the prices file.
+   */
+  public static final String LOAD = "load";
+  /**
+   * The change of a unit charge.
+   */
+  public static final String UNIT_CHARGES = "unitCharges";
+  /**
+   * The change of a service charge.
+   */
+  public static final String SERVICE_CHARGES = "serviceCharges";
+
+  /**
+   * What was changed.
+   */
+  @Label("Change")
+  String change;
+
+  /**
+   * The service type whose charge was changed, or {@code null} for a load.
+   */
+  @Label("Service Type")
+  String serviceType;
+
+  /**
+   * The version of the tariffs in force afterwards.
+   */
+  @Label("Version")
+  long version;
+
+  /**
+   * Starts timing a change of tariffs.
+   *
+   * @param change      {@link #LOAD}, {@link #UNIT_CHARGES} or
+   *                    {@link #SERVICE_CHARGES}.
+   * @param serviceType The service type whose charge is changed, or
+   *                    {@code null} for a load.
+   * @return The event, to finish when the tariffs are published.
+   */
+  public static TariffPublishEvent start(String change, String serviceType) {
+    TariffPublishEvent event = new TariffPublishEvent();
+    event.change = change;
+    event.serviceType = serviceType;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finishes timing the change and commits the event if a recording has it
+   * enabled.
+   *
+   * @param version The version of the tariffs in force afterwards.
+   */
+  public void finish(long version) {
+    end();
+    if (shouldCommit()) {
+      this.version = version;
+      commit();
+    }
+  }
+}
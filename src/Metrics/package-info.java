@@ -0,0 +1,32 @@
+/**
+ * The Metrics package contains the instrumentation that times and counts the
+ * operations of the Controller and Model packages.
+ *
+ * <p>Latencies are kept in fixed-size, lock-free histograms and published with
+ * call counts and rates as platform MBeans, so a running instance can be
+ * watched with JConsole. Sampled calls also have the bytes they allocate
+ * measured, which are published with the latencies and committed as Flight
+ * Recorder events, alongside the domain events of bill and customer file
+ * loads, tariff changes, repricing, searches and logins.</p>
+ *
+ * <p>This package includes the following classes:</p>
+ * <ul>
+ *   <li>{@link Metrics.AllocationEvent}</li>
+ *   <li>{@link Metrics.AllocationSampler}</li>
+ *   <li>{@link Metrics.BillFileEvent}</li>
+ *   <li>{@link Metrics.CustomerLoadEvent}</li>
+ *   <li>{@link Metrics.Instrumentation}</li>
+ *   <li>{@link Metrics.LatencyHistogram}</li>
+ *   <li>{@link Metrics.LoginEvent}</li>
+ *   <li>{@link Metrics.OperationStats}</li>
+ *   <li>{@link Metrics.OperationStatsMXBean}</li>
+ *   <li>{@link Metrics.RepriceEvent}</li>
+ *   <li>{@link Metrics.SearchEvent}</li>
+ *   <li>{@link Metrics.TariffPublishEvent}</li>
+ * </ul>
+ *
+ * @since 1.0
+ * @version 1.0
+ */
+
+package Metrics;
@@ -0,0 +1,101 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * The BillChangeLog class remembers the IDs of the most recently changed
+ * bills of a {@link WrittenBills} ledger.
+ *
+ * <h1>Versions</h1>
+ * Every recorded change advances the version by one, so a reader that
+ * remembers the version it last saw can ask for the bills changed since. The
+ * version never goes back, not even when the ledger is reloaded.
+ *
+ * <h1>Layout</h1>
+ * The IDs are kept in a ring of {@link #CAPACITY} {@code int} slots. Once more
+ * changes than that have been recorded the oldest are overwritten, and a
+ * reader asking for changes from before them is told to read the whole ledger
+ * again. Recording a change therefore costs the same however many bills
+ * change between two reads.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills#getChangesSince(long)
+ */
+class BillChangeLog {
+
+  /**
+   * The number of changes remembered.
+   */
+  static final int CAPACITY = 4096;
+
+  /**
+   * The IDs of the changed bills, the change of version {@code v} being kept
+   * in slot {@code v % CAPACITY}.
+   */
+  private final int[] ids = new int[CAPACITY];
+  /**
+   * The number of changes recorded since the log was created.
+   */
+  private long version;
+  /**
+   * The oldest version whose changes can still be listed.
+   */
+  private long oldest;
+
+  /**
+   * Gets the current version.
+   *
+   * @return The number of changes recorded so far.
+   */
+  long version() {
+    return version;
+  }
+
+  /**
+   * Records a change to a bill.
+   *
+   * @param billId The ID of the added, edited or removed bill.
+   */
+  void record(int billId) {
+    ids[(int) (version % CAPACITY)] = billId;
+    version++;
+    if (version - oldest > CAPACITY) {
+      oldest = version - CAPACITY;
+    }
+  }
+
+  /**
+   * Forgets every recorded change, for example after the ledger has been read
+   * again from its file. The version is kept.
+   */
+  void reset() {
+    oldest = version;
+  }
+
+  /**
+   * Lists the bills changed since a version, each once.
+   *
+   * @param since A version returned earlier by {@link #version()}.
+   * @return The IDs of the bills changed since, in ascending order, or
+   *         {@code null} if some of those changes are no longer remembered.
+   */
+  int[] changedSince(long since) {
+    if (since < oldest || since > version) {
+      return null;
+    }
+    int[] changed = new int[(int) (version - since)];
+    for (long v = since; v < version; v++) {
+      changed[(int) (v - since)] = ids[(int) (v % CAPACITY)];
+    }
+    Arrays.sort(changed);
+    int distinct = 0;
+    for (int i = 0; i < changed.length; i++) {
+      if (i == 0 || changed[i] != changed[i - 1]) {
+        changed[distinct++] = changed[i];
+      }
+    }
+    return Arrays.copyOf(changed, distinct);
+  }
+}
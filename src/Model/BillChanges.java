@@ -0,0 +1,121 @@
+package Model;
+
+import java.util.ArrayList;
+
+/**
+ * <h1>BillChanges Class</h1>
+ *
+ * The BillChanges class lists the bills of a {@link WrittenBills} ledger that
+ * changed between two versions, so a view showing the bills of the first
+ * version can catch up by touching only those bills.
+ *
+ * <h1>Contents</h1>
+ * A bill that was added or edited is listed once among the updated bills, as
+ * it is now. A bill that no longer exists is listed by ID among the removed
+ * bills. A bill may be listed even though the view already shows it as it is,
+ * so applying the changes must be idempotent.
+ *
+ * <p>
+ * <strong>Usage Example:</strong>
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * BillChanges changes = writtenBills.getChangesSince(shownVersion);
+ * if (changes == null) {
+ *   // reload every bill
+ * } else {
+ *   // update, add and remove the listed bills
+ *   shownVersion = changes.getVersion();
+ * }
+ * </code>
+ * </pre>
+ *
+ * @see WrittenBills#getChangesSince(long)
+ */
+public class BillChanges {
+
+  /**
+   * The version of the ledger the changes lead to.
+   */
+  private final long version;
+
+  /**
+   * The added and edited bills.
+   */
+  private final ArrayList<UtilityBill> updatedBills;
+
+  /**
+   * The IDs of the removed bills.
+   */
+  private final int[] removedBillIds;
+
+  /**
+   * Constructs a BillChanges instance.
+   *
+   * @param version        The version of the ledger the changes lead to.
+   * @param updatedBills   The added and edited bills.
+   * @param removedBillIds The IDs of the removed bills.
+   */
+  BillChanges(long version, ArrayList<UtilityBill> updatedBills, int[] removedBillIds) {
+    this.version = version;
+    this.updatedBills = updatedBills;
+    this.removedBillIds = removedBillIds;
+  }
+
+  /**
+   * Gets the version of the ledger the changes lead to.
+   *
+   * @return The version to ask for the next changes from.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the added and edited bills.
+   *
+   * @return The bills, in ascending order of ID.
+   */
+  public ArrayList<UtilityBill> getUpdatedBills() {
+    return updatedBills;
+  }
+
+  /**
+   * Gets the IDs of the removed bills.
+   *
+   * @return The IDs, in ascending order.
+   */
+  public int[] getRemovedBillIds() {
+    return removedBillIds;
+  }
+
+  /**
+   * Checks whether there are no changes.
+   *
+   * @return {@code true} if no bill was added, edited or removed.
+   */
+  public boolean isEmpty() {
+    return updatedBills.isEmpty() && removedBillIds.length == 0;
+  }
+
+  /**
+   * Narrows the changes to one customer's bills.
+   * <h1>Method Details</h1>
+   * The updated bills are narrowed to those of the user. The removed IDs are
+   * kept as they are, since a removed bill no longer says whose it was;
+   * removing an ID that is not shown does nothing.
+   *
+   * @param username The username of the customer.
+   * @return The changes to the customer's bills.
+   */
+  public BillChanges forUser(String username) {
+    ArrayList<UtilityBill> bills = new ArrayList<>();
+    for (UtilityBill bill : updatedBills) {
+      if (bill.getUserName().equals(username)) {
+        bills.add(bill);
+      }
+    }
+    return new BillChanges(version, bills, removedBillIds);
+  }
+}
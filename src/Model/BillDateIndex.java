@@ -0,0 +1,260 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * The BillDateIndex class keeps the bills of a {@link WrittenBills} ledger
+ * ordered by date.
+ *
+ * <h1>Layout</h1>
+ * Each bill is one {@code long} key holding its epoch day in the high 32 bits
+ * and its ID in the low 32 bits, so bills are ordered by date and then by ID.
+ * The sorted keys are split into blocks of at most {@link #MAX_BLOCK} keys,
+ * each a sorted primitive array, held in a {@link TreeMap} by their first key.
+ * Adding or removing a bill finds its block in {@code O(log N)} and shifts at
+ * most one block, so a mutation costs the same however large the ledger is. A
+ * block that grows past the limit is split in two and an emptied block is
+ * dropped. The bills of a date range are the keys from one block lookup
+ * onwards, so a range query costs {@code O(log N + k)}. Undated bills have
+ * day {@link UtilityBill#UNDATED} and sort after every dated bill.
+ *
+ * <h1>Bulk Loading</h1>
+ * After {@link #clear()} keys are appended unsorted until {@link #sort()} is
+ * called, which sorts them once and cuts them into half-full blocks, so
+ * loading a ledger costs one sort instead of one insertion per bill.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills
+ */
+class BillDateIndex {
+
+  /**
+   * The largest number of keys in a block before it is split.
+   */
+  static final int MAX_BLOCK = 2048;
+
+  /**
+   * A sorted run of keys.
+   */
+  private static final class Block {
+    /**
+     * The sorted keys; only the first {@link #size} are used.
+     */
+    long[] keys;
+    /**
+     * The number of keys.
+     */
+    int size;
+
+    /**
+     * Constructs a block holding a copy of a sorted run of keys.
+     *
+     * @param source The keys.
+     * @param from   The position of the first key to copy.
+     * @param to     The position after the last key to copy.
+     */
+    Block(long[] source, int from, int to) {
+      keys = Arrays.copyOfRange(source, from, from + Math.max(to - from, MAX_BLOCK / 2));
+      size = to - from;
+    }
+  }
+
+  /**
+   * The blocks, by their first key.
+   */
+  private final TreeMap<Long, Block> blocks = new TreeMap<>();
+  /**
+   * The keys appended since {@link #clear()}, or {@code null} once sorted.
+   */
+  private long[] pending;
+  /**
+   * The number of keys.
+   */
+  private int size;
+
+  /**
+   * Indexes a bill.
+   *
+   * @param epochDay The bill's epoch day.
+   * @param id       The bill's ID.
+   */
+  void add(int epochDay, int id) {
+    long key = key(epochDay, id);
+    if (pending != null) {
+      if (size == pending.length) {
+        pending = Arrays.copyOf(pending, size << 1);
+      }
+      pending[size++] = key;
+      return;
+    }
+    Map.Entry<Long, Block> entry = blocks.floorEntry(key);
+    if (entry == null) {
+      entry = blocks.firstEntry();
+      if (entry == null) {
+        blocks.put(key, new Block(new long[] { key }, 0, 1));
+        size++;
+        return;
+      }
+    }
+    Block block = entry.getValue();
+    int position = Arrays.binarySearch(block.keys, 0, block.size, key);
+    if (position >= 0) {
+      return;
+    }
+    position = -position - 1;
+    if (block.size == block.keys.length) {
+      block.keys = Arrays.copyOf(block.keys, block.size << 1);
+    }
+    System.arraycopy(block.keys, position, block.keys, position + 1, block.size - position);
+    block.keys[position] = key;
+    block.size++;
+    size++;
+    if (position == 0) {
+      blocks.remove(entry.getKey());
+      blocks.put(key, block);
+    }
+    if (block.size > MAX_BLOCK) {
+      int half = block.size >>> 1;
+      Block upper = new Block(block.keys, half, block.size);
+      block.size = half;
+      blocks.put(upper.keys[0], upper);
+    }
+  }
+
+  /**
+   * Forgets a bill.
+   *
+   * @param epochDay The epoch day the bill was indexed with.
+   * @param id       The bill's ID.
+   */
+  void remove(int epochDay, int id) {
+    sort();
+    long key = key(epochDay, id);
+    Map.Entry<Long, Block> entry = blocks.floorEntry(key);
+    if (entry == null) {
+      return;
+    }
+    Block block = entry.getValue();
+    int position = Arrays.binarySearch(block.keys, 0, block.size, key);
+    if (position < 0) {
+      return;
+    }
+    System.arraycopy(block.keys, position + 1, block.keys, position, block.size - position - 1);
+    block.size--;
+    size--;
+    if (position == 0) {
+      blocks.remove(entry.getKey());
+      if (block.size > 0) {
+        blocks.put(block.keys[0], block);
+      }
+    }
+  }
+
+  /**
+   * Removes every key and starts bulk loading.
+   */
+  void clear() {
+    blocks.clear();
+    pending = new long[16];
+    size = 0;
+  }
+
+  /**
+   * Sorts the keys appended since {@link #clear()} into blocks, ending bulk
+   * loading.
+   */
+  void sort() {
+    if (pending == null) {
+      return;
+    }
+    Arrays.sort(pending, 0, size);
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || pending[i] != pending[i - 1]) {
+        pending[distinct++] = pending[i];
+      }
+    }
+    size = distinct;
+    for (int from = 0; from < size; from += MAX_BLOCK / 2) {
+      int to = Math.min(from + MAX_BLOCK / 2, size);
+      blocks.put(pending[from], new Block(pending, from, to));
+    }
+    pending = null;
+  }
+
+  /**
+   * Passes the IDs of the bills dated inside a range of days to an action, in
+   * order of date, then of ID. The keys must be sorted.
+   *
+   * @param fromDay The first epoch day of the range, inclusive.
+   * @param toDay   The last epoch day of the range, inclusive; use
+   *                {@link Integer#MAX_VALUE} to include undated bills.
+   * @param action  Receives each bill ID.
+   */
+  void forEachBetween(int fromDay, int toDay, IntConsumer action) {
+    long from = (long) fromDay << 32;
+    long to = toDay == Integer.MAX_VALUE ? Long.MAX_VALUE : ((long) toDay << 32) | 0xFFFFFFFFL;
+    if (from > to) {
+      return;
+    }
+    Long first = blocks.floorKey(from);
+    for (Block block : blocks.tailMap(first == null ? from : first).values()) {
+      int position = first != null && block.keys[0] < from
+          ? lowerBound(block, from)
+          : 0;
+      for (; position < block.size; position++) {
+        long key = block.keys[position];
+        if (key > to) {
+          return;
+        }
+        action.accept((int) key);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of indexed bills.
+   *
+   * @return The number of bills.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Finds the position of the first key of a block not less than a value.
+   *
+   * @param block The block.
+   * @param value The value.
+   * @return The position.
+   */
+  private static int lowerBound(Block block, long value) {
+    int low = 0;
+    int high = block.size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (block.keys[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Combines a day and an ID into one key that orders by day, then by ID.
+   *
+   * @param epochDay The epoch day.
+   * @param id       The bill ID.
+   * @return The key.
+   */
+  private static long key(int epochDay, int id) {
+    return ((long) epochDay << 32) | (id & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,220 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * The BillIdIndex class maps bill IDs to their position in the
+ * {@link WrittenBills} list.
+ *
+ * <h1>Layout</h1>
+ * Keys and values are kept in two parallel {@code int} arrays using open
+ * addressing with linear probing, so no {@code Integer} objects are created on
+ * lookup or insert. Removal uses backward-shift deletion, which keeps probe
+ * sequences short without tombstones.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills
+ */
+class BillIdIndex {
+
+  /**
+   * The key stored in empty slots. Bill IDs start at 1, so 0 is never used.
+   */
+  private static final int EMPTY = 0;
+  /**
+   * The maximum fill ratio before the table is doubled.
+   */
+  private static final float LOAD_FACTOR = 0.5f;
+
+  /**
+   * The bill IDs, or {@link #EMPTY} for unused slots.
+   */
+  private int[] keys;
+  /**
+   * The list positions, parallel to {@link #keys}.
+   */
+  private int[] values;
+  /**
+   * The number of IDs in the index.
+   */
+  private int size;
+  /**
+   * Whether the index holds an entry for the otherwise reserved ID 0.
+   */
+  private boolean hasZeroKey;
+  /**
+   * The position stored for ID 0.
+   */
+  private int zeroValue;
+
+  /**
+   * Constructs an empty BillIdIndex.
+   */
+  BillIdIndex() {
+    this(16);
+  }
+
+  /**
+   * Constructs an empty BillIdIndex sized for the expected number of bills.
+   *
+   * @param expectedSize The number of IDs expected to be stored.
+   */
+  BillIdIndex(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    keys = new int[capacity];
+    values = new int[capacity];
+  }
+
+  /**
+   * Gets the number of IDs in the index.
+   *
+   * @return The number of IDs.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the list position of a bill.
+   *
+   * @param id The bill ID.
+   * @return The position of the bill, or -1 if it is not indexed.
+   */
+  int get(int id) {
+    if (id == EMPTY) {
+      return hasZeroKey ? zeroValue : -1;
+    }
+    int mask = keys.length - 1;
+    for (int slot = mix(id) & mask;; slot = (slot + 1) & mask) {
+      int key = keys[slot];
+      if (key == id) {
+        return values[slot];
+      }
+      if (key == EMPTY) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Checks whether a bill ID is indexed.
+   *
+   * @param id The bill ID.
+   * @return {@code true} if the ID is present.
+   */
+  boolean contains(int id) {
+    return get(id) >= 0;
+  }
+
+  /**
+   * Stores or replaces the list position of a bill.
+   *
+   * @param id       The bill ID.
+   * @param position The position of the bill in the list.
+   */
+  void put(int id, int position) {
+    if (id == EMPTY) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = position;
+      return;
+    }
+    int mask = keys.length - 1;
+    int slot = mix(id) & mask;
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == id) {
+        values[slot] = position;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = id;
+    values[slot] = position;
+    if (++size > keys.length * LOAD_FACTOR) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  /**
+   * Removes a bill ID from the index.
+   *
+   * @param id The bill ID.
+   */
+  void remove(int id) {
+    if (id == EMPTY) {
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        size--;
+      }
+      return;
+    }
+    int mask = keys.length - 1;
+    int slot = mix(id) & mask;
+    while (keys[slot] != id) {
+      if (keys[slot] == EMPTY) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    size--;
+    // Shift back any following entries whose probe sequence crosses the gap.
+    int gap = slot;
+    for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+      int home = mix(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    keys[gap] = EMPTY;
+  }
+
+  /**
+   * Removes every ID from the index.
+   */
+  void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+    hasZeroKey = false;
+  }
+
+  /**
+   * Moves every entry into a table of the given capacity.
+   *
+   * @param capacity The new capacity, a power of two.
+   */
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new int[capacity];
+    values = new int[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != EMPTY) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Spreads sequential IDs across the table.
+   *
+   * @param id The bill ID.
+   * @return The mixed hash of the ID.
+   */
+  private static int mix(int id) {
+    int h = id * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,205 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The BillTotals class keeps running price totals for a {@link WrittenBills}
+ * ledger.
+ *
+ * <h1>Totals</h1>
+ * Alongside the grand total it keeps one subtotal per {@link ServiceType}, per
+ * username and per month of the bill's epoch day. Every add, edit and delete
+ * adjusts the affected totals, so reading any of them costs constant time.
+ *
+ * <h1>Layout</h1>
+ * A month is numbered {@code year * 12 + month - 1}, computed from the epoch
+ * day without building a date or a string, and its subtotal is kept in a
+ * {@code long} array covering the months seen so far, so updating it costs
+ * no lookup and no allocation. Undated bills count towards no month. A
+ * username is dropped from the map once its subtotal returns to zero, so the
+ * map holds only the customers that have bills.
+ *
+ * <h1>Accuracy</h1>
+ * Each total is a {@code long} count of cents, so adding and removing prices
+ * is exact and the totals never drift, whatever order the changes arrive in.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills
+ * @see Money
+ */
+class BillTotals {
+
+  /**
+   * A running sum of cents that can be updated in place inside a map.
+   */
+  static final class Sum {
+
+    /**
+     * The running sum in cents.
+     */
+    long cents;
+  }
+
+  /**
+   * The total price of every bill.
+   */
+  private long grandTotal;
+  /**
+   * The total price per service type, indexed by ordinal.
+   */
+  private long[] typeTotals = new long[ServiceType.values().length];
+  /**
+   * The total price per username.
+   */
+  private HashMap<String, Sum> userTotals = new HashMap<>();
+  /**
+   * The total price per month, indexed by month number minus
+   * {@link #firstMonth}.
+   */
+  private long[] monthTotals = new long[0];
+  /**
+   * The month number of the first slot of {@link #monthTotals}.
+   */
+  private int firstMonth;
+
+  /**
+   * Adds a bill's price to every total it contributes to.
+   *
+   * @param bill The bill being added.
+   */
+  void add(UtilityBill bill) {
+    apply(bill, bill.getPriceCents());
+  }
+
+  /**
+   * Removes a bill's price from every total it contributes to.
+   *
+   * @param bill The bill being removed, with the price it was added with.
+   */
+  void remove(UtilityBill bill) {
+    apply(bill, -bill.getPriceCents());
+  }
+
+  /**
+   * Resets every total to zero.
+   */
+  void clear() {
+    grandTotal = 0;
+    typeTotals = new long[ServiceType.values().length];
+    userTotals.clear();
+    monthTotals = new long[0];
+  }
+
+  /**
+   * Gets the total price of every bill.
+   *
+   * @return The grand total in cents.
+   */
+  long getTotal() {
+    return grandTotal;
+  }
+
+  /**
+   * Gets the total price of the bills of one service type.
+   *
+   * @param type The service type.
+   * @return The subtotal for the type in cents.
+   */
+  long getTotal(ServiceType type) {
+    return typeTotals[type.ordinal()];
+  }
+
+  /**
+   * Gets the total price of one customer's bills.
+   *
+   * @param username The username of the customer.
+   * @return The subtotal for the customer in cents.
+   */
+  long getUserTotal(String username) {
+    Sum total = userTotals.get(username);
+    return total == null ? 0 : total.cents;
+  }
+
+  /**
+   * Gets the total price of the bills dated in one month.
+   *
+   * @param epochDay Any epoch day of the month.
+   * @return The subtotal for the month in cents.
+   */
+  long getMonthTotal(int epochDay) {
+    if (epochDay == UtilityBill.UNDATED) {
+      return 0;
+    }
+    long slot = (long) monthOf(epochDay) - firstMonth;
+    return slot >= 0 && slot < monthTotals.length ? monthTotals[(int) slot] : 0;
+  }
+
+  /**
+   * Adds an amount to every total the bill contributes to.
+   *
+   * @param bill   The bill.
+   * @param amount The amount to add in cents.
+   */
+  private void apply(UtilityBill bill, long amount) {
+    grandTotal += amount;
+    if (bill.getType() != null) {
+      typeTotals[bill.getType().ordinal()] += amount;
+    }
+    Sum user = userTotals.computeIfAbsent(bill.getUserName(), k -> new Sum());
+    user.cents += amount;
+    if (user.cents == 0) {
+      userTotals.remove(bill.getUserName());
+    }
+    if (bill.getEpochDay() != UtilityBill.UNDATED) {
+      int slot = monthSlot(monthOf(bill.getEpochDay()));
+      monthTotals[slot] += amount;
+    }
+  }
+
+  /**
+   * Finds the slot of a month in {@link #monthTotals}, widening the array
+   * when the month lies outside it.
+   *
+   * @param month The month number.
+   * @return The index of the month's subtotal.
+   */
+  private int monthSlot(int month) {
+    if (monthTotals.length == 0) {
+      monthTotals = new long[12];
+      firstMonth = month;
+    } else if (month < firstMonth) {
+      int shift = Math.max(firstMonth - month, monthTotals.length);
+      long[] wider = new long[monthTotals.length + shift];
+      System.arraycopy(monthTotals, 0, wider, shift, monthTotals.length);
+      monthTotals = wider;
+      firstMonth -= shift;
+    } else if (month - firstMonth >= monthTotals.length) {
+      monthTotals = Arrays.copyOf(
+          monthTotals,
+          Math.max(month - firstMonth + 1, monthTotals.length * 2));
+    }
+    return month - firstMonth;
+  }
+
+  /**
+   * Numbers the month of an epoch day of the proleptic Gregorian calendar.
+   *
+   * @param epochDay The number of days since 1970-01-01.
+   * @return The month number, {@code year * 12 + month - 1}.
+   * @see CsvRecordReader#epochDay(int, int, int)
+   */
+  static int monthOf(int epochDay) {
+    int days = epochDay + 719468;
+    int era = Math.floorDiv(days, 146097);
+    int dayOfEra = days - era * 146097;
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    return year * 12 + month - 1;
+  }
+}
@@ -0,0 +1,591 @@
+package Model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The BinaryBillStore class reads and writes utility bills in a binary,
+ * column-oriented file format.
+ *
+ * <h1>File Format</h1>
+ * All values are big-endian. The file starts with a header of four
+ * {@code int}s: the magic number {@code UBIL}, the format version, the number
+ * of bills {@code n} and the number of dictionary strings {@code d}. The
+ * string dictionary follows, each entry an {@code int} byte length and its
+ * UTF-8 bytes. Then come six fixed-width columns of {@code n} values each:
+ * <ul>
+ * <li>{@code int} bill ID</li>
+ * <li>{@code int} dictionary code of the username</li>
+ * <li>{@code int} dictionary code of the utility type</li>
+ * <li>{@code double} meter measurement</li>
+ * <li>{@code long} price in cents</li>
+ * <li>{@code int} date</li>
+ * </ul>
+ * A date in the canonical {@code yyyy-MM-dd} form is stored as its epoch day.
+ * Any other date text is stored in the dictionary and its column value is
+ * {@link #DATE_DICTIONARY_BASE} plus its code, so conversion is lossless.
+ *
+ * <h1>Reading</h1>
+ * {@link #open(String)} maps the file with a {@link MappedByteBuffer} and reads
+ * only the header and dictionary up front; column values are read in place on
+ * demand, so opening a store costs the same whatever its size. A single
+ * store holds at most 2 GB, about sixty million bills.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * BinaryBillStore.convertTextToBinary("src/Model/bills.txt", "src/Model/bills.bin");
+ * BinaryBillStore store = BinaryBillStore.open("src/Model/bills.bin");
+ * long firstPrice = store.getPriceCents(0);
+ * </code>
+ * </pre>
+ *
+ * @see WrittenBills
+ */
+public class BinaryBillStore {
+
+  /**
+   * The magic number at the start of every store file, {@code UBIL}.
+   */
+  private static final int MAGIC = 0x5542494C;
+  /**
+   * The version of the file format written by this class.
+   */
+  private static final int VERSION = 2;
+  /**
+   * The size of the header in bytes.
+   */
+  private static final int HEADER_BYTES = 4 * Integer.BYTES;
+  /**
+   * The date column value that refers to dictionary code 0.
+   */
+  static final int DATE_DICTIONARY_BASE = Integer.MIN_VALUE;
+  /**
+   * Date column values at or below this limit refer to a dictionary string
+   * rather than an epoch day; epoch days of four-digit years lie well above it.
+   */
+  private static final int DATE_DICTIONARY_LIMIT = -1_000_000_000;
+  /**
+   * The widest span of epoch days whose texts {@link #toBills()} shares
+   * through a lookup table, about 270 years.
+   */
+  private static final int DAY_TEXT_RANGE = 100_000;
+
+  /**
+   * The mapped contents of the file.
+   */
+  private final MappedByteBuffer buffer;
+  /**
+   * The number of bills in the store.
+   */
+  private final int size;
+  /**
+   * The decoded string dictionary.
+   */
+  private final String[] dictionary;
+  /**
+   * The byte offsets of the ID, username, type, measurement, price and date
+   * columns.
+   */
+  private final int idOffset;
+  private final int userOffset;
+  private final int typeOffset;
+  private final int measurementOffset;
+  private final int priceOffset;
+  private final int dateOffset;
+
+  /**
+   * Constructs a store over a mapped file, reading its header and dictionary.
+   *
+   * @param buffer The mapped file contents.
+   * @throws IOException If the file is not a bill store.
+   */
+  private BinaryBillStore(MappedByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a binary bill store");
+    }
+    int version = buffer.getInt(4);
+    if (version != VERSION) {
+      throw new IOException("Unsupported bill store version " + version);
+    }
+    this.size = buffer.getInt(8);
+    this.dictionary = new String[buffer.getInt(12)];
+
+    int position = HEADER_BYTES;
+    for (int i = 0; i < dictionary.length; i++) {
+      int length = buffer.getInt(position);
+      byte[] bytes = new byte[length];
+      buffer.get(position + Integer.BYTES, bytes);
+      dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+      position += Integer.BYTES + length;
+    }
+    this.idOffset = position;
+    this.userOffset = idOffset + size * Integer.BYTES;
+    this.typeOffset = userOffset + size * Integer.BYTES;
+    this.measurementOffset = typeOffset + size * Integer.BYTES;
+    this.priceOffset = measurementOffset + size * Double.BYTES;
+    this.dateOffset = priceOffset + size * Long.BYTES;
+    if (dateOffset + (long) size * Integer.BYTES > buffer.capacity()) {
+      throw new IOException("Truncated binary bill store");
+    }
+  }
+
+  /**
+   * Opens a store file by mapping it into memory.
+   *
+   * @param path The path of the store file.
+   * @return The opened store.
+   * @throws IOException If the file cannot be read or is not a bill store.
+   */
+  public static BinaryBillStore open(String path) throws IOException {
+    try (
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        FileChannel channel = file.getChannel()) {
+      return new BinaryBillStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Gets the number of bills in the store.
+   *
+   * @return The number of bills.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the ID of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The bill ID.
+   */
+  public int getId(int index) {
+    return buffer.getInt(idOffset + index * Integer.BYTES);
+  }
+
+  /**
+   * Gets the username of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The username.
+   */
+  public String getUserName(int index) {
+    return dictionary[buffer.getInt(userOffset + index * Integer.BYTES)];
+  }
+
+  /**
+   * Gets the utility type of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The utility type.
+   */
+  public String getUtilityType(int index) {
+    return dictionary[buffer.getInt(typeOffset + index * Integer.BYTES)];
+  }
+
+  /**
+   * Gets the meter measurement of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The meter measurement.
+   */
+  public double getMeterMeasurement(int index) {
+    return buffer.getDouble(measurementOffset + index * Double.BYTES);
+  }
+
+  /**
+   * Gets the stored price of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The price in cents.
+   */
+  public long getPriceCents(int index) {
+    return buffer.getLong(priceOffset + index * Long.BYTES);
+  }
+
+  /**
+   * Gets the raw date column value of a bill: its epoch day, or a dictionary
+   * reference for non-canonical dates.
+   *
+   * @param index The position of the bill in the store.
+   * @return The date column value.
+   */
+  public int getDateValue(int index) {
+    return buffer.getInt(dateOffset + index * Integer.BYTES);
+  }
+
+  /**
+   * Gets the date text of a bill.
+   *
+   * @param index The position of the bill in the store.
+   * @return The date as it was written.
+   */
+  public String getDate(int index) {
+    int value = getDateValue(index);
+    if (value <= DATE_DICTIONARY_LIMIT) {
+      return dictionary[value - DATE_DICTIONARY_BASE];
+    }
+    return LocalDate.ofEpochDay(value).toString();
+  }
+
+  /**
+   * Creates a UtilityBill for every bill in the store, priced under the
+   * current tariffs.
+   *
+   * <h1>Method Details</h1>
+   * Each distinct utility type in the dictionary is resolved to its service
+   * type once, and the whole measurement column is priced against the tariff
+   * history in one {@link PricingEngine#priceAll} pass before the bills are
+   * built. The text of each distinct epoch day is formatted once and shared
+   * by every bill of that day.
+   *
+   * @return ArrayList of UtilityBill in store order.
+   */
+  public ArrayList<UtilityBill> toBills() {
+    byte unresolved = Byte.MIN_VALUE;
+    byte[] codeTypes = new byte[dictionary.length];
+    Arrays.fill(codeTypes, unresolved);
+    byte[] types = new byte[size];
+    double[] readings = new double[size];
+    int[] days = new int[size];
+    for (int i = 0; i < size; i++) {
+      int code = buffer.getInt(typeOffset + i * Integer.BYTES);
+      if (codeTypes[code] == unresolved) {
+        codeTypes[code] = PricingEngine.resolveCode(dictionary[code]);
+      }
+      types[i] = codeTypes[code];
+      readings[i] = getMeterMeasurement(i);
+      int date = getDateValue(i);
+      days[i] = date <= DATE_DICTIONARY_LIMIT
+          ? UtilityBill.parseEpochDay(dictionary[date - DATE_DICTIONARY_BASE])
+          : date;
+    }
+    long[] prices = new long[size];
+    PricingEngine.priceAll(readings, types, days, prices);
+
+    int firstDay = Integer.MAX_VALUE;
+    int lastDay = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      int date = getDateValue(i);
+      if (date > DATE_DICTIONARY_LIMIT) {
+        firstDay = Math.min(firstDay, date);
+        lastDay = Math.max(lastDay, date);
+      }
+    }
+    String[] dayTexts = firstDay <= lastDay && (long) lastDay - firstDay < DAY_TEXT_RANGE
+        ? new String[lastDay - firstDay + 1]
+        : null;
+    String[] dates = new String[size];
+    for (int i = 0; i < size; i++) {
+      int date = getDateValue(i);
+      if (date <= DATE_DICTIONARY_LIMIT) {
+        dates[i] = dictionary[date - DATE_DICTIONARY_BASE];
+      } else if (dayTexts == null) {
+        dates[i] = LocalDate.ofEpochDay(date).toString();
+      } else {
+        String text = dayTexts[date - firstDay];
+        if (text == null) {
+          text = LocalDate.ofEpochDay(date).toString();
+          dayTexts[date - firstDay] = text;
+        }
+        dates[i] = text;
+      }
+    }
+    ServiceType[] serviceTypes = ServiceType.values();
+    ArrayList<UtilityBill> bills = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      bills.add(
+          new UtilityBill(
+              getId(i),
+              getUserName(i),
+              getUtilityType(i),
+              types[i] < 0 ? null : serviceTypes[types[i]],
+              readings[i],
+              prices[i],
+              dates[i],
+              days[i]));
+    }
+    return bills;
+  }
+
+  /**
+   * Writes bills to a store file, replacing any existing file.
+   *
+   * @param path  The path of the store file.
+   * @param bills The bills to write.
+   * @throws IOException If the file cannot be written.
+   */
+  public static void write(String path, List<UtilityBill> bills) throws IOException {
+    Columns columns = new Columns(bills.size());
+    for (UtilityBill bill : bills) {
+      columns.add(
+          bill.getId(),
+          bill.getUserName(),
+          bill.getUtilityType(),
+          bill.getMeterMeasurement(),
+          bill.getPriceCents(),
+          bill.getDate());
+    }
+    columns.writeTo(path);
+  }
+
+  /**
+   * Converts a text bills file to a store file without repricing, so every
+   * field is carried over exactly.
+   *
+   * @param textPath   The path of the comma-separated bills file to read.
+   * @param binaryPath The path of the store file to write.
+   * @throws IOException If either file cannot be accessed.
+   */
+  public static void convertTextToBinary(String textPath, String binaryPath) throws IOException {
+    Columns columns = new Columns(1024);
+    try (BufferedReader reader = new BufferedReader(new FileReader(textPath))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        String[] parts = line.split(",");
+        columns.add(
+            Integer.parseInt(parts[0].trim()),
+            parts[1].trim(),
+            parts[2].trim(),
+            Double.parseDouble(parts[3].trim()),
+            Money.centsOf(Double.parseDouble(parts[4].trim())),
+            parts[5].trim());
+      }
+    }
+    columns.writeTo(binaryPath);
+  }
+
+  /**
+   * Converts a store file back to a text bills file.
+   *
+   * @param binaryPath The path of the store file to read.
+   * @param textPath   The path of the comma-separated bills file to write.
+   * @throws IOException If either file cannot be accessed.
+   */
+  public static void convertBinaryToText(String binaryPath, String textPath) throws IOException {
+    BinaryBillStore store = open(binaryPath);
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(textPath, StandardCharsets.UTF_8))) {
+      for (int i = 0; i < store.size(); i++) {
+        writer.write(
+            store.getId(i) +
+                "," +
+                store.getUserName(i) +
+                "," +
+                store.getUtilityType(i) +
+                "," +
+                store.getMeterMeasurement(i) +
+                "," +
+                Money.format(store.getPriceCents(i)) +
+                "," +
+                store.getDate(i));
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * Converts between the text and binary bill formats from the command line.
+   *
+   * <pre>
+   * <code>
+   * java Model.BinaryBillStore to-binary src/Model/bills.txt src/Model/bills.bin
+   * java Model.BinaryBillStore to-text src/Model/bills.bin src/Model/bills.txt
+   * </code>
+   * </pre>
+   *
+   * @param args The direction, the input path and the output path.
+   * @throws IOException If either file cannot be accessed.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 3 && args[0].equals("to-binary")) {
+      convertTextToBinary(args[1], args[2]);
+    } else if (args.length == 3 && args[0].equals("to-text")) {
+      convertBinaryToText(args[1], args[2]);
+    } else {
+      System.out.println("Usage: BinaryBillStore (to-binary|to-text) <input> <output>");
+    }
+  }
+
+  /**
+   * Parses a date in canonical {@code yyyy-MM-dd} form to its epoch day.
+   *
+   * @param date The date text.
+   * @return The epoch day, or {@link #DATE_DICTIONARY_BASE} if the text is not
+   *         a canonical date that would be written back identically.
+   */
+  static int canonicalEpochDay(String date) {
+    if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+      return DATE_DICTIONARY_BASE;
+    }
+    try {
+      LocalDate parsed = LocalDate.parse(date);
+      return parsed.toString().equals(date) ? (int) parsed.toEpochDay() : DATE_DICTIONARY_BASE;
+    } catch (DateTimeException e) {
+      return DATE_DICTIONARY_BASE;
+    }
+  }
+
+  /**
+   * Accumulates bills column by column before they are written, so a large
+   * store can be written without building a {@link UtilityBill} per bill.
+   */
+  public static final class Columns {
+
+    /**
+     * The dictionary codes of the strings seen so far.
+     */
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    /**
+     * The dictionary strings in code order.
+     */
+    private final ArrayList<String> dictionary = new ArrayList<>();
+    private int[] ids;
+    private int[] users;
+    private int[] types;
+    private double[] measurements;
+    private long[] prices;
+    private int[] dates;
+    /**
+     * The number of bills added.
+     */
+    private int size;
+
+    /**
+     * Constructs empty columns.
+     *
+     * @param capacity The expected number of bills.
+     */
+    public Columns(int capacity) {
+      capacity = Math.max(capacity, 16);
+      ids = new int[capacity];
+      users = new int[capacity];
+      types = new int[capacity];
+      measurements = new double[capacity];
+      prices = new long[capacity];
+      dates = new int[capacity];
+    }
+
+    /**
+     * Adds one bill to the columns.
+     */
+    void add(int id, String user, String type, double measurement, long price, String date) {
+      int userCode = code(user);
+      int typeCode = code(type);
+      int epochDay = canonicalEpochDay(date);
+      add(id, userCode, typeCode, measurement, price,
+          epochDay != DATE_DICTIONARY_BASE ? epochDay : DATE_DICTIONARY_BASE + code(date));
+    }
+
+    /**
+     * Adds one bill whose strings are already in the dictionary and whose date
+     * column value is already known, such as the epoch day of a canonical
+     * date.
+     */
+    public void add(int id, int userCode, int typeCode, double measurement, long price, int dateValue) {
+      if (size == ids.length) {
+        int capacity = size << 1;
+        ids = Arrays.copyOf(ids, capacity);
+        users = Arrays.copyOf(users, capacity);
+        types = Arrays.copyOf(types, capacity);
+        measurements = Arrays.copyOf(measurements, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+      }
+      ids[size] = id;
+      users[size] = userCode;
+      types[size] = typeCode;
+      measurements[size] = measurement;
+      prices[size] = price;
+      dates[size] = dateValue;
+      size++;
+    }
+
+    /**
+     * Gets the dictionary code of a string, adding it if it is new.
+     *
+     * @param value The string.
+     * @return Its dictionary code.
+     */
+    public int code(String value) {
+      Integer code = codes.get(value);
+      if (code == null) {
+        code = dictionary.size();
+        codes.put(value, code);
+        dictionary.add(value);
+      }
+      return code;
+    }
+
+    /**
+     * Writes the header, dictionary and columns to a file.
+     *
+     * @param path The path of the store file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(String path) throws IOException {
+      byte[][] encoded = new byte[dictionary.size()][];
+      long length = HEADER_BYTES;
+      for (int i = 0; i < encoded.length; i++) {
+        encoded[i] = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+        length += Integer.BYTES + encoded[i].length;
+      }
+      length += (long) size * (4 * Integer.BYTES + Double.BYTES + Long.BYTES);
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException("Binary bill store would exceed 2 GB");
+      }
+
+      try (
+          RandomAccessFile file = new RandomAccessFile(path, "rw");
+          FileChannel channel = file.getChannel()) {
+        file.setLength(0);
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        out.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(encoded.length);
+        for (byte[] bytes : encoded) {
+          out.putInt(bytes.length).put(bytes);
+        }
+        putInts(out, ids);
+        putInts(out, users);
+        putInts(out, types);
+        for (int i = 0; i < size; i++) {
+          out.putDouble(measurements[i]);
+        }
+        for (int i = 0; i < size; i++) {
+          out.putLong(prices[i]);
+        }
+        putInts(out, dates);
+        out.force();
+      }
+    }
+
+    /**
+     * Writes the first {@link #size} values of a column.
+     *
+     * @param out    The buffer to write to.
+     * @param column The column values.
+     */
+    private void putInts(ByteBuffer out, int[] column) {
+      out.asIntBuffer().put(column, 0, size);
+      out.position(out.position() + size * Integer.BYTES);
+    }
+  }
+}
@@ -0,0 +1,541 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The CsvRecordReader class streams the comma-separated records of a data file
+ * such as {@code bills.txt} or {@code customers.txt}.
+ *
+ * <h1>Parsing</h1>
+ * The file is read through a {@link FileChannel} into one reusable byte
+ * buffer. Lines and fields are split in a single pass over the bytes by
+ * recording the start and end offsets of each field, with surrounding
+ * whitespace trimmed, so no {@code String} is
+ * created for a field unless the caller asks for one. Numbers and dates are
+ * parsed straight from the bytes.
+ *
+ * <h1>Strings</h1>
+ * {@link #getString(int)} always creates a new string, while
+ * {@link #getSharedString(int)} returns the same instance for repeated values,
+ * which suits columns such as usernames, utility types and dates that repeat
+ * across many records. Shared strings are kept in an open-addressing table
+ * keyed by their bytes that grows with the number of distinct values, so
+ * every repeat of a value is found however many distinct values the file
+ * holds; the table lives as long as the reader.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * CsvRecordReader.read("src/Model/bills.txt", record -&gt; {
+ *   int id = record.getInt(0);
+ *   double price = record.getDouble(4);
+ * });
+ * </code>
+ * </pre>
+ *
+ * <h1>Thread Safety</h1>
+ * A reader is used by one thread at a time; the record passed to a handler is
+ * only valid until the handler returns.
+ *
+ * @see WrittenBills
+ */
+public class CsvRecordReader {
+
+  /**
+   * Receives each record read from a file.
+   */
+  public interface RecordHandler {
+
+    /**
+     * Handles one record.
+     *
+     * @param record The reader positioned on the record.
+     */
+    void onRecord(CsvRecordReader record);
+  }
+
+  /**
+   * The initial size of the read buffer in bytes.
+   */
+  private static final int BUFFER_BYTES = 64 * 1024;
+  /**
+   * The initial number of slots in the shared string table, a power of two.
+   */
+  private static final int SHARED_TABLE_SIZE = 1024;
+  /**
+   * Powers of ten that are exactly representable as doubles.
+   */
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  /**
+   * The bytes read from the file.
+   */
+  private byte[] buffer = new byte[BUFFER_BYTES];
+  /**
+   * The start offset of each field of the current record.
+   */
+  private int[] fieldStarts = new int[8];
+  /**
+   * The end offset, exclusive, of each field of the current record.
+   */
+  private int[] fieldEnds = new int[8];
+  /**
+   * The number of fields in the current record.
+   */
+  private int fieldCount;
+  /**
+   * The one-based line number of the current record.
+   */
+  private int lineNumber;
+  /**
+   * The strings returned by {@link #getSharedString(int)}, by slot of the
+   * shared string table.
+   */
+  private String[] sharedStrings = new String[SHARED_TABLE_SIZE];
+  /**
+   * The UTF-8 bytes of each string in {@link #sharedStrings}, or
+   * {@code null} for an empty slot.
+   */
+  private byte[][] sharedBytes = new byte[SHARED_TABLE_SIZE][];
+  /**
+   * The hash of the bytes of each string in {@link #sharedStrings}.
+   */
+  private int[] sharedHashes = new int[SHARED_TABLE_SIZE];
+  /**
+   * The number of strings in the shared string table.
+   */
+  private int sharedCount;
+
+  /**
+   * Reads every record of a file with a new reader.
+   *
+   * @param path    The path of the file.
+   * @param handler Receives each non-blank record.
+   * @throws IOException If the file cannot be read.
+   */
+  public static void read(String path, RecordHandler handler) throws IOException {
+    new CsvRecordReader().readFile(path, handler);
+  }
+
+  /**
+   * Reads every record of a file.
+   *
+   * @param path    The path of the file.
+   * @param handler Receives each non-blank record.
+   * @throws IOException If the file cannot be read.
+   */
+  public void readFile(String path, RecordHandler handler) throws IOException {
+    lineNumber = 0;
+    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+      int length = 0;
+      boolean endOfFile = false;
+      while (!endOfFile) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, length, buffer.length - length));
+        if (read < 0) {
+          endOfFile = true;
+        } else {
+          length += read;
+        }
+
+        int lineStart = 0;
+        int fieldStart = 0;
+        fieldCount = 0;
+        for (int i = 0; i < length; i++) {
+          byte b = buffer[i];
+          if (b == ',') {
+            addField(fieldStart, i);
+            fieldStart = i + 1;
+          } else if (b == '\n') {
+            endLine(fieldStart, i, handler);
+            lineStart = i + 1;
+            fieldStart = lineStart;
+          }
+        }
+        if (endOfFile && lineStart < length) {
+          endLine(fieldStart, length, handler);
+          lineStart = length;
+        }
+        System.arraycopy(buffer, lineStart, buffer, 0, length - lineStart);
+        length -= lineStart;
+      }
+    }
+  }
+
+  /**
+   * Completes the record of one line, whose earlier fields have already been
+   * recorded, and passes it to the handler unless blank. A carriage return
+   * before the line terminator is trimmed with the last field.
+   *
+   * @param fieldStart The offset of the first byte of the last field.
+   * @param end        The offset of the line terminator.
+   * @param handler    The record handler.
+   */
+  private void endLine(int fieldStart, int end, RecordHandler handler) {
+    lineNumber++;
+    addField(fieldStart, end);
+    boolean blank = fieldCount == 1 && fieldStarts[0] == fieldEnds[0];
+    if (!blank) {
+      handler.onRecord(this);
+    }
+    fieldCount = 0;
+  }
+
+  /**
+   * Records the trimmed bounds of one field.
+   *
+   * @param start The offset of the first byte of the field.
+   * @param end   The offset just past the field.
+   */
+  private void addField(int start, int end) {
+    while (start < end && (buffer[start] & 0xFF) <= ' ') {
+      start++;
+    }
+    while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+      end--;
+    }
+    if (fieldCount == fieldStarts.length) {
+      fieldStarts = Arrays.copyOf(fieldStarts, fieldCount << 1);
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldCount << 1);
+    }
+    fieldStarts[fieldCount] = start;
+    fieldEnds[fieldCount] = end;
+    fieldCount++;
+  }
+
+  /**
+   * Gets the number of fields in the current record.
+   *
+   * @return The number of fields.
+   */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Gets the one-based line number of the current record.
+   *
+   * @return The line number.
+   */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Creates a new string holding a field.
+   *
+   * @param field The index of the field.
+   * @return The field text.
+   */
+  public String getString(int field) {
+    int start = fieldStarts[field];
+    return new String(buffer, start, fieldEnds[field] - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Gets a field as a string, reusing the instance returned for an earlier
+   * field with the same bytes.
+   *
+   * <h1>Method Details</h1>
+   * The bytes are hashed in place and looked up in the shared string table
+   * by linear probing, so a repeated value costs one hash and one comparison
+   * and creates nothing. A new value is copied into the table, which doubles
+   * once it is half full.
+   *
+   * @param field The index of the field.
+   * @return The field text.
+   */
+  public String getSharedString(int field) {
+    int start = fieldStarts[field];
+    int end = fieldEnds[field];
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + buffer[i];
+    }
+    int mask = sharedStrings.length - 1;
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      byte[] bytes = sharedBytes[slot];
+      if (bytes == null) {
+        String value = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        sharedBytes[slot] = Arrays.copyOfRange(buffer, start, end);
+        sharedHashes[slot] = hash;
+        sharedStrings[slot] = value;
+        if (++sharedCount * 2 > sharedStrings.length) {
+          growSharedTable();
+        }
+        return value;
+      }
+      if (sharedHashes[slot] == hash && Arrays.equals(bytes, 0, bytes.length, buffer, start, end)) {
+        return sharedStrings[slot];
+      }
+    }
+  }
+
+  /**
+   * Gets a field of one character, such as a record type.
+   *
+   * @param field The index of the field.
+   * @return The character, or {@code 0} if the field is not exactly one
+   *         ASCII character long.
+   */
+  public char getChar(int field) {
+    int start = fieldStarts[field];
+    if (fieldEnds[field] - start != 1 || buffer[start] < 0) {
+      return 0;
+    }
+    return (char) buffer[start];
+  }
+
+  /**
+   * Doubles the shared string table, moving every string to its new slot.
+   */
+  private void growSharedTable() {
+    String[] strings = sharedStrings;
+    byte[][] bytes = sharedBytes;
+    int[] hashes = sharedHashes;
+    sharedStrings = new String[strings.length << 1];
+    sharedBytes = new byte[strings.length << 1][];
+    sharedHashes = new int[strings.length << 1];
+    int mask = sharedStrings.length - 1;
+    for (int i = 0; i < strings.length; i++) {
+      if (bytes[i] != null) {
+        int slot = spread(hashes[i]) & mask;
+        while (sharedBytes[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        sharedStrings[slot] = strings[i];
+        sharedBytes[slot] = bytes[i];
+        sharedHashes[slot] = hashes[i];
+      }
+    }
+  }
+
+  /**
+   * Mixes the high bits of a hash into the low bits used to pick a slot.
+   *
+   * @param hash The hash.
+   * @return The mixed hash.
+   */
+  private static int spread(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Parses a field as a decimal {@code int}.
+   *
+   * @param field The index of the field.
+   * @return The parsed value.
+   * @throws NumberFormatException If the field is not a valid {@code int}.
+   */
+  public int getInt(int field) {
+    int i = fieldStarts[field];
+    int end = fieldEnds[field];
+    boolean negative = i < end && buffer[i] == '-';
+    if (negative || (i < end && buffer[i] == '+')) {
+      i++;
+    }
+    if (i == end) {
+      throw new NumberFormatException("Empty number on line " + lineNumber);
+    }
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+      }
+      value = value * 10 + digit;
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+      }
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Parses a field as a {@code double}.
+   *
+   * <h1>Method Details</h1>
+   * Plain decimals with at most fifteen significant digits, which covers every
+   * measurement and price the application writes, are parsed directly: the
+   * digits and the power of ten are both exact doubles, so a single
+   * multiplication or division gives the correctly rounded result. Anything
+   * else falls back to {@link Double#parseDouble(String)}.
+   *
+   * @param field The index of the field.
+   * @return The parsed value.
+   * @throws NumberFormatException If the field is not a valid number.
+   */
+  public double getDouble(int field) {
+    int i = fieldStarts[field];
+    int end = fieldEnds[field];
+    boolean negative = i < end && buffer[i] == '-';
+    if (negative || (i < end && buffer[i] == '+')) {
+      i++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean seenDigit = false;
+    boolean seenPoint = false;
+    for (; i < end; i++) {
+      byte b = buffer[i];
+      if (b >= '0' && b <= '9') {
+        seenDigit = true;
+        if (mantissa != 0 || b != '0') {
+          digits++;
+        }
+        if (digits > 15) {
+          return Double.parseDouble(getString(field));
+        }
+        mantissa = mantissa * 10 + (b - '0');
+        if (seenPoint) {
+          scale--;
+        }
+      } else if (b == '.' && !seenPoint) {
+        seenPoint = true;
+      } else if ((b == 'e' || b == 'E') && seenDigit) {
+        int exponent;
+        try {
+          exponent = parseExponent(i + 1, end);
+        } catch (NumberFormatException e) {
+          return Double.parseDouble(getString(field));
+        }
+        scale += exponent;
+        break;
+      } else {
+        return Double.parseDouble(getString(field));
+      }
+    }
+    if (!seenDigit) {
+      return Double.parseDouble(getString(field));
+    }
+    double value;
+    if (scale == 0) {
+      value = mantissa;
+    } else if (scale > 0 && scale < POWERS_OF_TEN.length) {
+      value = mantissa * POWERS_OF_TEN[scale];
+    } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+      value = mantissa / POWERS_OF_TEN[-scale];
+    } else {
+      return Double.parseDouble(getString(field));
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses the exponent of a number in scientific notation.
+   *
+   * @param i   The offset just past the {@code e}.
+   * @param end The offset just past the field.
+   * @return The exponent.
+   * @throws NumberFormatException If the exponent is malformed or too large.
+   */
+  private int parseExponent(int i, int end) {
+    boolean negative = i < end && buffer[i] == '-';
+    if (negative || (i < end && buffer[i] == '+')) {
+      i++;
+    }
+    if (i == end || end - i > 3) {
+      throw new NumberFormatException();
+    }
+    int exponent = 0;
+    for (; i < end; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException();
+      }
+      exponent = exponent * 10 + digit;
+    }
+    return negative ? -exponent : exponent;
+  }
+
+  /**
+   * Parses a field holding a {@code yyyy-MM-dd} date as its epoch day.
+   *
+   * @param field The index of the field.
+   * @return The number of days since 1970-01-01.
+   * @throws NumberFormatException If the field is not a valid
+   *                               {@code yyyy-MM-dd} date.
+   */
+  public int getEpochDay(int field) {
+    int start = fieldStarts[field];
+    if (fieldEnds[field] - start != 10 || buffer[start + 4] != '-' || buffer[start + 7] != '-') {
+      throw new NumberFormatException("Invalid date on line " + lineNumber);
+    }
+    int year = digits(start, 4);
+    int month = digits(start + 5, 2);
+    int day = digits(start + 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      throw new NumberFormatException("Invalid date on line " + lineNumber);
+    }
+    return epochDay(year, month, day);
+  }
+
+  /**
+   * Parses a run of decimal digits.
+   *
+   * @param start  The offset of the first digit.
+   * @param length The number of digits.
+   * @return The value, or -1 if a byte is not a digit.
+   */
+  private int digits(int start, int length) {
+    int value = 0;
+    for (int i = start; i < start + length; i++) {
+      int digit = buffer[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * Gets the number of days in a month of the proleptic Gregorian calendar.
+   *
+   * @param year  The year.
+   * @param month The month, 1 to 12.
+   * @return The number of days.
+   */
+  static int daysInMonth(int year, int month) {
+    if (month == 2) {
+      boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+      return leap ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  /**
+   * Converts a valid date of the proleptic Gregorian calendar to its epoch
+   * day.
+   *
+   * @param year  The year.
+   * @param month The month, 1 to 12.
+   * @param day   The day of the month.
+   * @return The number of days since 1970-01-01.
+   */
+  static int epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+}
@@ -1,5 +1,7 @@
 package Model;
 
+import Metrics.Instrumentation;
+import Metrics.OperationStats;
 import java.util.ArrayList;
 
 /**
@@ -53,11 +55,18 @@ public class Customer {
    */
   private String email;
   /**
-   * The WrittenBills instance for the Customer.
+   * The ledger shared by every Customer and the staff views.
    *
-   * @see WrittenBills
+   * @see WrittenBills#getInstance()
+   */
+  static final WrittenBills writtenBills = WrittenBills.getInstance();
+  /**
+   * The statistics of {@link #getBills()}, published as an MBean under the
+   * {@code Customer} type by {@link Instrumentation}, including the bytes it
+   * allocates building each list.
    */
-  static WrittenBills writtenBills = new WrittenBills();
+  private static final OperationStats GET_BILLS =
+      Instrumentation.operation("Customer", "getBills");
 
   /**
    * Constructs a Customer instance with the specified username, password, and
@@ -195,21 +204,57 @@ public class Customer {
   /**
    * Gets all utility bills for the Customer.
    * <h1>Method Details</h1>
-   * This method gets all utility bills for the Customer by calling the loadBills
-   * function of written bills and adding them in an arraylist.
+   * This method gets all utility bills for the Customer from the per-user index
+   * kept by written bills, so it only touches this customer's bills.
    *
-   * @see WrittenBills
+   * @see WrittenBills#getBillsForUser(String)
    *
    * @return ArrayList of UtilityBill representing the bills.
    */
   public ArrayList<UtilityBill> getBills() {
-    ArrayList<UtilityBill> userBills = new ArrayList<>();
-    writtenBills.loadBillsFromFile();
-    for (UtilityBill bill : writtenBills.getBills()) {
-      if (bill.getUserName().equals(username)) {
-        userBills.add(bill);
-      }
+    long start = GET_BILLS.start();
+    try {
+      return writtenBills.getBillsForUser(username);
+    } finally {
+      GET_BILLS.stop(start);
     }
-    return userBills;
+  }
+
+  /**
+   * Gets one page of the utility bills for the Customer.
+   * <h1>Method Details</h1>
+   * This method gets a page of the Customer's bills from the per-user index
+   * kept by written bills, so a dashboard can show the first bills before the
+   * rest have been read.
+   *
+   * @see WrittenBills#getBillsForUser(String, int, int)
+   *
+   * @param offset The index of the first bill of the page.
+   * @param limit  The largest number of bills in the page.
+   * @return ArrayList of UtilityBill representing the page of bills.
+   */
+  public ArrayList<UtilityBill> getBills(int offset, int limit) {
+    return writtenBills.getBillsForUser(username, offset, limit);
+  }
+
+  /**
+   * Gets the changes to the Customer's utility bills since a version of the
+   * ledger.
+   * <h1>Method Details</h1>
+   * This method asks written bills for the bills changed since the version
+   * and narrows them to the Customer's, so a dashboard showing the bills of
+   * that version only has to update those.
+   *
+   * @see WrittenBills#getChangesSince(long)
+   * @see BillChanges#forUser(String)
+   *
+   * @param version A version returned earlier by
+   *                {@link WrittenBills#getChangeVersion()} or
+   *                {@link BillChanges#getVersion()}.
+   * @return The changes, or {@code null} if every bill must be read again.
+   */
+  public BillChanges getChangesSince(long version) {
+    BillChanges changes = writtenBills.getChangesSince(version);
+    return changes == null ? null : changes.forUser(username);
   }
 }
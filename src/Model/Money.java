@@ -0,0 +1,128 @@
+package Model;
+
+import java.math.BigDecimal;
+
+/**
+ * The Money class converts and formats the fixed-point amounts used for
+ * prices and tariffs.
+ *
+ * <h1>Units</h1>
+ * Prices, service charges and every total are {@code long} counts of cents.
+ * Unit charges need finer steps, so they are {@code long} counts of
+ * {@link #UNIT_CHARGE_SCALE}ths of a dollar; a charge of $0.12 per unit is
+ * {@code 12000}. Sums of cents are exact and do not depend on the order they
+ * are added in. Only pricing a reading, which multiplies by a measured
+ * quantity, rounds, and it rounds once per bill to the nearest cent.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * long unitCharge = Money.unitChargeOf(0.12);
+ * long cents = Money.price(200.0, unitCharge, Money.centsOf(10.0));
+ * String text = Money.format(cents); // "34.00"
+ * </code>
+ * </pre>
+ *
+ * @see UtilityBill
+ * @see TariffSnapshot
+ */
+public final class Money {
+
+  /**
+   * The number of cents in a dollar.
+   */
+  public static final long CENTS_PER_DOLLAR = 100;
+  /**
+   * The number of unit-charge steps in a dollar.
+   */
+  public static final long UNIT_CHARGE_SCALE = 100_000;
+
+  /**
+   * The number of unit-charge steps in a cent.
+   */
+  private static final double UNIT_CHARGE_STEPS_PER_CENT = UNIT_CHARGE_SCALE / CENTS_PER_DOLLAR;
+
+  /**
+   * Prevents instantiation.
+   */
+  private Money() {
+  }
+
+  /**
+   * Converts a dollar amount to cents, rounding to the nearest cent.
+   *
+   * @param dollars The amount in dollars.
+   * @return The amount in cents.
+   */
+  public static long centsOf(double dollars) {
+    return Math.round(dollars * CENTS_PER_DOLLAR);
+  }
+
+  /**
+   * Converts a unit charge in dollars to unit-charge steps, rounding to the
+   * nearest step.
+   *
+   * @param dollars The charge per unit in dollars.
+   * @return The charge in {@link #UNIT_CHARGE_SCALE}ths of a dollar.
+   */
+  public static long unitChargeOf(double dollars) {
+    return Math.round(dollars * UNIT_CHARGE_SCALE);
+  }
+
+  /**
+   * Converts cents to dollars for display or for callers that need a
+   * {@code double}.
+   *
+   * @param cents The amount in cents.
+   * @return The amount in dollars.
+   */
+  public static double toDollars(long cents) {
+    return (double) cents / CENTS_PER_DOLLAR;
+  }
+
+  /**
+   * Converts unit-charge steps to dollars.
+   *
+   * @param unitCharge The charge in {@link #UNIT_CHARGE_SCALE}ths of a dollar.
+   * @return The charge per unit in dollars.
+   */
+  public static double unitChargeToDollars(long unitCharge) {
+    return (double) unitCharge / UNIT_CHARGE_SCALE;
+  }
+
+  /**
+   * Prices a reading.
+   *
+   * @param reading      The meter measurement.
+   * @param unitCharge   The charge per unit in {@link #UNIT_CHARGE_SCALE}ths
+   *                     of a dollar.
+   * @param serviceCents The fixed service charge in cents.
+   * @return The price in cents, with the usage charge rounded to the nearest
+   *         cent.
+   */
+  public static long price(double reading, long unitCharge, long serviceCents) {
+    return Math.round(reading * unitCharge / UNIT_CHARGE_STEPS_PER_CENT) + serviceCents;
+  }
+
+  /**
+   * Formats cents as a plain decimal with two fraction digits.
+   *
+   * @param cents The amount in cents.
+   * @return The amount, for example {@code "34.00"}.
+   */
+  public static String format(long cents) {
+    return BigDecimal.valueOf(cents, 2).toPlainString();
+  }
+
+  /**
+   * Formats a unit charge as a plain decimal without trailing zeros.
+   *
+   * @param unitCharge The charge in {@link #UNIT_CHARGE_SCALE}ths of a dollar.
+   * @return The charge, for example {@code "0.12"}.
+   */
+  public static String formatUnitCharge(long unitCharge) {
+    BigDecimal value = BigDecimal.valueOf(unitCharge, 5).stripTrailingZeros();
+    return value.scale() < 1 ? value.setScale(1).toPlainString() : value.toPlainString();
+  }
+}
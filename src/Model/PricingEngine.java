@@ -0,0 +1,223 @@
+package Model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The PricingEngine class prices utility bills against the current
+ * {@link TariffSnapshot}.
+ *
+ * <h1>Tariffs</h1>
+ * The current tariffs are an immutable {@link TariffSnapshot}, holding the
+ * effective-dated tariff history of every service type, held in an
+ * {@link AtomicReference}. They start from the prices file at
+ * {@link #PRICES_FILE_PATH}, falling back to the defaults declared by
+ * {@link ServiceType}. An admin changing a charge publishes a new snapshot
+ * with {@link #update}; a reader takes the current snapshot once and prices
+ * against it, so every price in a batch comes from the same version without
+ * any locking.
+ *
+ * <h1>Type Resolution</h1>
+ * A bill's utility type text is matched to its {@link ServiceType} once, when
+ * the bill is created, with a case-insensitive comparison that allocates
+ * nothing. After that the bill is priced by ordinal.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * ServiceType type = PricingEngine.resolve("Gas");
+ * long cents = PricingEngine.price(type, 120.0);
+ * PricingEngine.update(tariffs -> tariffs.withUnitCharges(type, Money.unitChargeOf(0.4)));
+ * </code>
+ * </pre>
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe.
+ *
+ * @see TariffSnapshot
+ * @see ServiceType
+ * @see UtilityBill
+ */
+public final class PricingEngine {
+
+  /**
+   * The file the tariffs are loaded from and saved to.
+   */
+  public static final String PRICES_FILE_PATH = "src/Model/ServicePrices.txt";
+
+  /**
+   * The value of a type code that does not name a service type.
+   */
+  public static final byte UNKNOWN_TYPE = -1;
+
+  /**
+   * The service types, indexed by ordinal.
+   */
+  private static final ServiceType[] TYPES = ServiceType.values();
+
+  /**
+   * The published tariffs.
+   */
+  private static final AtomicReference<TariffSnapshot> TARIFFS =
+      new AtomicReference<>(loadInitialTariffs());
+
+  /**
+   * Prevents instantiation.
+   */
+  private PricingEngine() {
+  }
+
+  /**
+   * Gets the tariffs currently in force.
+   *
+   * @return The current snapshot.
+   */
+  public static TariffSnapshot current() {
+    return TARIFFS.get();
+  }
+
+  /**
+   * Publishes new tariffs derived from the current ones. The change is applied
+   * atomically even when several threads publish at once.
+   *
+   * @param change Derives the new snapshot from the current one, for example
+   *               {@code tariffs -> tariffs.withUnitCharges(type, 12000)}.
+   * @return The snapshot that was published.
+   */
+  public static TariffSnapshot update(UnaryOperator<TariffSnapshot> change) {
+    return TARIFFS.updateAndGet(change);
+  }
+
+  /**
+   * Finds the service type named by a utility type, ignoring case.
+   *
+   * @param utilityType The utility type, for example {@code "Electricity"}.
+   * @return The matching service type, or {@code null} if there is none.
+   */
+  public static ServiceType resolve(String utilityType) {
+    if (utilityType == null) {
+      return null;
+    }
+    for (ServiceType type : TYPES) {
+      if (utilityType.equalsIgnoreCase(type.name())) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the type code of a utility type, ignoring case.
+   *
+   * @param utilityType The utility type.
+   * @return The ordinal of the matching service type, or
+   *         {@link #UNKNOWN_TYPE} if there is none.
+   */
+  public static byte resolveCode(String utilityType) {
+    ServiceType type = resolve(utilityType);
+    return type == null ? UNKNOWN_TYPE : (byte) type.ordinal();
+  }
+
+  /**
+   * Prices one reading under the current tariff in force today.
+   *
+   * @param type    The service type, or {@code null} for an unknown type.
+   * @param reading The meter measurement.
+   * @return The price in cents, or {@code 0} for an unknown type.
+   */
+  public static long price(ServiceType type, double reading) {
+    return TARIFFS.get().price(type, reading);
+  }
+
+  /**
+   * Prices one reading under the current tariff in force on a day.
+   *
+   * @param type     The service type, or {@code null} for an unknown type.
+   * @param reading  The meter measurement.
+   * @param epochDay The day of the reading, or {@link UtilityBill#UNDATED} to
+   *                 use today's tariff.
+   * @return The price in cents, or {@code 0} for an unknown type.
+   */
+  public static long price(ServiceType type, double reading, int epochDay) {
+    return TARIFFS.get().price(type, reading, epochDay);
+  }
+
+  /**
+   * Prices a batch of readings dated each on its own day, under a single
+   * version of the current tariffs.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading, as returned by
+   *                 {@link #resolveCode(String)}.
+   * @param days     The epoch day of each reading, or
+   *                 {@link UtilityBill#UNDATED} to use today's tariff.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   * @see TariffSnapshot#priceAll(double[], byte[], int[], long[])
+   */
+  public static void priceAll(double[] readings, byte[] types, int[] days, long[] out) {
+    TARIFFS.get().priceAll(readings, types, days, out);
+  }
+
+  /**
+   * Prices a batch of readings dated each on its own day, under a single
+   * version of the current tariffs, without allocating.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading, as returned by
+   *                 {@link #resolveCode(String)}.
+   * @param days     The epoch day of each reading, or
+   *                 {@link UtilityBill#UNDATED} to use today's tariff.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @param cursor   The caller's working state, reused across batches.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   * @see TariffSnapshot#priceAll(double[], byte[], int[], long[], TariffSnapshot.PriceCursor)
+   */
+  public static void priceAll(
+      double[] readings,
+      byte[] types,
+      int[] days,
+      long[] out,
+      TariffSnapshot.PriceCursor cursor) {
+    TARIFFS.get().priceAll(readings, types, days, out, cursor);
+  }
+
+  /**
+   * Prices a batch of readings under a single version of the current tariffs.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading, as returned by
+   *                 {@link #resolveCode(String)}.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   * @see TariffSnapshot#priceAll(double[], byte[], long[])
+   */
+  public static void priceAll(double[] readings, byte[] types, long[] out) {
+    TARIFFS.get().priceAll(readings, types, out);
+  }
+
+  /**
+   * Loads the tariffs from the prices file, or uses the defaults if it cannot
+   * be read.
+   *
+   * @return The first published snapshot.
+   */
+  private static TariffSnapshot loadInitialTariffs() {
+    TariffSnapshot defaults = TariffSnapshot.defaults();
+    if (!new File(PRICES_FILE_PATH).exists()) {
+      return defaults;
+    }
+    try {
+      return defaults.read(PRICES_FILE_PATH);
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("Error reading service prices: " + e.getMessage());
+      return defaults;
+    }
+  }
+}
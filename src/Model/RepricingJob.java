@@ -0,0 +1,292 @@
+package Model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The RepricingJob class recomputes the prices of the bills affected by a
+ * tariff change.
+ *
+ * <h1>Selection</h1>
+ * Only bills of one {@link ServiceType} whose date falls inside a window of
+ * epoch days are repriced. Bills whose date could not be parsed count as
+ * {@link UtilityBill#UNDATED}, so they fall inside any window that ends at
+ * {@link Integer#MAX_VALUE}.
+ *
+ * <h1>Method Details</h1>
+ * The bills inside the window are found through the ledger's
+ * {@link BillDateIndex} and captured with their readings under the ledger's
+ * read lock, so a change effective from a recent date touches only the
+ * recent bills. The capture is then split into ranges that are filtered by
+ * type and priced in parallel on the common {@link ForkJoinPool}, all against
+ * one {@link TariffSnapshot}. Finally the new prices are applied under the
+ * write lock and the ledger is persisted with a single write; the job
+ * completes once that write has finished. A bill edited while the job ran is
+ * left alone, since the edit has already repriced it.
+ *
+ * <h1>Progress and Cancellation</h1>
+ * The listener is told how many bills have been examined as each range
+ * completes, on a pool thread. Cancelling the job stops the remaining ranges
+ * and discards every computed price, leaving the ledger untouched.
+ *
+ * <h1>Example Usage</h1>
+ *
+ * <pre>
+ * <code>
+ * RepricingJob job = new RepricingJob(WrittenBills.getInstance(),
+ *     ServiceType.GAS, fromDay, Integer.MAX_VALUE,
+ *     (self, done, total) -> System.out.println(done + "/" + total));
+ * job.start().thenAccept(count -> System.out.println(count + " bills repriced"));
+ * </code>
+ * </pre>
+ *
+ * @see WrittenBills
+ * @see PricingEngine
+ */
+public class RepricingJob {
+
+  /**
+   * Receives the progress of a repricing job.
+   */
+  public interface ProgressListener {
+
+    /**
+     * Reports progress. Called from pool threads.
+     *
+     * @param job   The job reporting progress.
+     * @param done  The number of bills examined so far.
+     * @param total The number of bills to examine.
+     */
+    void onProgress(RepricingJob job, int done, int total);
+  }
+
+  /**
+   * The number of bills below which a range is priced without splitting.
+   */
+  private static final int LEAF_SIZE = 8192;
+
+  /**
+   * The ledger whose bills are repriced.
+   */
+  private final WrittenBills ledger;
+  /**
+   * The service type whose bills are repriced.
+   */
+  private final ServiceType type;
+  /**
+   * The first epoch day of the window, inclusive.
+   */
+  private final int fromDay;
+  /**
+   * The last epoch day of the window, inclusive.
+   */
+  private final int toDay;
+  /**
+   * The listener receiving progress, or {@code null}.
+   */
+  private final ProgressListener listener;
+  /**
+   * The number of bills examined so far.
+   */
+  private final AtomicInteger done = new AtomicInteger();
+  /**
+   * The number of bills to examine, known once they are captured.
+   */
+  private volatile int total;
+  /**
+   * Whether the job has been cancelled.
+   */
+  private volatile boolean cancelled;
+
+  /**
+   * Constructs a repricing job. The job does nothing until it is run.
+   *
+   * @param ledger   The ledger whose bills are repriced.
+   * @param type     The service type whose bills are repriced.
+   * @param fromDay  The first epoch day of the window, inclusive.
+   * @param toDay    The last epoch day of the window, inclusive; use
+   *                 {@link Integer#MAX_VALUE} to include undated bills.
+   * @param listener The listener receiving progress, or {@code null}.
+   */
+  public RepricingJob(
+      WrittenBills ledger,
+      ServiceType type,
+      int fromDay,
+      int toDay,
+      ProgressListener listener) {
+    this.ledger = ledger;
+    this.type = type;
+    this.fromDay = fromDay;
+    this.toDay = toDay;
+    this.listener = listener;
+  }
+
+  /**
+   * Runs the job on the common fork-join pool.
+   *
+   * @return A future completing with the number of bills repriced once their
+   *         prices are persisted, or with 0 if the job was cancelled.
+   */
+  public CompletableFuture<Integer> start() {
+    return CompletableFuture.supplyAsync(this::price, ForkJoinPool.commonPool())
+        .thenCompose(persisted -> persisted);
+  }
+
+  /**
+   * Runs the job on the calling thread, pricing in parallel on the common
+   * fork-join pool, and waits until the new prices are persisted.
+   *
+   * @return The number of bills repriced, or 0 if the job was cancelled.
+   */
+  public int run() {
+    return price().join();
+  }
+
+  /**
+   * Captures and prices the bills inside the window and applies the new
+   * prices.
+   *
+   * @return A future completing with the number of bills repriced once their
+   *         prices are persisted, or with 0 if the job was cancelled.
+   */
+  private CompletableFuture<Integer> price() {
+    Capture capture = ledger.readBetween(fromDay, toDay, Capture::new);
+    total = capture.bills.length;
+    TariffSnapshot tariffs = PricingEngine.current();
+    long[] prices = new long[capture.bills.length];
+    ForkJoinPool.commonPool().invoke(new PriceRange(capture, tariffs, prices, 0, prices.length));
+    if (cancelled) {
+      return CompletableFuture.completedFuture(0);
+    }
+    return ledger.applyPrices(capture.bills, capture.readings, prices);
+  }
+
+  /**
+   * Cancels the job. Prices already computed are discarded.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Checks whether the job has been cancelled.
+   *
+   * @return {@code true} if {@link #cancel()} was called.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Gets the number of bills examined so far.
+   *
+   * @return The number of bills examined.
+   */
+  public int getDone() {
+    return done.get();
+  }
+
+  /**
+   * Gets the number of bills to examine.
+   *
+   * @return The number of bills, or 0 before they are captured.
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * The bills inside the window and their readings at the time of capture.
+   */
+  private static final class Capture {
+
+    /**
+     * The captured bills.
+     */
+    final UtilityBill[] bills;
+    /**
+     * The meter measurement of each bill when captured.
+     */
+    final double[] readings;
+    /**
+     * The epoch day at the time of capture, which prices undated bills.
+     */
+    final int today;
+
+    /**
+     * Captures the bills. The caller holds the ledger's read lock.
+     *
+     * @param bills The bills inside the window.
+     */
+    Capture(List<UtilityBill> bills) {
+      this.bills = bills.toArray(new UtilityBill[0]);
+      this.readings = new double[this.bills.length];
+      this.today = TariffSnapshot.today();
+      for (int i = 0; i < this.bills.length; i++) {
+        readings[i] = this.bills[i].getMeterMeasurement();
+      }
+    }
+  }
+
+  /**
+   * Filters and prices one range of the captured bills, splitting it while it
+   * is larger than {@link #LEAF_SIZE}.
+   */
+  @SuppressWarnings("serial")
+  private final class PriceRange extends RecursiveAction {
+
+    private final Capture capture;
+    private final TariffSnapshot tariffs;
+    private final long[] prices;
+    private final int start;
+    private final int end;
+
+    /**
+     * Constructs a range.
+     *
+     * @param capture The captured bills.
+     * @param tariffs The tariffs to price with.
+     * @param prices  Receives the new price in cents of each selected
+     *                bill, and {@link Long#MIN_VALUE} for every other bill.
+     * @param start   The first index of the range.
+     * @param end     The index after the last of the range.
+     */
+    PriceRange(Capture capture, TariffSnapshot tariffs, long[] prices, int start, int end) {
+      this.capture = capture;
+      this.tariffs = tariffs;
+      this.prices = prices;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (cancelled) {
+        return;
+      }
+      if (end - start > LEAF_SIZE) {
+        int middle = (start + end) >>> 1;
+        invokeAll(
+            new PriceRange(capture, tariffs, prices, start, middle),
+            new PriceRange(capture, tariffs, prices, middle, end));
+        return;
+      }
+      for (int i = start; i < end; i++) {
+        UtilityBill bill = capture.bills[i];
+        int day = bill.getEpochDay();
+        if (bill.getType() == type && day >= fromDay && day <= toDay) {
+          prices[i] = tariffs.price(type, capture.readings[i], day == UtilityBill.UNDATED ? capture.today : day);
+        } else {
+          prices[i] = Long.MIN_VALUE;
+        }
+      }
+      int examined = done.addAndGet(end - start);
+      if (listener != null) {
+        listener.onProgress(RepricingJob.this, examined, total);
+      }
+    }
+  }
+}
@@ -2,6 +2,8 @@ package Model;
 
 /**
  * The `ServiceType` enum represents various types of utility services, each with its associated unit charges and service charges.
+ *
+ * <p>The charges listed below are the defaults. The charges in force are held by the current {@link TariffSnapshot}.</p>
  */
 public enum ServiceType {
   /**
@@ -25,53 +27,75 @@ public enum ServiceType {
    */
   WATER(0.05, 20.0);
 
-  private double unitCharges;
-  private double serviceCharges;
+  private final double defaultUnitCharges;
+  private final double defaultServiceCharges;
 
   /**
-   * Constructs a `ServiceType` with the specified unit charges and service charges.
+   * Constructs a `ServiceType` with the specified default unit charges and service charges.
    *
-   * @param unitCharges     The unit charges for the service type.
-   * @param serviceCharges  The service charges for the service type.
+   * @param unitCharges     The default unit charges for the service type.
+   * @param serviceCharges  The default service charges for the service type.
    */
   private ServiceType(double unitCharges, double serviceCharges) {
-    this.unitCharges = unitCharges;
-    this.serviceCharges = serviceCharges;
+    this.defaultUnitCharges = unitCharges;
+    this.defaultServiceCharges = serviceCharges;
   }
 
   /**
-   * Get the unit charges for this service type.
+   * Get the unit charges declared for this service type, used when no prices file overrides them.
    *
-   * @return The unit charges.
+   * @return The default unit charges.
+   */
+  double getDefaultUnitCharges() {
+    return defaultUnitCharges;
+  }
+
+  /**
+   * Get the service charges declared for this service type, used when no prices file overrides them.
+   *
+   * @return The default service charges.
+   */
+  double getDefaultServiceCharges() {
+    return defaultServiceCharges;
+  }
+
+  /**
+   * Get the unit charges for this service type from the current tariffs.
+   *
+   * @return The unit charges in dollars.
+   * @see PricingEngine#current()
    */
   public double getUnitCharges() {
-    return unitCharges;
+    return Money.unitChargeToDollars(PricingEngine.current().getUnitCharges(this));
   }
 
   /**
-   * Set the unit charges for this service type.
+   * Set the unit charges for this service type by publishing new tariffs.
    *
    * @param unitCharges The unit charges to set.
+   * @see PricingEngine#update
    */
   public void setUnitCharges(double unitCharges) {
-    this.unitCharges = unitCharges;
+    PricingEngine.update(tariffs -> tariffs.withUnitCharges(this, Money.unitChargeOf(unitCharges)));
   }
 
   /**
-   * Get the service charges for this service type.
+   * Get the service charges for this service type from the current tariffs.
    *
-   * @return The service charges.
+   * @return The service charges in dollars.
+   * @see PricingEngine#current()
    */
   public double getServiceCharges() {
-    return serviceCharges;
+    return Money.toDollars(PricingEngine.current().getServiceCharges(this));
   }
 
   /**
-   * Set the service charges for this service type.
+   * Set the service charges for this service type by publishing new tariffs.
    *
    * @param serviceCharges The service charges to set.
+   * @see PricingEngine#update
    */
   public void setServiceCharges(double serviceCharges) {
-    this.serviceCharges = serviceCharges;
+    PricingEngine.update(tariffs -> tariffs.withServiceCharges(this, Money.centsOf(serviceCharges)));
   }
 }
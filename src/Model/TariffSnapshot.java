@@ -0,0 +1,598 @@
+package Model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * The TariffSnapshot class is one immutable version of the tariff history of
+ * every {@link ServiceType}.
+ *
+ * <h1>History</h1>
+ * Each service type has a list of tariffs, each with the epoch day it takes
+ * effect. The first tariff of every type is the base tariff, in force from
+ * the beginning of time. A bill is priced with the tariff in force on its
+ * date, found by binary search over a primitive {@code int[]} of effective
+ * days, so changing a price never reprices older bills with the new rates.
+ *
+ * <h1>Layout</h1>
+ * The tariffs of a type are kept in a {@code long[]}, the unit charge of the
+ * tariff at {@code 2 * i} and its service charge at {@code 2 * i + 1}, so
+ * pricing a bill reads two adjacent primitives once its tariff is found.
+ * Unit charges are in {@link Money#UNIT_CHARGE_SCALE}ths of a dollar and
+ * service charges and prices are in cents, as described by {@link Money}.
+ *
+ * <h1>Versions</h1>
+ * A snapshot is never changed once built. Adding a tariff with
+ * {@link #withCharges}, {@link #withUnitCharges} or
+ * {@link #withServiceCharges} returns a new snapshot with the next version
+ * number, which {@link PricingEngine} publishes for every reader at once.
+ *
+ * <h1>File Format</h1>
+ * Each line of a prices file holds {@code ServiceType:unitPrice,servicePrice}
+ * in dollars for the base tariff, for example {@code GAS:0.4,0.6}, or
+ * {@code ServiceType@yyyy-MM-dd:unitPrice,servicePrice} for a tariff taking
+ * effect on that date.
+ *
+ * @see PricingEngine
+ * @see ServiceType
+ */
+public final class TariffSnapshot {
+
+  /**
+   * The effective day of the base tariff of every service type.
+   */
+  private static final int BASE_DAY = Integer.MIN_VALUE;
+
+  /**
+   * One tariff read from a prices file.
+   */
+  private static final class TariffLine {
+    private final ServiceType type;
+    private final int effectiveDay;
+    private final long unitCharges;
+    private final long serviceCharges;
+
+    /**
+     * Constructs a tariff line.
+     *
+     * @param type           The service type.
+     * @param effectiveDay   The day the tariff takes effect.
+     * @param unitCharges    The unit charges of the tariff.
+     * @param serviceCharges The service charges of the tariff.
+     */
+    TariffLine(ServiceType type, int effectiveDay, long unitCharges, long serviceCharges) {
+      this.type = type;
+      this.effectiveDay = effectiveDay;
+      this.unitCharges = unitCharges;
+      this.serviceCharges = serviceCharges;
+    }
+  }
+
+  /**
+   * The version number of this snapshot.
+   */
+  private final long version;
+  /**
+   * The effective epoch days of the tariffs of each service type, indexed by
+   * ordinal, in increasing order.
+   */
+  private final int[][] effectiveDays;
+  /**
+   * The unit and service charges of the tariffs of each service type, indexed
+   * by ordinal, two slots per tariff.
+   */
+  private final long[][] charges;
+
+  /**
+   * Constructs a snapshot that takes ownership of the given arrays.
+   *
+   * @param version       The version number.
+   * @param effectiveDays The effective days per service type.
+   * @param charges       The charges per service type.
+   */
+  private TariffSnapshot(long version, int[][] effectiveDays, long[][] charges) {
+    this.version = version;
+    this.effectiveDays = effectiveDays;
+    this.charges = charges;
+  }
+
+  /**
+   * Creates the first snapshot, holding the default charges declared by
+   * {@link ServiceType} as base tariffs.
+   *
+   * @return The snapshot with version 1.
+   */
+  public static TariffSnapshot defaults() {
+    ServiceType[] types = ServiceType.values();
+    int[][] days = new int[types.length][];
+    long[][] charges = new long[types.length][];
+    for (ServiceType type : types) {
+      days[type.ordinal()] = new int[] { BASE_DAY };
+      charges[type.ordinal()] = new long[] {
+          Money.unitChargeOf(type.getDefaultUnitCharges()),
+          Money.centsOf(type.getDefaultServiceCharges()) };
+    }
+    return new TariffSnapshot(1, days, charges);
+  }
+
+  /**
+   * Reads a prices file on top of this snapshot. Each line replaces the tariff
+   * of its service type that takes effect on the same day, or adds one.
+   *
+   * @param path The path of the prices file.
+   * @return A new snapshot with the next version number.
+   * @throws IOException              If the file cannot be read.
+   * @throws IllegalArgumentException If a line names an unknown service type
+   *                                  or an invalid date.
+   */
+  public TariffSnapshot read(String path) throws IOException {
+    return readChanges(path).apply(this);
+  }
+
+  /**
+   * Reads a prices file into a change that can be applied to any snapshot,
+   * for example with {@link PricingEngine#update}. The file is read and
+   * parsed once; applying the change replaces or adds the tariff of each
+   * line, as {@link #read(String)} does, and gives the next version number of
+   * the snapshot it is applied to.
+   *
+   * @param path The path of the prices file.
+   * @return The change.
+   * @throws IOException              If the file cannot be read.
+   * @throws IllegalArgumentException If a line names an unknown service type
+   *                                  or an invalid date.
+   */
+  public static UnaryOperator<TariffSnapshot> readChanges(String path) throws IOException {
+    ArrayList<TariffLine> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(":");
+        if (parts.length == 2) {
+          String[] prices = parts[1].split(",");
+          if (prices.length == 2) {
+            String name = parts[0].trim();
+            int day = BASE_DAY;
+            int at = name.indexOf('@');
+            if (at >= 0) {
+              day = parseDay(name.substring(at + 1).trim());
+              name = name.substring(0, at).trim();
+            }
+            lines.add(new TariffLine(
+                ServiceType.valueOf(name),
+                day,
+                Money.unitChargeOf(Double.parseDouble(prices[0])),
+                Money.centsOf(Double.parseDouble(prices[1]))));
+          }
+        }
+      }
+    }
+    return base -> {
+      TariffSnapshot next = base;
+      for (TariffLine tariff : lines) {
+        next = next.withTariff(tariff.type, tariff.effectiveDay, tariff.unitCharges, tariff.serviceCharges);
+      }
+      return new TariffSnapshot(base.version + 1, next.effectiveDays, next.charges);
+    };
+  }
+
+  /**
+   * Writes the tariff history of every service type to a prices file,
+   * replacing it.
+   *
+   * @param path The path of the prices file.
+   * @throws IOException If the file cannot be written.
+   */
+  public void write(String path) throws IOException {
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+      for (ServiceType type : ServiceType.values()) {
+        int[] days = effectiveDays[type.ordinal()];
+        long[] rates = charges[type.ordinal()];
+        for (int i = 0; i < days.length; i++) {
+          writer.write(type.name());
+          if (days[i] != BASE_DAY) {
+            writer.write("@" + LocalDate.ofEpochDay(days[i]));
+          }
+          writer.write(
+              ":" + Money.formatUnitCharge(rates[i << 1]) + "," + Money.format(rates[(i << 1) + 1]));
+          writer.newLine();
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the version number of this snapshot.
+   *
+   * @return The version number; later snapshots have larger numbers.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the unit charges of a service type in force today.
+   *
+   * @param type The service type.
+   * @return The charge per unit measured, in {@link Money#UNIT_CHARGE_SCALE}ths
+   *         of a dollar.
+   */
+  public long getUnitCharges(ServiceType type) {
+    return getUnitCharges(type, today());
+  }
+
+  /**
+   * Gets the unit charges of a service type in force on a day.
+   *
+   * @param type     The service type.
+   * @param epochDay The day, as days since 1970-01-01.
+   * @return The charge per unit measured, in {@link Money#UNIT_CHARGE_SCALE}ths
+   *         of a dollar.
+   */
+  public long getUnitCharges(ServiceType type, int epochDay) {
+    int ordinal = type.ordinal();
+    return charges[ordinal][tariffIndex(ordinal, epochDay) << 1];
+  }
+
+  /**
+   * Gets the service charges of a service type in force today.
+   *
+   * @param type The service type.
+   * @return The fixed charge per bill in cents.
+   */
+  public long getServiceCharges(ServiceType type) {
+    return getServiceCharges(type, today());
+  }
+
+  /**
+   * Gets the service charges of a service type in force on a day.
+   *
+   * @param type     The service type.
+   * @param epochDay The day, as days since 1970-01-01.
+   * @return The fixed charge per bill in cents.
+   */
+  public long getServiceCharges(ServiceType type, int epochDay) {
+    int ordinal = type.ordinal();
+    return charges[ordinal][(tariffIndex(ordinal, epochDay) << 1) + 1];
+  }
+
+  /**
+   * Gets the epoch days on which the tariffs of a service type take effect.
+   * The base tariff is reported as {@link Integer#MIN_VALUE}.
+   *
+   * @param type The service type.
+   * @return A copy of the effective days, in increasing order.
+   */
+  public int[] getEffectiveDays(ServiceType type) {
+    return effectiveDays[type.ordinal()].clone();
+  }
+
+  /**
+   * Creates a snapshot with a tariff for one service type taking effect on a
+   * day, replacing any tariff of that type taking effect the same day.
+   *
+   * @param type           The service type.
+   * @param effectiveDay   The day the tariff takes effect, as days since
+   *                       1970-01-01.
+   * @param unitCharges    The unit charges of the tariff, in
+   *                       {@link Money#UNIT_CHARGE_SCALE}ths of a dollar.
+   * @param serviceCharges The service charges of the tariff in cents.
+   * @return A new snapshot with the next version number.
+   */
+  public TariffSnapshot withCharges(
+      ServiceType type,
+      int effectiveDay,
+      long unitCharges,
+      long serviceCharges) {
+    TariffSnapshot next = withTariff(type, effectiveDay, unitCharges, serviceCharges);
+    return new TariffSnapshot(version + 1, next.effectiveDays, next.charges);
+  }
+
+  /**
+   * Creates a snapshot in which a service type's unit charges change from
+   * today. Tariffs in force before today are kept.
+   *
+   * @param type        The service type.
+   * @param unitCharges The new unit charges, in
+   *                    {@link Money#UNIT_CHARGE_SCALE}ths of a dollar.
+   * @return A new snapshot with the next version number.
+   */
+  public TariffSnapshot withUnitCharges(ServiceType type, long unitCharges) {
+    int day = today();
+    return withCharges(type, day, unitCharges, getServiceCharges(type, day));
+  }
+
+  /**
+   * Creates a snapshot in which a service type's service charges change from
+   * today. Tariffs in force before today are kept.
+   *
+   * @param type           The service type.
+   * @param serviceCharges The new service charges in cents.
+   * @return A new snapshot with the next version number.
+   */
+  public TariffSnapshot withServiceCharges(ServiceType type, long serviceCharges) {
+    int day = today();
+    return withCharges(type, day, getUnitCharges(type, day), serviceCharges);
+  }
+
+  /**
+   * Prices one reading with the tariff in force today.
+   *
+   * @param type    The service type, or {@code null} for an unknown type.
+   * @param reading The meter measurement.
+   * @return The price in cents, or {@code 0} for an unknown type.
+   */
+  public long price(ServiceType type, double reading) {
+    return price(type, reading, today());
+  }
+
+  /**
+   * Prices one reading with the tariff in force on a day.
+   *
+   * @param type     The service type, or {@code null} for an unknown type.
+   * @param reading  The meter measurement.
+   * @param epochDay The day of the reading, or {@link UtilityBill#UNDATED} to
+   *                 use today's tariff.
+   * @return The price in cents, or {@code 0} for an unknown type.
+   */
+  public long price(ServiceType type, double reading, int epochDay) {
+    if (type == null) {
+      return 0;
+    }
+    int ordinal = type.ordinal();
+    int slot = tariffIndex(ordinal, epochDay == UtilityBill.UNDATED ? today() : epochDay) << 1;
+    long[] rates = charges[ordinal];
+    return Money.price(reading, rates[slot], rates[slot + 1]);
+  }
+
+  /**
+   * Working state reused by the batch pricing methods, remembering the
+   * tariff last found for each service type so runs of readings from the
+   * same period skip the binary search. Keeping one cursor per caller makes
+   * a batch allocate nothing. A cursor may be used with any snapshot, but by
+   * one thread at a time.
+   */
+  public static final class PriceCursor {
+
+    /**
+     * The first day covered by the tariff last found for each type.
+     */
+    private final int[] fromDay = new int[ServiceType.values().length];
+    /**
+     * The day after the last covered by the tariff last found for each type.
+     */
+    private final int[] untilDay = new int[ServiceType.values().length];
+    /**
+     * The charge slot of the tariff last found for each type.
+     */
+    private final int[] slots = new int[ServiceType.values().length];
+
+    /**
+     * Forgets the tariffs found by the previous batch.
+     */
+    private void reset() {
+      Arrays.fill(untilDay, Integer.MIN_VALUE);
+    }
+  }
+
+  /**
+   * Prices a batch of readings with the tariffs in force today.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading: a service type ordinal, or
+   *                 a negative value for an unknown type.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public void priceAll(double[] readings, byte[] types, long[] out) {
+    priceAll(readings, types, out, new PriceCursor());
+  }
+
+  /**
+   * Prices a batch of readings with the tariffs in force today, without
+   * allocating.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading: a service type ordinal, or
+   *                 a negative value for an unknown type.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @param cursor   The caller's working state.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public void priceAll(double[] readings, byte[] types, long[] out, PriceCursor cursor) {
+    if (types.length != readings.length || out.length != readings.length) {
+      throw new IllegalArgumentException("Readings, types and prices must have the same length");
+    }
+    priceBatch(readings, types, null, out, cursor);
+  }
+
+  /**
+   * Prices a batch of readings, each with the tariff in force on its day.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading: a service type ordinal, or
+   *                 a negative value for an unknown type.
+   * @param days     The epoch day of each reading, or
+   *                 {@link UtilityBill#UNDATED} to use today's tariff.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public void priceAll(double[] readings, byte[] types, int[] days, long[] out) {
+    priceAll(readings, types, days, out, new PriceCursor());
+  }
+
+  /**
+   * Prices a batch of readings, each with the tariff in force on its day,
+   * without allocating.
+   *
+   * <h1>Method Details</h1>
+   * Today is resolved once for the whole batch. The range of days covered by
+   * the last tariff found for each service type is remembered in the cursor,
+   * so runs of readings from the same period skip the binary search; a type
+   * with a single tariff never searches.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading: a service type ordinal, or
+   *                 a negative value for an unknown type.
+   * @param days     The epoch day of each reading, or
+   *                 {@link UtilityBill#UNDATED} to use today's tariff.
+   * @param out      Receives the price of each reading in cents; {@code 0}
+   *                 where the type code is unknown.
+   * @param cursor   The caller's working state.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public void priceAll(double[] readings, byte[] types, int[] days, long[] out, PriceCursor cursor) {
+    int count = readings.length;
+    if (types.length != count || days.length != count || out.length != count) {
+      throw new IllegalArgumentException("Readings, types, days and prices must have the same length");
+    }
+    priceBatch(readings, types, days, out, cursor);
+  }
+
+  /**
+   * Prices a batch of readings whose arrays have been checked.
+   *
+   * @param readings The meter measurements.
+   * @param types    The type code of each reading.
+   * @param days     The epoch day of each reading, or {@code null} to price
+   *                 every reading with today's tariff.
+   * @param out      Receives the price of each reading in cents.
+   * @param cursor   The caller's working state.
+   */
+  private void priceBatch(double[] readings, byte[] types, int[] days, long[] out, PriceCursor cursor) {
+    int typeCount = charges.length;
+    int today = today();
+    int[] fromDay = cursor.fromDay;
+    int[] untilDay = cursor.untilDay;
+    int[] slots = cursor.slots;
+    cursor.reset();
+    for (int i = 0; i < readings.length; i++) {
+      int code = types[i];
+      if (code < 0 || code >= typeCount) {
+        out[i] = 0;
+        continue;
+      }
+      int day = days == null || days[i] == UtilityBill.UNDATED ? today : days[i];
+      if (day < fromDay[code] || day >= untilDay[code]) {
+        int[] effective = effectiveDays[code];
+        int index = tariffIndex(code, day);
+        fromDay[code] = effective[index];
+        untilDay[code] = index + 1 < effective.length ? effective[index + 1] : Integer.MAX_VALUE;
+        slots[code] = index << 1;
+      }
+      long[] rates = charges[code];
+      int slot = slots[code];
+      out[i] = Money.price(readings[i], rates[slot], rates[slot + 1]);
+    }
+  }
+
+  /**
+   * Gets today's date as an epoch day, to resolve once for a batch of
+   * {@link UtilityBill#UNDATED} readings priced one at a time.
+   *
+   * @return The number of days since 1970-01-01.
+   */
+  public static int today() {
+    return (int) LocalDate.now().toEpochDay();
+  }
+
+  /**
+   * Finds the tariff of a service type in force on a day.
+   *
+   * @param ordinal  The ordinal of the service type.
+   * @param epochDay The day.
+   * @return The index of the last tariff taking effect on or before the day.
+   */
+  private int tariffIndex(int ordinal, int epochDay) {
+    int[] days = effectiveDays[ordinal];
+    int low = 0;
+    int high = days.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (days[mid] <= epochDay) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Adds or replaces one tariff without changing the version number.
+   *
+   * @param type           The service type.
+   * @param effectiveDay   The day the tariff takes effect.
+   * @param unitCharges    The unit charges of the tariff.
+   * @param serviceCharges The service charges of the tariff.
+   * @return A snapshot with the tariff in place.
+   */
+  private TariffSnapshot withTariff(
+      ServiceType type,
+      int effectiveDay,
+      long unitCharges,
+      long serviceCharges) {
+    int ordinal = type.ordinal();
+    int[] days = effectiveDays[ordinal];
+    long[] rates = charges[ordinal];
+    int index = Arrays.binarySearch(days, effectiveDay);
+    int[] nextDays;
+    long[] nextRates;
+    if (index >= 0) {
+      nextDays = days;
+      nextRates = rates.clone();
+    } else {
+      index = -index - 1;
+      nextDays = new int[days.length + 1];
+      System.arraycopy(days, 0, nextDays, 0, index);
+      System.arraycopy(days, index, nextDays, index + 1, days.length - index);
+      nextDays[index] = effectiveDay;
+      nextRates = new long[rates.length + 2];
+      System.arraycopy(rates, 0, nextRates, 0, index << 1);
+      System.arraycopy(rates, index << 1, nextRates, (index + 1) << 1, rates.length - (index << 1));
+    }
+    nextRates[index << 1] = unitCharges;
+    nextRates[(index << 1) + 1] = serviceCharges;
+    int[][] allDays = effectiveDays.clone();
+    long[][] allCharges = charges.clone();
+    allDays[ordinal] = nextDays;
+    allCharges[ordinal] = nextRates;
+    return new TariffSnapshot(version, allDays, allCharges);
+  }
+
+  /**
+   * Parses the effective date of a tariff line.
+   *
+   * @param date The date as {@code yyyy-MM-dd}.
+   * @return The epoch day.
+   * @throws IllegalArgumentException If the date is not valid.
+   */
+  private static int parseDay(String date) {
+    try {
+      return (int) LocalDate.parse(date).toEpochDay();
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid tariff date: " + date, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder("TariffSnapshot[version=").append(version);
+    for (ServiceType type : ServiceType.values()) {
+      text.append(", ").append(type.name()).append('=')
+          .append(effectiveDays[type.ordinal()].length).append(" tariffs");
+    }
+    return text.append(']').toString();
+  }
+}
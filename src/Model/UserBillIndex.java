@@ -0,0 +1,152 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * The UserBillIndex class maps each username to the IDs of that customer's
+ * bills.
+ *
+ * <h1>Layout</h1>
+ * Every username owns a growable {@code int} array of bill IDs in the order the
+ * bills were added, so listing a customer's bills costs time proportional to
+ * that customer's bill count rather than to the size of the ledger.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills
+ */
+class UserBillIndex {
+
+  /**
+   * The bill IDs of one customer.
+   */
+  static final class BillIds {
+
+    /**
+     * The IDs, valid up to {@link #size}.
+     */
+    private int[] ids = new int[4];
+    /**
+     * The number of IDs stored.
+     */
+    private int size;
+
+    /**
+     * Gets the number of IDs stored.
+     *
+     * @return The number of IDs.
+     */
+    int size() {
+      return size;
+    }
+
+    /**
+     * Gets the ID at the given position.
+     *
+     * @param index The position of the ID.
+     * @return The bill ID.
+     */
+    int get(int index) {
+      return ids[index];
+    }
+
+    /**
+     * Appends an ID.
+     *
+     * @param id The bill ID.
+     */
+    private void add(int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size << 1);
+      }
+      ids[size++] = id;
+    }
+
+    /**
+     * Removes an ID, keeping the remaining IDs in order.
+     *
+     * @param id The bill ID.
+     * @return {@code true} if the ID was present.
+     */
+    private boolean remove(int id) {
+      for (int i = size - 1; i >= 0; i--) {
+        if (ids[i] == id) {
+          System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+          size--;
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The bill IDs keyed by username.
+   */
+  private final HashMap<String, BillIds> billsByUser = new HashMap<>();
+
+  /**
+   * Records that a bill belongs to a user.
+   *
+   * @param username The username of the bill's customer.
+   * @param id       The bill ID.
+   * @return {@code true} if this is the user's first bill.
+   */
+  boolean add(String username, int id) {
+    BillIds ids = billsByUser.get(username);
+    boolean firstBill = ids == null;
+    if (firstBill) {
+      ids = new BillIds();
+      billsByUser.put(username, ids);
+    }
+    ids.add(id);
+    return firstBill;
+  }
+
+  /**
+   * Forgets that a bill belongs to a user, dropping the user once they have no
+   * bills left.
+   *
+   * @param username The username of the bill's customer.
+   * @param id       The bill ID.
+   * @return {@code true} if this was the user's last bill.
+   */
+  boolean remove(String username, int id) {
+    BillIds ids = billsByUser.get(username);
+    if (ids != null && ids.remove(id) && ids.size() == 0) {
+      billsByUser.remove(username);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gets the bill IDs of a user.
+   *
+   * @param username The username.
+   * @return The user's bill IDs, or {@code null} if the user has none.
+   */
+  BillIds get(String username) {
+    return billsByUser.get(username);
+  }
+
+  /**
+   * Gets every username that has at least one bill.
+   *
+   * @return An unmodifiable view of the usernames.
+   */
+  Set<String> usernames() {
+    return Collections.unmodifiableSet(billsByUser.keySet());
+  }
+
+  /**
+   * Removes every entry from the index.
+   */
+  void clear() {
+    billsByUser.clear();
+  }
+}
@@ -0,0 +1,433 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * The UsernameSearchIndex class answers substring queries over the usernames
+ * that own bills.
+ *
+ * <h1>Layout</h1>
+ * Usernames are kept in a sorted set, which answers prefix queries with a
+ * range lookup. Each username is also given an ordinal, and every one, two and
+ * three-character sequence it contains maps to a sorted primitive list of the
+ * ordinals of the usernames containing it. A query of up to three characters
+ * reads the list of that exact sequence; a longer query intersects the lists
+ * of its trigrams in place, walking the shortest and binary searching the
+ * others, and checks only the usernames found in all of them. The lists are
+ * held in an open-addressing table keyed by the packed gram as a primitive
+ * {@code long}, so no list is copied and no boxed value is created while
+ * searching.
+ *
+ * <h1>Removal</h1>
+ * Removing a username drops its ordinal from every list and leaves a gap in
+ * the ordinals. Once the gaps outnumber the live usernames the ordinals are
+ * renumbered in order, closing the gaps, so adding and removing usernames
+ * repeatedly does not grow the index.
+ *
+ * <h1>Limits</h1>
+ * A query stops as soon as it has found the number of usernames asked for, so
+ * a short query that matches most usernames costs no more than the matches it
+ * returns.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is not thread-safe; it is guarded by its owning ledger.
+ *
+ * @see WrittenBills
+ */
+class UsernameSearchIndex {
+
+  /**
+   * The length of the longest grams stored in {@link #gramKeys}.
+   */
+  private static final int GRAM_LENGTH = 3;
+  /**
+   * The key stored in empty slots of {@link #gramKeys}. A packed gram holds
+   * its length above the characters, so it is never 0.
+   */
+  private static final long EMPTY = 0L;
+  /**
+   * The initial number of slots in the gram table, a power of two.
+   */
+  private static final int GRAM_TABLE_SIZE = 1024;
+  /**
+   * The fewest removed ordinals that make renumbering worthwhile.
+   */
+  private static final int MIN_RENUMBER = 1024;
+
+  /**
+   * The ordinals of the usernames containing one gram, in ascending order.
+   */
+  private static final class Postings {
+
+    /**
+     * The ordinals, valid up to {@link #size}.
+     */
+    private int[] ordinals = new int[4];
+    /**
+     * The number of ordinals stored.
+     */
+    private int size;
+
+    /**
+     * Appends an ordinal larger than every stored one, ignoring a repeat of
+     * the last.
+     *
+     * @param ordinal The ordinal.
+     */
+    private void append(int ordinal) {
+      if (size > 0 && ordinals[size - 1] == ordinal) {
+        return;
+      }
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size << 1);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    /**
+     * Removes an ordinal, keeping the remaining ordinals in order.
+     *
+     * @param ordinal The ordinal.
+     */
+    private void remove(int ordinal) {
+      int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+      if (position >= 0) {
+        System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+        size--;
+      }
+    }
+
+    /**
+     * Finds the position of the first ordinal not less than a value, searching
+     * from a position onwards.
+     *
+     * @param from  The position to search from.
+     * @param value The value.
+     * @return The position, or {@link #size} if every ordinal is smaller.
+     */
+    private int seek(int from, int value) {
+      int position = Arrays.binarySearch(ordinals, from, size, value);
+      return position >= 0 ? position : -position - 1;
+    }
+  }
+
+  /**
+   * Every indexed username in sorted order.
+   */
+  private final TreeSet<String> sorted = new TreeSet<>();
+  /**
+   * The username of each ordinal, or {@code null} once it has been removed.
+   */
+  private final ArrayList<String> names = new ArrayList<>();
+  /**
+   * The ordinal of each indexed username.
+   */
+  private final HashMap<String, Integer> ordinals = new HashMap<>();
+  /**
+   * The number of ordinals in {@link #names} whose username was removed.
+   */
+  private int removed;
+  /**
+   * The packed grams, or {@link #EMPTY} for unused slots.
+   */
+  private long[] gramKeys = new long[GRAM_TABLE_SIZE];
+  /**
+   * The ordinals of the usernames containing each gram, parallel to
+   * {@link #gramKeys}.
+   */
+  private Postings[] gramPostings = new Postings[GRAM_TABLE_SIZE];
+  /**
+   * The number of grams in the table.
+   */
+  private int gramCount;
+
+  /**
+   * Adds a username to the index. The username gets a new ordinal larger than
+   * every other, so each postings list stays sorted by appending.
+   *
+   * @param username The username to add.
+   */
+  void add(String username) {
+    if (!sorted.add(username)) {
+      return;
+    }
+    int ordinal = names.size();
+    names.add(username);
+    ordinals.put(username, ordinal);
+    for (int length = 1; length <= GRAM_LENGTH; length++) {
+      for (int i = 0; i + length <= username.length(); i++) {
+        addPostings(gram(username, i, length)).append(ordinal);
+      }
+    }
+  }
+
+  /**
+   * Removes a username from the index, renumbering the ordinals once most of
+   * them belong to removed usernames.
+   *
+   * @param username The username to remove.
+   */
+  void remove(String username) {
+    if (!sorted.remove(username)) {
+      return;
+    }
+    int ordinal = ordinals.remove(username);
+    names.set(ordinal, null);
+    for (int length = 1; length <= GRAM_LENGTH; length++) {
+      for (int i = 0; i + length <= username.length(); i++) {
+        long key = gram(username, i, length);
+        Postings postings = postings(key);
+        if (postings != null) {
+          postings.remove(ordinal);
+          if (postings.size == 0) {
+            removePostings(key);
+          }
+        }
+      }
+    }
+    removed++;
+    if (removed >= MIN_RENUMBER && removed * 2 > names.size()) {
+      renumber();
+    }
+  }
+
+  /**
+   * Closes the gaps left by removed usernames, giving the live usernames the
+   * ordinals 0 to n - 1 in their existing order. Each postings list is
+   * rewritten in place, and stays sorted since the order is kept.
+   */
+  private void renumber() {
+    int[] renumbered = new int[names.size()];
+    int live = 0;
+    for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+      String name = names.get(ordinal);
+      if (name != null) {
+        renumbered[ordinal] = live;
+        names.set(live, name);
+        ordinals.put(name, live);
+        live++;
+      }
+    }
+    names.subList(live, names.size()).clear();
+    removed = 0;
+    for (Postings postings : gramPostings) {
+      if (postings != null) {
+        for (int i = 0; i < postings.size; i++) {
+          postings.ordinals[i] = renumbered[postings.ordinals[i]];
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes every username from the index.
+   */
+  void clear() {
+    sorted.clear();
+    names.clear();
+    ordinals.clear();
+    removed = 0;
+    Arrays.fill(gramKeys, EMPTY);
+    Arrays.fill(gramPostings, null);
+    gramCount = 0;
+  }
+
+  /**
+   * Finds the usernames containing the given text.
+   *
+   * <h1>Method Details</h1>
+   * Usernames starting with the text are returned first, in sorted order,
+   * followed by the remaining usernames that contain it elsewhere, in the
+   * order they were indexed. An empty query matches every username.
+   *
+   * @param query The text to search for.
+   * @param limit The largest number of usernames to return.
+   * @return The matching usernames.
+   */
+  ArrayList<String> search(String query, int limit) {
+    ArrayList<String> matches = new ArrayList<>();
+    if (limit <= 0) {
+      return matches;
+    }
+    Iterable<String> prefixed = query.isEmpty()
+        ? sorted
+        : sorted.subSet(query, true, query + Character.MAX_VALUE, false);
+    for (String name : prefixed) {
+      matches.add(name);
+      if (matches.size() == limit) {
+        return matches;
+      }
+    }
+    if (query.isEmpty()) {
+      return matches;
+    }
+    if (query.length() <= GRAM_LENGTH) {
+      Postings postings = postings(gram(query, 0, query.length()));
+      if (postings != null) {
+        for (int i = 0; i < postings.size && matches.size() < limit; i++) {
+          String name = names.get(postings.ordinals[i]);
+          if (!name.startsWith(query)) {
+            matches.add(name);
+          }
+        }
+      }
+      return matches;
+    }
+    Postings[] lists = new Postings[query.length() - GRAM_LENGTH + 1];
+    for (int i = 0; i < lists.length; i++) {
+      lists[i] = postings(gram(query, i, GRAM_LENGTH));
+      if (lists[i] == null) {
+        return matches;
+      }
+    }
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+    int[] cursors = new int[lists.length];
+    Postings rarest = lists[0];
+    candidates:
+    for (int i = 0; i < rarest.size && matches.size() < limit; i++) {
+      int ordinal = rarest.ordinals[i];
+      for (int j = 1; j < lists.length; j++) {
+        cursors[j] = lists[j].seek(cursors[j], ordinal);
+        if (cursors[j] == lists[j].size) {
+          break candidates;
+        }
+        if (lists[j].ordinals[cursors[j]] != ordinal) {
+          continue candidates;
+        }
+      }
+      String name = names.get(ordinal);
+      if (!name.startsWith(query) && name.contains(query)) {
+        matches.add(name);
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Packs the gram of a given length starting at the given offset into a
+   * single key, holding the length above the characters.
+   *
+   * @param text   The text to read from.
+   * @param offset The offset of the gram.
+   * @param length The length of the gram, from 1 to {@link #GRAM_LENGTH}.
+   * @return The gram packed into a long.
+   */
+  private static long gram(String text, int offset, int length) {
+    long key = length;
+    for (int i = 0; i < length; i++) {
+      key = (key << 16) | text.charAt(offset + i);
+    }
+    return key;
+  }
+
+  /**
+   * Gets the postings list of a gram.
+   *
+   * @param gram The packed gram.
+   * @return The list, or {@code null} if no username contains the gram.
+   */
+  private Postings postings(long gram) {
+    int mask = gramKeys.length - 1;
+    for (int slot = mix(gram) & mask;; slot = (slot + 1) & mask) {
+      long key = gramKeys[slot];
+      if (key == gram) {
+        return gramPostings[slot];
+      }
+      if (key == EMPTY) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Gets the postings list of a gram, creating an empty one if needed.
+   *
+   * @param gram The packed gram.
+   * @return The list.
+   */
+  private Postings addPostings(long gram) {
+    int mask = gramKeys.length - 1;
+    int slot = mix(gram) & mask;
+    while (gramKeys[slot] != EMPTY) {
+      if (gramKeys[slot] == gram) {
+        return gramPostings[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    Postings postings = new Postings();
+    gramKeys[slot] = gram;
+    gramPostings[slot] = postings;
+    if (++gramCount > gramKeys.length >> 1) {
+      rehash(gramKeys.length << 1);
+    }
+    return postings;
+  }
+
+  /**
+   * Removes the postings list of a gram.
+   *
+   * @param gram The packed gram.
+   */
+  private void removePostings(long gram) {
+    int mask = gramKeys.length - 1;
+    int slot = mix(gram) & mask;
+    while (gramKeys[slot] != gram) {
+      if (gramKeys[slot] == EMPTY) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    gramCount--;
+    // Shift back any following entries whose probe sequence crosses the gap.
+    int gap = slot;
+    for (int next = (gap + 1) & mask; gramKeys[next] != EMPTY; next = (next + 1) & mask) {
+      int home = mix(gramKeys[next]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        gramKeys[gap] = gramKeys[next];
+        gramPostings[gap] = gramPostings[next];
+        gap = next;
+      }
+    }
+    gramKeys[gap] = EMPTY;
+    gramPostings[gap] = null;
+  }
+
+  /**
+   * Moves every gram into a table of the given capacity.
+   *
+   * @param capacity The new capacity, a power of two.
+   */
+  private void rehash(int capacity) {
+    long[] oldKeys = gramKeys;
+    Postings[] oldPostings = gramPostings;
+    gramKeys = new long[capacity];
+    gramPostings = new Postings[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != EMPTY) {
+        int slot = mix(key) & mask;
+        while (gramKeys[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        gramKeys[slot] = key;
+        gramPostings[slot] = oldPostings[i];
+      }
+    }
+  }
+
+  /**
+   * Spreads packed grams, which differ mostly in their low bits, across the
+   * table.
+   *
+   * @param gram The packed gram.
+   * @return The mixed hash of the gram.
+   */
+  private static int mix(long gram) {
+    long h = gram * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -11,6 +11,11 @@ package Model;
  */
 public class UtilityBill {
 
+  /**
+   * The epoch day of a bill whose date is not a valid {@code yyyy-MM-dd} date.
+   */
+  public static final int UNDATED = Integer.MAX_VALUE;
+
   /**
    * The unique identifier of the bill.
    */
@@ -28,9 +33,11 @@ public class UtilityBill {
    */
   private double meterMeasurement;
   /**
-   * The calculated price.
+   * The calculated price in cents.
+   *
+   * @see Money
    */
-  private double price;
+  private long priceCents;
   /**
    * The service type.
    */
@@ -39,6 +46,10 @@ public class UtilityBill {
    * The date of the bill.
    */
   private String date;
+  /**
+   * The date of the bill as days since 1970-01-01, or {@link #UNDATED}.
+   */
+  private int epochDay;
 
   /**
    * Constructs a UtilityBill object with the provided details.
@@ -77,12 +88,50 @@ public class UtilityBill {
     this.userName = userName;
     this.utilityType = utilityType;
     this.meterMeasurement = meterMeasurement;
-    this.price = price;
+    this.priceCents = Money.centsOf(price);
     this.date = date;
+    this.epochDay = parseEpochDay(date);
+    this.type = PricingEngine.resolve(utilityType);
 
     setprice();
   }
 
+  /**
+   * Constructs a UtilityBill object whose service type and price have already
+   * been worked out, for example by {@link PricingEngine#priceAll}.
+   *
+   * @param id               The unique identifier for the utility bill.
+   * @param userName         The username of the customer associated with the
+   *                         bill.
+   * @param utilityType      The type of utility (e.g., electricity, gas, water).
+   * @param type             The service type resolved from the utility type.
+   * @param meterMeasurement The meter measurement for the utility.
+   * @param priceCents       The price of the bill under the current tariffs,
+   *                         in cents.
+   * @param date             The date of the utility bill.
+   * @param epochDay         The date as days since 1970-01-01, or
+   *                         {@link #UNDATED}.
+   */
+  UtilityBill(
+    int id,
+    String userName,
+    String utilityType,
+    ServiceType type,
+    double meterMeasurement,
+    long priceCents,
+    String date,
+    int epochDay
+  ) {
+    this.id = id;
+    this.userName = userName;
+    this.utilityType = utilityType;
+    this.type = type;
+    this.meterMeasurement = meterMeasurement;
+    this.priceCents = priceCents;
+    this.date = date;
+    this.epochDay = epochDay;
+  }
+
   /**
    * Sets the service type for the utility bill.
    *
@@ -139,6 +188,7 @@ public class UtilityBill {
    */
   public void setDate(String date) {
     this.date = date;
+    this.epochDay = parseEpochDay(date);
   }
 
   /**
@@ -155,6 +205,61 @@ public class UtilityBill {
     return this.date;
   }
 
+  /**
+   * Retrieves the date of the utility bill as an epoch day.
+   *
+   * <h1>Method Details</h1>
+   * The date text is parsed once, when it is set, so bills can be compared and
+   * priced by date without parsing it again.
+   *
+   * @return The number of days since 1970-01-01, or {@link #UNDATED} if the
+   *         date is not a valid {@code yyyy-MM-dd} date.
+   */
+  public int getEpochDay() {
+    return this.epochDay;
+  }
+
+  /**
+   * Parses a {@code yyyy-MM-dd} date to its epoch day without allocating.
+   *
+   * @param date The date text.
+   * @return The number of days since 1970-01-01, or {@link #UNDATED} if the
+   *         text is not a valid {@code yyyy-MM-dd} date.
+   */
+  static int parseEpochDay(String date) {
+    if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+      return UNDATED;
+    }
+    int year = digits(date, 0, 4);
+    int month = digits(date, 5, 2);
+    int day = digits(date, 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1
+        || day > CsvRecordReader.daysInMonth(year, month)) {
+      return UNDATED;
+    }
+    return CsvRecordReader.epochDay(year, month, day);
+  }
+
+  /**
+   * Parses a run of decimal digits of a string.
+   *
+   * @param text   The string.
+   * @param start  The index of the first digit.
+   * @param length The number of digits.
+   * @return The value, or -1 if a character is not a digit.
+   */
+  private static int digits(String text, int start, int length) {
+    int value = 0;
+    for (int i = start; i < start + length; i++) {
+      int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
   /**
    * gets the ID of the utility bill.
    * <h1>Method Details</h1>
@@ -203,41 +308,56 @@ public class UtilityBill {
   /**
    * gets the price.
    * <h1>Method Details</h1>
-   * This method retrieves the price.
+   * This method retrieves the price in dollars, converted from the exact
+   * price in cents. Sums of prices should use {@link #getPriceCents()}.
    *
-   * @return the price.
+   * @return the price in dollars.
    */
   public double getPrice() {
-    return price;
+    return Money.toDollars(priceCents);
+  }
+
+  /**
+   * gets the price in cents.
+   * <h1>Method Details</h1>
+   * This method retrieves the exact price in cents.
+   *
+   * @return the price in cents.
+   * @see Money
+   */
+  public long getPriceCents() {
+    return priceCents;
   }
 
   /**
    * sets the price.
    * <h1>Method Details</h1>
-   * This method sets the price.
+   * This method prices the meter measurement with the {@link PricingEngine}
+   * using the service type resolved when the bill was created and the tariff
+   * in force on the bill's date. A bill whose utility type names no service
+   * type is priced at zero.
    *
-   * @param price the price to be set.
+   * @see PricingEngine
    */
   public void setprice() {
     if (utilityType == null) {
       System.out.println("Service Type is Null");
-      this.price = 0;
+      this.priceCents = 0;
     } else {
-      if (this.utilityType.toLowerCase().equals("gas")) {
-        this.setType(ServiceType.GAS);
-      }
-      if (this.utilityType.toLowerCase().equals("electricity")) {
-        this.setType(ServiceType.ELECTRICITY);
-      }
-      if (this.utilityType.toLowerCase().equals("water")) {
-        this.setType(ServiceType.WATER);
-      }
-      this.price =
-        (this.meterMeasurement * this.type.getUnitCharges()) +
-        this.type.getServiceCharges();
+      this.priceCents = PricingEngine.price(this.type, this.meterMeasurement, this.epochDay);
     }
   }
 
+  /**
+   * Sets a price that has already been computed for this bill, for example by
+   * a {@link RepricingJob}.
+   *
+   * @param priceCents The new price in cents.
+   */
+  void setPriceCents(long priceCents) {
+    this.priceCents = priceCents;
+  }
+
   /**
    * sets the ID.
    * <h1>Method Details</h1>
@@ -1,21 +1,234 @@
 package Model;
 
+import Metrics.BillFileEvent;
+import Metrics.Instrumentation;
+import Metrics.OperationStats;
+import Metrics.SearchEvent;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
 
 /**
  * The WrittenBills class represents a collection of utility bills stored in a
  * file.
+ *
+ * <h1>Persistence</h1>
+ * By default the ledger is log-structured: every add, edit and delete is
+ * appended as one small record to a {@link BillJournal} next to the bills
+ * file, so a mutation costs the same whatever the size of the ledger. Once the
+ * journal grows past {@link #setCompactionThreshold(int) a threshold} of
+ * {@link #COMPACTION_THRESHOLD} records by default it is folded into a
+ * fresh snapshot of {@code bills.txt} on a background thread. Constructing the
+ * ledger with journaling disabled restores the original behaviour of
+ * rewriting the whole file after every change.
+ *
+ * <h1>Storage Format</h1>
+ * A bills file whose name ends in {@code .bin} is read and written in the
+ * column-oriented format of {@link BinaryBillStore}, which is memory-mapped on
+ * load instead of parsed line by line. Any other file uses the
+ * comma-separated text format. The journal is text in both cases. Either way
+ * the constructor builds every bill and index before it returns; the binary
+ * format only saves the cost of parsing text.
+ *
+ * <h1>Lookup</h1>
+ * A {@link BillIdIndex} maps each bill ID to its position in the list, so
+ * finding, editing and deleting a bill take constant time and loading is
+ * linear in the size of the file. Deleting a bill moves the last bill of the
+ * list into the freed position. A {@link UserBillIndex} additionally maps each
+ * username to its bill IDs, so one customer's bills are listed without
+ * scanning the rest of the ledger, and a {@link UsernameSearchIndex} answers
+ * substring searches over the usernames that own bills. A
+ * {@link BillDateIndex} keeps the bills ordered by their epoch-day date, so
+ * the bills of a date range are listed in {@code O(log N + k)}.
+ *
+ * <h1>Totals</h1>
+ * Price totals in cents for the whole ledger and per service type, user and
+ * month are kept up to date by {@link BillTotals} on every change, so reading
+ * them does not walk the bills.
+ *
+ * <h1>Changes</h1>
+ * Every add, edit, delete and repricing is recorded by ID in a
+ * {@link BillChangeLog}. A reader that remembers {@link #getChangeVersion()}
+ * can later ask {@link #getChangesSince(long)} for the bills changed since,
+ * instead of reading the whole ledger again.
+ *
+ * <h1>Instrumentation</h1>
+ * Loading, snapshot writes, mutations and queries are timed and counted
+ * through {@link Instrumentation}, so they can be watched over JMX. Loads,
+ * snapshot writes and username searches are also recorded as
+ * {@link BillFileEvent} and {@link SearchEvent} Flight Recorder events.
+ *
+ * <h1>Sharing</h1>
+ * The application keeps a single ledger, obtained from {@link #getInstance()},
+ * so every part of the program sees the same bills and only one instance
+ * writes {@code bills.txt} and its journal.
+ *
+ * <h1>Thread Safety</h1>
+ * This class is thread-safe. A {@link StampedLock} lets any number of readers
+ * proceed together while writers are serialized; the grand and per-type totals
+ * are read optimistically without taking the lock at all. Lists returned by
+ * this class are copies, so they can be read while the ledger changes.
  */
 public class WrittenBills {
 
+  /**
+   * The default number of journal records after which a compaction is
+   * scheduled.
+   */
+  public static final int COMPACTION_THRESHOLD = 10000;
+
+  /**
+   * The background thread that writes snapshots during compaction.
+   */
+  private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "bills-compactor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * The statistics of each instrumented operation, published as MBeans under
+   * the {@code WrittenBills} type by {@link Instrumentation}. Timing includes
+   * any wait for the lock.
+   */
+  private static final OperationStats LOAD_BILLS =
+      Instrumentation.operation("WrittenBills", "loadBillsFromFile");
+  private static final OperationStats WRITE_SNAPSHOT =
+      Instrumentation.operation("WrittenBills", "writeSnapshot");
+  private static final OperationStats ADD_BILL =
+      Instrumentation.operation("WrittenBills", "addBill");
+  private static final OperationStats EDIT_BILL =
+      Instrumentation.operation("WrittenBills", "editBill");
+  private static final OperationStats DELETE_BILL =
+      Instrumentation.operation("WrittenBills", "deleteBill");
+  private static final OperationStats FIND_BILL =
+      Instrumentation.operation("WrittenBills", "findbill");
+  private static final OperationStats GET_BILLS_FOR_USER =
+      Instrumentation.operation("WrittenBills", "getBillsForUser");
+  private static final OperationStats GET_BILLS_BETWEEN =
+      Instrumentation.operation("WrittenBills", "getBillsBetween");
+  private static final OperationStats SEARCH_USERNAMES =
+      Instrumentation.operation("WrittenBills", "searchUsernames");
+
+  /**
+   * Holds the shared ledger, created on first use.
+   */
+  private static final class SharedInstance {
+    /**
+     * The ledger backed by {@code src/Model/bills.txt}.
+     */
+    static final WrittenBills INSTANCE = new WrittenBills();
+  }
+
+  /**
+   * The bills to write to a snapshot file. Edits and repricings change a
+   * bill's meter measurement and price in place, so those are copied under
+   * the lock, together with the date; the remaining fields of a bill never
+   * change. The compactor can then write the snapshot without the lock and
+   * never sees a bill half way through a change.
+   */
+  private static final class Snapshot {
+    private final UtilityBill[] bills;
+    private final double[] readings;
+    private final long[] prices;
+    private final String[] dates;
+
+    /**
+     * Captures the bills. The caller holds the lock.
+     *
+     * @param source The bills to capture.
+     */
+    Snapshot(List<UtilityBill> source) {
+      bills = source.toArray(new UtilityBill[0]);
+      readings = new double[bills.length];
+      prices = new long[bills.length];
+      dates = new String[bills.length];
+      for (int i = 0; i < bills.length; i++) {
+        readings[i] = bills[i].getMeterMeasurement();
+        prices[i] = bills[i].getPriceCents();
+        dates[i] = bills[i].getDate();
+      }
+    }
+
+    /**
+     * Gets the number of bills captured.
+     *
+     * @return The number of bills.
+     */
+    int size() {
+      return bills.length;
+    }
+
+    /**
+     * Formats one captured bill as a line of the bills file.
+     *
+     * @param i The position of the bill.
+     * @return The bill's fields separated by commas.
+     */
+    String format(int i) {
+      UtilityBill bill = bills[i];
+      return formatBill(bill.getId(), bill.getUserName(), bill.getUtilityType(), readings[i], prices[i], dates[i]);
+    }
+
+    /**
+     * Copies the captured bills into binary store columns.
+     *
+     * @return The columns.
+     */
+    BinaryBillStore.Columns toColumns() {
+      BinaryBillStore.Columns columns = new BinaryBillStore.Columns(bills.length);
+      for (int i = 0; i < bills.length; i++) {
+        UtilityBill bill = bills[i];
+        columns.add(bill.getId(), bill.getUserName(), bill.getUtilityType(), readings[i], prices[i], dates[i]);
+      }
+      return columns;
+    }
+  }
+
+  /**
+   * Guards every field below; readers share it and writers hold it alone.
+   */
+  private final StampedLock lock = new StampedLock();
   /**
    * The list of utility bills.
    */
   private ArrayList<UtilityBill> bills;
+  /**
+   * The index from bill ID to position in {@link #bills}.
+   */
+  private BillIdIndex billIndex;
+  /**
+   * The index from username to the IDs of that customer's bills.
+   */
+  private UserBillIndex userIndex;
+  /**
+   * The substring search index over the usernames in {@link #userIndex}.
+   */
+  private UsernameSearchIndex searchIndex;
+  /**
+   * The bills ordered by date.
+   */
+  private BillDateIndex dateIndex;
+  /**
+   * The running price totals of {@link #bills}.
+   */
+  private BillTotals totals;
+  /**
+   * The IDs of the recently changed bills.
+   */
+  private final BillChangeLog changes = new BillChangeLog();
   /**
    * The path of the file containing the utility bills.
    */
@@ -24,71 +237,551 @@ public class WrittenBills {
    * The ID of the utility bill.
    */
   private int id;
+  /**
+   * The journal receiving mutations, or {@code null} when every change
+   * rewrites the whole file.
+   */
+  private BillJournal journal;
+  /**
+   * The number of journal records after which a compaction is scheduled.
+   */
+  private int compactionThreshold = COMPACTION_THRESHOLD;
+  /**
+   * Whether a compaction has been scheduled and has not yet finished.
+   */
+  private boolean compacting;
+  /**
+   * Completes when the compaction requested while one was running has
+   * finished, or {@code null} if none was requested.
+   */
+  private CompletableFuture<Void> followingCompaction;
 
   /**
    * Constructs a WrittenBills instance, initializing the list of bills and
    * loading existing bills from a file.
    */
   public WrittenBills() {
+    this("src/Model/bills.txt", true);
+  }
+
+  /**
+   * Constructs a WrittenBills instance backed by the given file.
+   *
+   * @param billsFilePath The path of the file containing the utility bills.
+   * @param journaled     Whether mutations are appended to a journal instead of
+   *                      rewriting the whole file.
+   */
+  public WrittenBills(String billsFilePath, boolean journaled) {
     this.bills = new ArrayList<>();
-    this.billsFilePath = "src/Model/bills.txt";
+    this.billIndex = new BillIdIndex();
+    this.userIndex = new UserBillIndex();
+    this.searchIndex = new UsernameSearchIndex();
+    this.dateIndex = new BillDateIndex();
+    this.totals = new BillTotals();
+    this.billsFilePath = billsFilePath;
+    this.journal = journaled ? new BillJournal(billsFilePath) : null;
 
     this.id = 1;
     this.loadBillsFromFile();
   }
 
+  /**
+   * Gets the ledger shared by the whole application.
+   *
+   * @return The shared WrittenBills instance backed by
+   *         {@code src/Model/bills.txt}.
+   */
+  public static WrittenBills getInstance() {
+    return SharedInstance.INSTANCE;
+  }
+
   /**
    * Gets the list of utility bills.
    *
-   * @return ArrayList of UtilityBill representing the bills.
+   * @return ArrayList of UtilityBill holding a copy of the bills.
    */
   public ArrayList<UtilityBill> getBills() {
-    return bills;
+    long stamp = lock.readLock();
+    try {
+      return new ArrayList<>(bills);
+    } finally {
+      lock.unlockRead(stamp);
+    }
   }
 
   /**
-   * Loads utility bills from a file.
+   * Gets one page of the list of utility bills.
+   *
+   * <p>Pages are read under the lock one at a time, so a caller paging
+   * through a large ledger never holds it for long. Bills added or deleted
+   * between two pages may shift later bills across the page boundary.</p>
+   *
+   * @param offset The index of the first bill of the page.
+   * @param limit  The largest number of bills in the page.
+   * @return ArrayList of UtilityBill holding a copy of the page, empty past
+   *         the end of the list.
+   */
+  public ArrayList<UtilityBill> getBills(int offset, int limit) {
+    long stamp = lock.readLock();
+    try {
+      int from = Math.min(Math.max(offset, 0), bills.size());
+      int to = (int) Math.min((long) from + Math.max(limit, 0), bills.size());
+      return new ArrayList<>(bills.subList(from, to));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Gets the number of utility bills.
+   *
+   * @return The number of bills.
+   */
+  public int size() {
+    long stamp = lock.tryOptimisticRead();
+    int size = bills.size();
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        size = bills.size();
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Gets the version of the ledger, which advances with every change to a
+   * bill.
+   *
+   * @return The version to pass to {@link #getChangesSince(long)} later.
+   */
+  public long getChangeVersion() {
+    long stamp = lock.readLock();
+    try {
+      return changes.version();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Gets the bills changed since a version.
+   *
+   * @param version A version returned earlier by {@link #getChangeVersion()}
+   *                or {@link BillChanges#getVersion()}.
+   * @return The changes, or {@code null} if more bills changed than the ledger
+   *         remembers, or the ledger was read again from its file, since that
+   *         version; the whole ledger must then be read again.
+   */
+  public BillChanges getChangesSince(long version) {
+    long stamp = lock.readLock();
+    try {
+      int[] changed = changes.changedSince(version);
+      if (changed == null) {
+        return null;
+      }
+      ArrayList<UtilityBill> updated = new ArrayList<>();
+      int[] removed = new int[changed.length];
+      int removedCount = 0;
+      for (int billId : changed) {
+        UtilityBill bill = lookupBill(billId);
+        if (bill != null) {
+          updated.add(bill);
+        } else {
+          removed[removedCount++] = billId;
+        }
+      }
+      return new BillChanges(changes.version(), updated, Arrays.copyOf(removed, removedCount));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Gets the utility bills of one customer.
+   *
+   * @param username The username of the customer.
+   * @return ArrayList of UtilityBill holding the customer's bills in the order
+   *         they were added.
+   */
+  public ArrayList<UtilityBill> getBillsForUser(String username) {
+    return getBillsForUser(username, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Gets one page of the utility bills of one customer.
+   *
+   * @param username The username of the customer.
+   * @param offset   The index of the first of the customer's bills in the
+   *                 page.
+   * @param limit    The largest number of bills in the page.
+   * @return ArrayList of UtilityBill holding the page of the customer's bills
+   *         in the order they were added, empty past the last of them.
+   */
+  public ArrayList<UtilityBill> getBillsForUser(String username, int offset, int limit) {
+    long start = GET_BILLS_FOR_USER.start();
+    long stamp = lock.readLock();
+    try {
+      UserBillIndex.BillIds ids = userIndex.get(username);
+      if (ids == null) {
+        return new ArrayList<>();
+      }
+      int from = Math.min(Math.max(offset, 0), ids.size());
+      int to = (int) Math.min((long) from + Math.max(limit, 0), ids.size());
+      ArrayList<UtilityBill> userBills = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        userBills.add(bills.get(billIndex.get(ids.get(i))));
+      }
+      return userBills;
+    } finally {
+      lock.unlockRead(stamp);
+      GET_BILLS_FOR_USER.stop(start);
+    }
+  }
+
+  /**
+   * Gets the utility bills dated inside a range of days.
+   *
+   * @param fromDay The first epoch day of the range, inclusive.
+   * @param toDay   The last epoch day of the range, inclusive; use
+   *                {@link Integer#MAX_VALUE} to include undated bills.
+   * @return ArrayList of UtilityBill ordered by date, then by ID.
+   */
+  public ArrayList<UtilityBill> getBillsBetween(int fromDay, int toDay) {
+    long started = GET_BILLS_BETWEEN.start();
+    long stamp = lock.readLock();
+    try {
+      return billsBetween(fromDay, toDay);
+    } finally {
+      lock.unlockRead(stamp);
+      GET_BILLS_BETWEEN.stop(started);
+    }
+  }
+
+  /**
+   * Collects the bills dated inside a range of days from the date index. The
+   * caller holds the lock.
+   *
+   * @param fromDay The first epoch day of the range, inclusive.
+   * @param toDay   The last epoch day of the range, inclusive.
+   * @return ArrayList of UtilityBill ordered by date, then by ID.
+   */
+  private ArrayList<UtilityBill> billsBetween(int fromDay, int toDay) {
+    ArrayList<UtilityBill> dated = new ArrayList<>();
+    dateIndex.forEachBetween(fromDay, toDay, billId -> dated.add(bills.get(billIndex.get(billId))));
+    return dated;
+  }
+
+  /**
+   * Gets the usernames of every customer that has at least one bill.
+   *
+   * @return ArrayList of the distinct usernames.
+   */
+  public ArrayList<String> getUsernames() {
+    long stamp = lock.readLock();
+    try {
+      return new ArrayList<>(userIndex.usernames());
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Finds the usernames that own bills and contain the given text.
+   *
+   * @param query The text to search for.
+   * @return ArrayList of matching usernames, those starting with the text
+   *         first.
+   */
+  public ArrayList<String> searchUsernames(String query) {
+    return searchUsernames(query, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Finds at most a given number of the usernames that own bills and contain
+   * the given text. The search stops once that many have been found.
+   *
+   * @param query The text to search for.
+   * @param limit The largest number of usernames to return.
+   * @return ArrayList of matching usernames, those starting with the text
+   *         first.
+   */
+  public ArrayList<String> searchUsernames(String query, int limit) {
+    long start = SEARCH_USERNAMES.start();
+    SearchEvent event = SearchEvent.start(SearchEvent.USERNAMES, query);
+    ArrayList<String> matches = null;
+    long stamp = lock.readLock();
+    try {
+      matches = searchIndex.search(query, limit);
+      return matches;
+    } finally {
+      lock.unlockRead(stamp);
+      event.finish(matches == null ? 0 : matches.size());
+      SEARCH_USERNAMES.stop(start);
+    }
+  }
+
+  /**
+   * Gets the total price of every bill.
+   *
+   * @return The grand total in cents.
+   */
+  public long getTotalPriceCents() {
+    long stamp = lock.tryOptimisticRead();
+    long total = totals.getTotal();
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        total = totals.getTotal();
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Gets the total price of the bills of one service type.
+   *
+   * @param type The service type.
+   * @return The total for the service type in cents.
+   */
+  public long getTotalPriceCents(ServiceType type) {
+    long stamp = lock.tryOptimisticRead();
+    long total = totals.getTotal(type);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        total = totals.getTotal(type);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Gets the total price of one customer's bills.
+   *
+   * @param username The username of the customer.
+   * @return The total for the customer in cents.
+   */
+  public long getTotalPriceCentsForUser(String username) {
+    long stamp = lock.readLock();
+    try {
+      return totals.getUserTotal(username);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Gets the total price of the bills dated in one month.
+   *
+   * @param month The month as {@code yyyy-MM}.
+   * @return The total for the month in cents, or {@code 0} if the text is not
+   *         a month.
+   */
+  public long getTotalPriceCentsForMonth(String month) {
+    int epochDay = UtilityBill.parseEpochDay(month + "-01");
+    long stamp = lock.readLock();
+    try {
+      return totals.getMonthTotal(epochDay);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Loads utility bills from a file, then replays any journaled changes made
+   * since the file was last written.
    */
   public void loadBillsFromFile() {
+    long start = LOAD_BILLS.start();
+    BillFileEvent event = BillFileEvent.start(BillFileEvent.LOAD, billsFilePath);
+    int loaded = 0;
+    long stamp = lock.writeLock();
     try {
-      File file = new File(billsFilePath);
-      Scanner scanner = new Scanner(file);
-      bills = new ArrayList<>();
-
-      while (scanner.hasNextLine()) {
-        String line = scanner.nextLine();
-        String[] parts = line.split(",");
-        int id = Integer.parseInt(parts[0].trim());
-        String name = parts[1].trim();
-        String UtilityType = parts[2].trim();
-        double metermeasurment = Double.parseDouble(parts[3].trim());
-        double price = Double.parseDouble(parts[4].trim());
-        String Date = parts[5].trim();
-        if (findiD(id) == false) {
-          bills.add(
-              new UtilityBill(id, name, UtilityType, metermeasurment, price, Date));
-          increaseID();
+      reload();
+      loaded = bills.size();
+    } finally {
+      lock.unlockWrite(stamp);
+      event.finish(loaded, true);
+      LOAD_BILLS.stop(start);
+    }
+  }
+
+  /**
+   * Rebuilds the in-memory bills from the file and the journal. The caller
+   * holds the write lock.
+   */
+  private void reload() {
+    bills = new ArrayList<>();
+    billIndex.clear();
+    userIndex.clear();
+    searchIndex.clear();
+    dateIndex.clear();
+    totals.clear();
+    if (isBinary()) {
+      loadBinarySnapshot();
+    } else {
+      loadTextSnapshot();
+    }
+    dateIndex.sort();
+    if (journal != null) {
+      journal.replay(this);
+      if (journal.hasPendingCompaction()) {
+        startCompaction();
+      }
+    }
+    for (UtilityBill bill : bills) {
+      if (bill.getId() >= id) {
+        id = bill.getId() + 1;
+      }
+    }
+    changes.reset();
+  }
+
+  /**
+   * Checks whether the bills file uses the binary format.
+   *
+   * @return {@code true} if the file name ends in {@code .bin}.
+   */
+  private boolean isBinary() {
+    return billsFilePath.endsWith(".bin");
+  }
+
+  /**
+   * Loads the bills of a comma-separated text snapshot.
+   *
+   * @see CsvRecordReader
+   */
+  private void loadTextSnapshot() {
+    try {
+      CsvRecordReader.read(billsFilePath, record -> {
+        UtilityBill bill = parseBill(record, 0);
+        if (!billIndex.contains(bill.getId())) {
+          insertBill(bill);
+        }
+      });
+    } catch (Exception e) {
+      System.out.println("Error loading bills from file");
+    }
+  }
+
+  /**
+   * Loads the bills of a binary snapshot through a memory mapping.
+   *
+   * @see BinaryBillStore
+   */
+  private void loadBinarySnapshot() {
+    if (!new File(billsFilePath).exists()) {
+      return;
+    }
+    try {
+      BinaryBillStore store = BinaryBillStore.open(billsFilePath);
+      bills.ensureCapacity(store.size());
+      for (UtilityBill bill : store.toBills()) {
+        if (!billIndex.contains(bill.getId())) {
+          insertBill(bill);
         }
       }
-      this.id = bills.get(bills.size() - 1).getId() + 1;
-      scanner.close();
     } catch (Exception e) {
       System.out.println("Error loading bills from file");
     }
   }
 
+  /**
+   * The number of fields of one stored bill.
+   */
+  static final int BILL_FIELDS = 6;
+
+  /**
+   * Parses one stored bill from a streamed record. Usernames, utility types
+   * and dates share one string instance per distinct value.
+   *
+   * @param record The record, holding from the given field onwards the fields
+   *               id, username, utility type, meter measurement, price, date.
+   * @param first  The index of the id field.
+   * @return The parsed UtilityBill.
+   * @throws NumberFormatException     If a number is malformed.
+   * @throws IllegalArgumentException If the record has too few fields.
+   */
+  static UtilityBill parseBill(CsvRecordReader record, int first) {
+    if (record.getFieldCount() < first + BILL_FIELDS) {
+      throw new IllegalArgumentException("Too few fields on line " + record.getLineNumber());
+    }
+    return new UtilityBill(
+        record.getInt(first),
+        record.getSharedString(first + 1),
+        record.getSharedString(first + 2),
+        record.getDouble(first + 3),
+        record.getDouble(first + 4),
+        record.getSharedString(first + 5));
+  }
+
+  /**
+   * Formats a bill as one comma-separated line of the bills file.
+   *
+   * @param bill The bill to format.
+   * @return The bill's fields separated by commas.
+   */
+  static String formatBill(UtilityBill bill) {
+    return formatBill(
+        bill.getId(),
+        bill.getUserName(),
+        bill.getUtilityType(),
+        bill.getMeterMeasurement(),
+        bill.getPriceCents(),
+        bill.getDate());
+  }
+
+  /**
+   * Formats the fields of a bill as one comma-separated line of the bills
+   * file.
+   *
+   * @param id               The bill ID.
+   * @param username         The username of the customer.
+   * @param utilityType      The type of utility.
+   * @param meterMeasurement The meter measurement.
+   * @param priceCents       The price in cents.
+   * @param date             The date text.
+   * @return The fields separated by commas.
+   */
+  private static String formatBill(
+      int id,
+      String username,
+      String utilityType,
+      double meterMeasurement,
+      long priceCents,
+      String date) {
+    return id +
+        "," +
+        username +
+        "," +
+        utilityType +
+        "," +
+        meterMeasurement +
+        "," +
+        Money.format(priceCents) +
+        "," +
+        date;
+  }
+
   /**
    * Finds a utility bill by its ID.
    * 
    * @param id The ID of the bill to be found.
    */
   public boolean findiD(int id) {
-    for (UtilityBill bill : bills) {
-      if (bill.getId() == id) {
-        return true;
-      }
+    long stamp = lock.readLock();
+    try {
+      return billIndex.contains(id);
+    } finally {
+      lock.unlockRead(stamp);
     }
-    return false;
   }
 
   /**
@@ -104,16 +797,28 @@ public class WrittenBills {
       String utilityType,
       double meterMeasurement,
       String date) {
-    bills.add(
-        new UtilityBill(id, username, utilityType, meterMeasurement, 0.0, date));
-    increaseID();
-    saveBillsToFile();
+    long start = ADD_BILL.start();
+    long stamp = lock.writeLock();
+    try {
+      UtilityBill bill = new UtilityBill(id, username, utilityType, meterMeasurement, 0.0, date);
+      insertBill(bill);
+      increaseID();
+      if (journal != null) {
+        journal.appendAdd(bill);
+        compactIfNeeded();
+      } else {
+        saveBillsToFile();
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+      ADD_BILL.stop(start);
+    }
   }
 
   /**
-   * Increases the ID of the utility bill.
+   * Increases the ID of the utility bill. The caller holds the write lock.
    */
-  public void increaseID() {
+  private void increaseID() {
     this.id = this.id + 1;
   }
 
@@ -123,10 +828,22 @@ public class WrittenBills {
    * @param billId The ID of the bill to be deleted.
    */
   public void deleteBill(int billId) {
-    UtilityBill bill = findbill(billId);
-    if (bill != null) {
-      bills.remove(bill);
-      saveBillsToFile();
+    long start = DELETE_BILL.start();
+    long stamp = lock.writeLock();
+    try {
+      int position = billIndex.get(billId);
+      if (position >= 0) {
+        removeBillAt(position);
+        if (journal != null) {
+          journal.appendDelete(billId);
+          compactIfNeeded();
+        } else {
+          saveBillsToFile();
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+      DELETE_BILL.stop(start);
     }
   }
 
@@ -137,11 +854,223 @@ public class WrittenBills {
    * @param newMeterMeasurement The new meter measurement.
    */
   public void editBill(int billId, Double newMeterMeasurement) {
-    UtilityBill bill = findbill(billId);
+    long start = EDIT_BILL.start();
+    long stamp = lock.writeLock();
+    try {
+      UtilityBill bill = lookupBill(billId);
+      if (bill != null) {
+        updateReading(bill, newMeterMeasurement);
+        if (journal != null) {
+          journal.appendEdit(bill);
+          compactIfNeeded();
+        } else {
+          saveBillsToFile();
+        }
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+      EDIT_BILL.stop(start);
+    }
+  }
+
+  /**
+   * Runs a function over the bills dated inside a range of days while holding
+   * the read lock.
+   *
+   * @param fromDay The first epoch day of the range, inclusive.
+   * @param toDay   The last epoch day of the range, inclusive; use
+   *                {@link Integer#MAX_VALUE} to include undated bills.
+   * @param reader  The function, given the bills ordered by date.
+   * @param <T>     The type of the result.
+   * @return The result of the function.
+   */
+  <T> T readBetween(int fromDay, int toDay, Function<List<UtilityBill>, T> reader) {
+    long stamp = lock.readLock();
+    try {
+      return reader.apply(billsBetween(fromDay, toDay));
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Applies prices computed by a {@link RepricingJob} and persists the ledger
+   * with one write.
+   *
+   * <h1>Method Details</h1>
+   * A price is applied only if its bill is still in the ledger and still has
+   * the meter measurement it was priced with. The totals are kept in step.
+   * When any price changed, the journaled ledger is compacted into a fresh
+   * snapshot, or the whole file is rewritten once when journaling is
+   * disabled.
+   *
+   * @param repriced The bills that were priced.
+   * @param readings The meter measurement each bill was priced with.
+   * @param prices   The new price of each bill in cents, or
+   *                 {@link Long#MIN_VALUE} to leave it.
+   * @return A future completing with the number of bills whose price changed
+   *         once the new prices have been written to the bills file.
+   */
+  CompletableFuture<Integer> applyPrices(UtilityBill[] repriced, double[] readings, long[] prices) {
+    long stamp = lock.writeLock();
+    try {
+      int changed = 0;
+      for (int i = 0; i < repriced.length; i++) {
+        UtilityBill bill = repriced[i];
+        if (prices[i] == Long.MIN_VALUE
+            || bill.getPriceCents() == prices[i]
+            || lookupBill(bill.getId()) != bill
+            || bill.getMeterMeasurement() != readings[i]) {
+          continue;
+        }
+        totals.remove(bill);
+        bill.setPriceCents(prices[i]);
+        totals.add(bill);
+        changes.record(bill.getId());
+        changed++;
+      }
+      if (changed == 0) {
+        return CompletableFuture.completedFuture(0);
+      }
+      if (journal == null) {
+        saveBillsToFile();
+        return CompletableFuture.completedFuture(changed);
+      }
+      int repricedCount = changed;
+      return startCompaction().thenApply(compacted -> repricedCount);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Applies a journaled add, replacing any bill that already has the same ID.
+   * The caller holds the write lock.
+   *
+   * @param bill The bill read from the journal.
+   */
+  void applyAdd(UtilityBill bill) {
+    int position = billIndex.get(bill.getId());
+    if (position >= 0) {
+      UtilityBill existing = bills.get(position);
+      if (!existing.getUserName().equals(bill.getUserName())) {
+        unindexUser(existing);
+        indexUser(bill);
+      }
+      if (existing.getEpochDay() != bill.getEpochDay()) {
+        dateIndex.remove(existing.getEpochDay(), existing.getId());
+        dateIndex.add(bill.getEpochDay(), bill.getId());
+      }
+      totals.remove(existing);
+      totals.add(bill);
+      bills.set(position, bill);
+      changes.record(bill.getId());
+    } else {
+      insertBill(bill);
+    }
+  }
+
+  /**
+   * Applies a journaled edit to the in-memory bills. The caller holds the
+   * write lock.
+   *
+   * @param billId              The ID of the edited bill.
+   * @param newMeterMeasurement The new meter measurement.
+   */
+  void applyEdit(int billId, double newMeterMeasurement) {
+    UtilityBill bill = lookupBill(billId);
     if (bill != null) {
-      bill.setMeterMeasurement(newMeterMeasurement);
-      bill.setprice();
-      saveBillsToFile();
+      updateReading(bill, newMeterMeasurement);
+    }
+  }
+
+  /**
+   * Sets a bill's meter measurement and reprices it, keeping the totals in
+   * step.
+   *
+   * @param bill                The bill to update.
+   * @param newMeterMeasurement The new meter measurement.
+   */
+  private void updateReading(UtilityBill bill, double newMeterMeasurement) {
+    totals.remove(bill);
+    bill.setMeterMeasurement(newMeterMeasurement);
+    bill.setprice();
+    totals.add(bill);
+    changes.record(bill.getId());
+  }
+
+  /**
+   * Applies a journaled delete to the in-memory bills. The caller holds the
+   * write lock.
+   *
+   * @param billId The ID of the deleted bill.
+   */
+  void applyDelete(int billId) {
+    int position = billIndex.get(billId);
+    if (position >= 0) {
+      removeBillAt(position);
+    }
+  }
+
+  /**
+   * Appends a bill to the list and indexes it.
+   *
+   * @param bill The bill to add.
+   */
+  private void insertBill(UtilityBill bill) {
+    billIndex.put(bill.getId(), bills.size());
+    bills.add(bill);
+    indexUser(bill);
+    dateIndex.add(bill.getEpochDay(), bill.getId());
+    totals.add(bill);
+    changes.record(bill.getId());
+  }
+
+  /**
+   * Removes the bill at the given position by moving the last bill into its
+   * place, keeping the index in step. The moved bill is recorded as changed
+   * too, since a reader paging through the list may have missed it.
+   *
+   * @param position The position of the bill to remove.
+   */
+  private void removeBillAt(int position) {
+    UtilityBill removed = bills.get(position);
+    int last = bills.size() - 1;
+    if (position != last) {
+      UtilityBill moved = bills.get(last);
+      bills.set(position, moved);
+      billIndex.put(moved.getId(), position);
+      changes.record(moved.getId());
+    }
+    bills.remove(last);
+    billIndex.remove(removed.getId());
+    unindexUser(removed);
+    dateIndex.remove(removed.getEpochDay(), removed.getId());
+    totals.remove(removed);
+    changes.record(removed.getId());
+  }
+
+  /**
+   * Records a bill under its username, adding the username to the search
+   * index when it is the user's first bill.
+   *
+   * @param bill The bill to record.
+   */
+  private void indexUser(UtilityBill bill) {
+    if (userIndex.add(bill.getUserName(), bill.getId())) {
+      searchIndex.add(bill.getUserName());
+    }
+  }
+
+  /**
+   * Forgets a bill under its username, removing the username from the search
+   * index when it was the user's last bill.
+   *
+   * @param bill The bill to forget.
+   */
+  private void unindexUser(UtilityBill bill) {
+    if (userIndex.remove(bill.getUserName(), bill.getId())) {
+      searchIndex.remove(bill.getUserName());
     }
   }
 
@@ -151,40 +1080,180 @@ public class WrittenBills {
    * @param billId The ID of the bill to be found.
    */
   public UtilityBill findbill(int billId) {
-    for (UtilityBill bill : bills) {
-      if (bill.getId() == billId) {
-        return bill;
+    long start = FIND_BILL.start();
+    long stamp = lock.readLock();
+    try {
+      return lookupBill(billId);
+    } finally {
+      lock.unlockRead(stamp);
+      FIND_BILL.stop(start);
+    }
+  }
+
+  /**
+   * Finds a utility bill by its ID without locking. The caller holds the lock.
+   *
+   * @param billId The ID of the bill to be found.
+   * @return The bill, or {@code null} if there is none with that ID.
+   */
+  private UtilityBill lookupBill(int billId) {
+    int position = billIndex.get(billId);
+    return position >= 0 ? bills.get(position) : null;
+  }
+
+  /**
+   * Schedules a compaction once the journal has grown past the threshold.
+   */
+  private void compactIfNeeded() {
+    if (journal.getRecordCount() >= compactionThreshold) {
+      startCompaction();
+    }
+  }
+
+  /**
+   * Sets the number of journal records after which a compaction is scheduled
+   * by a mutation.
+   *
+   * @param threshold The number of records, at least 1; pass
+   *                  {@link Integer#MAX_VALUE} to compact only when
+   *                  {@link #scheduleCompaction()} is called, for example
+   *                  to keep compactions out of a measurement.
+   * @throws IllegalArgumentException If the threshold is less than 1.
+   */
+  public void setCompactionThreshold(int threshold) {
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Compaction threshold out of range: " + threshold);
+    }
+    long stamp = lock.writeLock();
+    try {
+      compactionThreshold = threshold;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Folds the journal into a fresh snapshot of the bills file on the
+   * background compactor thread.
+   *
+   * <h1>Method Details</h1>
+   * The journal is rotated and the current bills are captured while holding
+   * the lock; the snapshot itself is written without it, so adds, edits and
+   * deletes keep appending to the new journal in the meantime. Does nothing
+   * when journaling is disabled; if a compaction is already running, another
+   * one follows it.
+   *
+   * @return A future completing once every change made before the call is in
+   *         the snapshot, or at once when journaling is disabled.
+   */
+  public CompletableFuture<Void> scheduleCompaction() {
+    long stamp = lock.writeLock();
+    try {
+      return startCompaction();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Rotates the journal and hands a snapshot of the bills to the compactor.
+   * If a compaction is already running, another one starts when it finishes.
+   * The caller holds the write lock.
+   *
+   *
+   * @return A future completing once the snapshot holding the current bills
+   *         has been written or has failed.
+   */
+  private CompletableFuture<Void> startCompaction() {
+    if (journal == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    if (compacting) {
+      if (followingCompaction == null) {
+        followingCompaction = new CompletableFuture<>();
       }
+      return followingCompaction;
     }
-    return null;
+    compacting = true;
+    journal.rotate();
+    Snapshot snapshot = new Snapshot(bills);
+    CompletableFuture<Void> compacted = new CompletableFuture<>();
+    COMPACTOR.execute(() -> {
+      try {
+        if (writeSnapshot(snapshot)) {
+          journal.completeCompaction();
+        }
+      } finally {
+        long stamp = lock.writeLock();
+        try {
+          compacting = false;
+          CompletableFuture<Void> following = followingCompaction;
+          if (following != null) {
+            followingCompaction = null;
+            startCompaction().whenComplete((done, error) -> following.complete(null));
+          }
+        } finally {
+          lock.unlockWrite(stamp);
+          compacted.complete(null);
+        }
+      }
+    });
+    return compacted;
   }
 
   /**
    * Saves the utility bills to a file.
    */
   private void saveBillsToFile() {
+    writeSnapshot(new Snapshot(bills));
+  }
+
+  /**
+   * Writes the given bills to a temporary file and atomically moves it over
+   * the bills file.
+   *
+   * @param snapshot The bills to write.
+   * @return {@code true} if the snapshot was written.
+   */
+  private boolean writeSnapshot(Snapshot snapshot) {
+    long start = WRITE_SNAPSHOT.start();
+    BillFileEvent event = BillFileEvent.start(BillFileEvent.SAVE, billsFilePath);
+    boolean written = false;
     try {
       File file = new File(billsFilePath);
-      PrintWriter writer = new PrintWriter(file);
-
-      for (UtilityBill bill : bills) {
-        writer.println(
-            bill.getId() +
-                "," +
-                bill.getUserName() +
-                "," +
-                bill.getUtilityType() +
-                "," +
-                bill.getMeterMeasurement() +
-                "," +
-                bill.getPrice() +
-                "," +
-                bill.getDate());
-      }
-
-      writer.close();
-    } catch (IOException e) {
-      System.out.println("Error writing to customers file: " + e.getMessage());
+      File tempFile = new File(billsFilePath + ".tmp");
+      try {
+        if (isBinary()) {
+          snapshot.toColumns().writeTo(tempFile.getPath());
+        } else {
+          try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8))) {
+            for (int i = 0; i < snapshot.size(); i++) {
+              writer.write(snapshot.format(i));
+              writer.newLine();
+            }
+          }
+        }
+      } catch (IOException e) {
+        WRITE_SNAPSHOT.recordError();
+        System.out.println("Error writing to bills file: " + e.getMessage());
+        return false;
+      }
+      try {
+        Files.move(
+            tempFile.toPath(),
+            file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        written = true;
+        return true;
+      } catch (IOException e) {
+        WRITE_SNAPSHOT.recordError();
+        System.out.println("Error writing to bills file: " + e.getMessage());
+        return false;
+      }
+    } finally {
+      event.finish(written ? snapshot.size() : 0, written);
+      WRITE_SNAPSHOT.stop(start);
     }
   }
 }
@@ -7,7 +7,14 @@
  * <p>This package includes the following classes:</p>
  * <ul>
  *   <li>{@link Model.Customer}</li>
+ *   <li>{@link Model.BillChanges}</li>
+ *   <li>{@link Model.BinaryBillStore}</li>
+ *   <li>{@link Model.CsvRecordReader}</li>
+ *   <li>{@link Model.Money}</li>
+ *   <li>{@link Model.PricingEngine}</li>
+ *   <li>{@link Model.RepricingJob}</li>
  *   <li>{@link Model.ServiceType}</li>
+ *   <li>{@link Model.TariffSnapshot}</li>
  *   <li>{@link Model.UtilityBill}</li>
  *   <li>{@link Model.WrittenBills}</li>
  * </ul>
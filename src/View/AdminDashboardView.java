@@ -1,7 +1,10 @@
 package View;
 
+import Controller.AsyncController;
 import Controller.ServiceController;
 import Controller.StaffController;
+import Model.BillChanges;
+import Model.Money;
 import Model.ServiceType;
 import Model.UtilityBill;
 import java.awt.*;
@@ -19,10 +22,28 @@ import javax.swing.event.DocumentListener;
  * multiple sections for displaying admin information, service-related controls, total bills, and a search interface for accessing specific
  * utility bills.</p>
  *
+ * <p>The bills, the total and every search are fetched on a background thread through {@link AsyncController}, so the
+ * dashboard appears at once and typing in the search bar never waits for the ledger. All bills are streamed into the
+ * table in chunks: the first page shows as soon as it is read and the rest fill in while the dashboard stays usable. A progress bar beside the search
+ * button shows while a request is in flight, and only the results of the latest request are shown.</p>
+ *
+ * <p>The dashboard is a {@link CachedView}: it is built once per admin session and fills itself in when first shown.
+ * Each time it is shown again only the bills changed since are fetched and their rows updated, added or removed, and
+ * the total and the charges are read again, so coming back from another screen does not reload the table.</p>
+ *
  * @see JPanel
  * @see App
  */
-public class AdminDashboardView extends JPanel {
+public class AdminDashboardView extends JPanel implements CachedView {
+
+  /**
+   * The services listed in the services panel.
+   */
+  private static final ServiceType[] SERVICES = {
+    ServiceType.ELECTRICITY,
+    ServiceType.WATER,
+    ServiceType.GAS,
+  };
 
   /**
    * A panel displaying admin information, including the admin's name and email.
@@ -53,18 +74,63 @@ public class AdminDashboardView extends JPanel {
   private JPanel searchBar;
 
   /**
-   * A panel displaying search results.
+   * The label above the search results, noting when there are none.
    *
-   * @see JPanel
+   * @see JLabel
    */
-  private JPanel searchResultsContainer;
+  private JLabel resultsTitleLabel;
 
   /**
-   * A panel displaying search results.
+   * The table model backing the search results.
    *
-   * @see JPanel
+   * @see BillTableModel
+   */
+  private BillTableModel billTableModel;
+
+  /**
+   * The table displaying search results. Only the rows inside its viewport are rendered.
+   *
+   * @see JTable
+   */
+  private JTable billTable;
+
+  /**
+   * The label showing the total utility bill cost.
+   *
+   * @see JLabel
+   */
+  private JLabel totalLabel;
+
+  /**
+   * The labels showing the service charge of each service, in the order of {@link #SERVICES}.
+   *
+   * @see JLabel
+   */
+  private JLabel[] serviceChargeLabels;
+
+  /**
+   * The labels showing the unit charge of each service, in the order of {@link #SERVICES}.
+   *
+   * @see JLabel
+   */
+  private JLabel[] unitChargeLabels;
+
+  /**
+   * Tracks the background requests for the results table and the total.
+   *
+   * @see RequestTracker
+   */
+  private RequestTracker requests;
+
+  /**
+   * The text of the search shown in the results table, or {@code null} when every bill is shown.
    */
-  private JPanel searchResults;
+  private String searchText;
+
+  /**
+   * The ledger version the results table is up to date with, or {@code -1} before every bill has been loaded.
+   */
+  private long shownVersion = -1;
 
   /**
    * The parent application.
@@ -78,7 +144,10 @@ public class AdminDashboardView extends JPanel {
    *
    * @param app The parent application.
    *
-   * <p>This constructor initializes the admin dashboard view with various panels and components, such as the admin information panel and service-related panels.</p>
+   * <p>This constructor initializes the admin dashboard view with various panels and components, such as the admin information panel and service-related panels.
+   * The bills and the total are not requested until the dashboard is first shown.</p>
+   *
+   * @see #onShow()
    */
   public AdminDashboardView(App app) {
     this.app = app;
@@ -86,23 +155,12 @@ public class AdminDashboardView extends JPanel {
     setLayout(new BorderLayout());
     setBackground(Color.WHITE);
 
+    requests = new RequestTracker(this);
     adminInfoPanel = createAdminInfoPanel();
     servicesPanel = createServicesPanel();
     totalPanel = createTotalPanel();
     searchBar = createSearchBar();
-    searchResultsContainer = new JPanel();
-    searchResults = createResultsPanel(StaffController.viewAllBills());
-    searchResultsContainer.add(searchResults);
-
-    JScrollPane scrollPane = new JScrollPane();
-    scrollPane.setVerticalScrollBarPolicy(
-      JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED
-    );
-    scrollPane.setHorizontalScrollBarPolicy(
-      JScrollPane.HORIZONTAL_SCROLLBAR_NEVER
-    );
-    scrollPane.getVerticalScrollBar().setUnitIncrement(16);
-    scrollPane.setViewportView(createContentPane());
+    JPanel resultsPanel = createResultsPanel();
 
     JPanel mainPanel = new JPanel();
     mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
@@ -114,40 +172,12 @@ public class AdminDashboardView extends JPanel {
 
     add(mainPanel, BorderLayout.NORTH);
 
-    add(scrollPane, BorderLayout.CENTER);
+    add(resultsPanel, BorderLayout.CENTER);
 
     setPreferredSize(new Dimension(650, 750));
     setVisible(true);
   }
 
-  /**
-   * Creates and returns the content pane for displaying search results.
-   *
-   * <p>This method generates a graphical panel, referred to as the content pane, designed to display search results
-   * in a vertical layout. The panel's background color is set to white to provide a clean and visually appealing backdrop
-   * for the search results.</p>
-   *
-   * <p>The content pane primarily contains the {@code searchResultsContainer} component, which is populated with search results.
-   * It arranges search results in a vertical stack, allowing users to scroll through a list of utility bills and related information.</p>
-   *
-   * @return The content pane for displaying search results.
-   *
-   * @see #searchResultsContainer
-   *
-   * @implSpec The method's implementation follows the application's user interface design standards for creating a content pane
-   * dedicated to presenting search results. It employs a vertical BoxLayout for straightforward stacking of results within the pane.
-   *
-   */
-  private JPanel createContentPane() {
-    JPanel contentPane = new JPanel();
-    contentPane.setLayout(new BoxLayout(contentPane, BoxLayout.Y_AXIS));
-    contentPane.setBackground(Color.WHITE);
-
-    contentPane.add(searchResultsContainer);
-
-    return contentPane;
-  }
-
   /**
    * Creates and returns the admin information panel with account details and a logout button.
    *
@@ -255,32 +285,31 @@ public class AdminDashboardView extends JPanel {
     JPanel panel = new JPanel();
     panel.setLayout(new GridLayout(1, 1)); // 2 rows, 1 column
 
-    String[] utilities = { "ELECTRICITY", "WATER", "GAS" };
-
     // Create a panel to hold the utilities and edit buttons
     JPanel utilitiesPanel = new JPanel();
-    utilitiesPanel.setLayout(new GridLayout(1, utilities.length));
+    utilitiesPanel.setLayout(new GridLayout(1, SERVICES.length));
+
+    serviceChargeLabels = new JLabel[SERVICES.length];
+    unitChargeLabels = new JLabel[SERVICES.length];
 
     int padding = 10;
 
-    for (int i = 0; i < utilities.length; i++) {
-      ServiceType serviceType = ServiceType.valueOf(utilities[i]);
+    for (int i = 0; i < SERVICES.length; i++) {
+      ServiceType serviceType = SERVICES[i];
       JPanel utilityPanel = new JPanel();
       utilityPanel.setLayout(new GridLayout(3, 1));
       utilityPanel.setBorder(
         BorderFactory.createEmptyBorder(padding, padding, 2 * padding, padding)
       );
 
-      JLabel utilityLabel = new JLabel(utilities[i]);
+      JLabel utilityLabel = new JLabel(serviceType.name());
       utilityLabel.setHorizontalAlignment(JLabel.CENTER);
       utilityPanel.add(utilityLabel);
 
-      JLabel serviceChargeLabel = new JLabel(
-        "Service Charge: $" + ServiceController.getServicePrice(serviceType)
-      );
-      JLabel unitChargeLabel = new JLabel(
-        "Unit Charge: $" + ServiceController.getUnitPrice(serviceType)
-      );
+      JLabel serviceChargeLabel = new JLabel();
+      JLabel unitChargeLabel = new JLabel();
+      serviceChargeLabels[i] = serviceChargeLabel;
+      unitChargeLabels[i] = unitChargeLabel;
 
       JPanel chargesPanel = new JPanel();
       chargesPanel.setLayout(new GridLayout(2, 1));
@@ -300,10 +329,79 @@ public class AdminDashboardView extends JPanel {
     }
 
     panel.add(utilitiesPanel);
+    showCharges();
 
     return panel;
   }
 
+  /**
+   * Shows the current service and unit charges of each service.
+   *
+   * <p>The charges are read from the tariff published by {@link ServiceController}, which is held in memory, so they
+   * are read on the event dispatch thread.</p>
+   *
+   * @see ServiceController#getServicePrice(ServiceType)
+   * @see ServiceController#getUnitPrice(ServiceType)
+   */
+  private void showCharges() {
+    for (int i = 0; i < SERVICES.length; i++) {
+      serviceChargeLabels[i].setText(
+        "Service Charge: $" + ServiceController.getServicePrice(SERVICES[i])
+      );
+      unitChargeLabels[i].setText(
+        "Unit Charge: $" + ServiceController.getUnitPrice(SERVICES[i])
+      );
+    }
+  }
+
+  /**
+   * Brings the dashboard up to date each time it is shown.
+   *
+   * <p>The first time, every bill is streamed into the table. Later, the charges and the total are read again and
+   * only the bills changed since the table was last brought up to date are fetched: their rows are updated in place,
+   * removed, or, while every bill is shown, appended. If the ledger no longer remembers every change since, the table
+   * is loaded again. Nothing is fetched for the table while a load or search is still in flight, since its result is
+   * newer anyway.</p>
+   *
+   * @see AsyncController#changesSince(long)
+   * @see BillTableModel#applyChanges(BillChanges, boolean)
+   */
+  @Override
+  public void onShow() {
+    showCharges();
+    requests.submit(
+      AsyncController.calculateTotalPrice(),
+      total -> totalLabel.setText("Total Bill: $" + Money.format(total))
+    );
+    if (requests.isLatestPending()) {
+      return;
+    }
+    if (shownVersion < 0) {
+      reloadResults();
+      return;
+    }
+    requests.submitLatest(
+      AsyncController.changesSince(shownVersion),
+      changes -> {
+        if (changes == null) {
+          reloadResults();
+          return;
+        }
+        shownVersion = changes.getVersion();
+        billTableModel.applyChanges(changes, searchText == null);
+        showResultsTitle();
+      }
+    );
+  }
+
+  /**
+   * Cancels any load or search still filling in the table.
+   */
+  @Override
+  public void onDiscard() {
+    requests.cancelLatest();
+  }
+
   /**
    * Creates and returns the search bar panel with search input and button.
    *
@@ -372,6 +470,9 @@ public class AdminDashboardView extends JPanel {
     gbc.gridx = 1;
     searchBarPanel.add(searchButton, gbc);
 
+    gbc.gridx = 2;
+    searchBarPanel.add(requests.getIndicator(), gbc);
+
     return searchBarPanel;
   }
 
@@ -381,143 +482,136 @@ public class AdminDashboardView extends JPanel {
    * @param searchText The text to be used for searching utility bills.
    *
    * <p>This method performs a search operation based on the provided search text.
-   * It retrieves utility bills that match the search criteria and displays the search results
-   * within the search results panel. If no matching utility bills are found, the search results panel
+   * It retrieves utility bills that match the search criteria in the background and displays the search results
+   * within the search results panel, unless a newer search or load has been started since. If no matching utility bills are found, the search results panel
    * displays a message indicating that no results were found. This method is typically triggered
-   * when the user initiates a search action within the application.</p>
+   * when the user initiates a search action within the application. A blank search shows every bill again.</p>
    *
    * @param searchText The text used for searching utility bills.
    *
-   * @see StaffController
+   * @see AsyncController#searchUserBills(String)
+   * @see RequestTracker#submitLatest(java.util.concurrent.CompletableFuture, java.util.function.Consumer)
    */
   private void performSearch(String searchText) {
-    searchResults =
-      createResultsPanel(StaffController.viewUserBills(searchText));
-    refreshSearchResultsPanel();
+    if (searchText.isBlank()) {
+      loadAllBills();
+      return;
+    }
+    this.searchText = searchText;
+    requests.submitLatest(
+      AsyncController.searchUserBills(searchText),
+      this::showResults
+    );
   }
 
   /**
-   * Refreshes the search results panel with updated content.
+   * Streams every bill into the results table.
    *
-   * <p>This method updates the search results panel with new content. It removes the current content
-   * from the search results container, adds the updated search results, and then triggers a revalidation
-   * and repaint of the container to reflect the changes. This method is called to refresh the displayed
-   * search results when updates or changes occur.</p>
+   * <p>The table is emptied and each chunk of bills is appended as it arrives, so the first page is shown in the same
+   * time whatever the size of the ledger. A search started meanwhile cancels the rest of the stream. Once the stream
+   * completes, the table is up to date with the ledger version it started from.</p>
    *
-   * <p>If the search results container is null or empty, no action is performed.</p>
+   * @see AsyncController#streamAllBills(AsyncController.ChunkSink)
+   * @see BillTableModel#appendBills(java.util.List)
+   */
+  private void loadAllBills() {
+    searchText = null;
+    billTableModel.setBills(new ArrayList<>());
+    resultsTitleLabel.setText("Utility Bills");
+    requests.streamLatest(
+      AsyncController::streamAllBills,
+      billTableModel::appendBills,
+      version -> {
+        shownVersion = version;
+        showResultsTitle();
+      }
+    );
+  }
+
+  /**
+   * Loads the results table again: every bill, or the results of the search shown.
    */
-  private void refreshSearchResultsPanel() {
-    if (searchResults != null) {
-      searchResultsContainer.removeAll();
-      searchResultsContainer.add(searchResults);
-      searchResultsContainer.revalidate();
-      searchResultsContainer.repaint();
+  private void reloadResults() {
+    if (searchText == null) {
+      loadAllBills();
+    } else {
+      performSearch(searchText);
     }
   }
 
   /**
-   * Creates a panel to display utility bill information.
-   *
-   * @param bills An {@code ArrayList} of {@code UtilityBill} objects to display.
-   * @return A panel displaying utility bill information or a "None" message if the list is empty.
+   * Sets the title above the results table, noting when the table is empty and when a search found more bills than
+   * it shows.
    *
-   * <p>This method generates a panel to display detailed information about utility bills, including customer name, utility type, usage data, price, and date.
-   * If the provided {@code bills} list is empty or {@code null}, it displays a message indicating no utility bills are available.
-   * Each bill's information is enclosed in a separate sub-panel with proper spacing.
-   * The total utility bill cost is also calculated and displayed at the end of the panel.</p>
-   *
-   * @see #createBillPanel(UtilityBill)
+   * @see StaffController#MAX_SEARCH_RESULTS
    */
-  private JPanel createResultsPanel(ArrayList<UtilityBill> bills) {
-    JPanel panel = new JPanel();
-    panel.setBackground(Color.WHITE);
-    panel.setLayout(new BorderLayout());
-    panel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0)); // Add space above the panel
-
-    JLabel titleLabel = new JLabel("Utility Bills");
-    titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
-    titleLabel.setHorizontalAlignment(JLabel.CENTER);
-
-    JPanel contentPanel = new JPanel();
-    contentPanel.setBackground(Color.WHITE);
-    contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-    contentPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-    if (bills == null || bills.isEmpty()) {
-      JLabel emptyLabel = new JLabel("None");
-      emptyLabel.setFont(new Font("Arial", Font.PLAIN, 14));
-      emptyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-      // Add spacing before and after the "None" label
-      contentPanel.add(Box.createVerticalStrut(20));
-      contentPanel.add(emptyLabel);
-      contentPanel.add(Box.createVerticalStrut(20));
+  private void showResultsTitle() {
+    int rows = billTableModel.getRowCount();
+    if (rows == 0) {
+      resultsTitleLabel.setText("Utility Bills: None");
+    } else if (searchText != null && rows >= StaffController.MAX_SEARCH_RESULTS) {
+      resultsTitleLabel.setText("Utility Bills: First " + StaffController.MAX_SEARCH_RESULTS + " Matches");
     } else {
-      for (UtilityBill bill : bills) {
-        JPanel planPanel = createBillPanel(bill);
-
-        // Add spacing between each plan
-        contentPanel.add(Box.createVerticalStrut(20));
-        contentPanel.add(planPanel);
-      }
+      resultsTitleLabel.setText("Utility Bills");
     }
-
-    panel.add(contentPanel, BorderLayout.CENTER);
-    panel.add(titleLabel, BorderLayout.NORTH);
-
-    return panel;
   }
 
   /**
-   * Creates a panel to display detailed information about a utility bill.
+   * Shows the given bills in the search results table.
    *
-   * @param bill A {@code UtilityBill} object containing bill information.
-   * @return A panel displaying the utility bill details.
+   * <p>The table model is pointed at the list without copying it, and the title notes when the list is empty.</p>
    *
-   * <p>This method generates a panel to display detailed information about a utility bill.
-   * The information includes the customer's name, utility type, usage data, price, and date of the bill.
-   * Each piece of information is presented in a properly formatted label within the panel.
-   * This method is typically used in the context of displaying individual utility bills within a larger view.</p>
+   * @param bills The bills to display.
    *
-   * @param bill The {@code UtilityBill} object representing the utility bill to be displayed.
+   * @see BillTableModel#setBills(java.util.List)
+   */
+  private void showResults(ArrayList<UtilityBill> bills) {
+    billTableModel.setBills(bills);
+    showResultsTitle();
+  }
+
+  /**
+   * Creates a panel to display utility bill information.
+   *
+   * @return A panel holding the title and the scrollable table of utility bills.
    *
-   * @return A panel containing the formatted details of the provided utility bill.
+   * <p>This method generates a panel that lists utility bills in a {@link JTable} backed by a {@link BillTableModel}.
+   * Each row shows the customer name, utility type, usage, price, and date of one bill. Because the table renders only
+   * the rows inside its viewport, the panel stays responsive and its memory use stays flat however many bills are
+   * listed.</p>
    *
-   * @see UtilityBill
+   * @see BillTableModel
    */
-  private JPanel createBillPanel(UtilityBill bill) {
+  private JPanel createResultsPanel() {
     JPanel panel = new JPanel();
     panel.setBackground(Color.WHITE);
     panel.setLayout(new BorderLayout());
-    panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-
-    JLabel nameLabel = new JLabel("Customer: " + bill.getUserName());
-    nameLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+    panel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0)); // Add space above the panel
 
-    JLabel typeLabel = new JLabel(bill.getUtilityType());
-    typeLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+    resultsTitleLabel = new JLabel("Utility Bills");
+    resultsTitleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+    resultsTitleLabel.setHorizontalAlignment(JLabel.CENTER);
+    resultsTitleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
 
-    JLabel dataLabel = new JLabel("Usage: " + bill.getMeterMeasurement());
-    dataLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+    billTableModel = new BillTableModel();
+    billTable = new JTable(billTableModel);
+    billTable.setFont(new Font("Arial", Font.PLAIN, 12));
+    billTable.setRowHeight(24);
+    billTable.setFillsViewportHeight(true);
+    billTable.setBackground(Color.WHITE);
 
-    JLabel priceLabel = new JLabel(
-      "Price: $" + String.format("%.2f", bill.getPrice())
+    JScrollPane scrollPane = new JScrollPane(billTable);
+    scrollPane.setVerticalScrollBarPolicy(
+      JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED
     );
-    priceLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-
-    JLabel dateLabel = new JLabel("Date: " + bill.getDate());
-    dateLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-
-    JPanel infoPanel = new JPanel();
-    infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-    infoPanel.setBackground(Color.WHITE);
-    infoPanel.add(nameLabel);
-    infoPanel.add(typeLabel);
-    infoPanel.add(dataLabel);
-    infoPanel.add(priceLabel);
-    infoPanel.add(dateLabel);
+    scrollPane.setHorizontalScrollBarPolicy(
+      JScrollPane.HORIZONTAL_SCROLLBAR_NEVER
+    );
+    scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+    scrollPane.getViewport().setBackground(Color.WHITE);
 
-    panel.add(infoPanel, BorderLayout.CENTER);
+    panel.add(resultsTitleLabel, BorderLayout.NORTH);
+    panel.add(scrollPane, BorderLayout.CENTER);
 
     return panel;
   }
@@ -528,8 +622,8 @@ public class AdminDashboardView extends JPanel {
    * @return A panel displaying the total utility bill cost.
    *
    * <p>This method generates a panel to display the total utility bill cost for all utility bills.
-   * It calculates the total bill cost using the {@code StaffController.calculateTotalPrice()} method
-   * and presents it in the panel with proper formatting and styling.</p>
+   * The total is calculated in the background using the {@code StaffController.calculateTotalPrice()} method
+   * and filled in when it arrives, with proper formatting and styling.</p>
    *
    * @see StaffController#calculateTotalPrice()
    */
@@ -538,10 +632,7 @@ public class AdminDashboardView extends JPanel {
     panel.setBackground(Color.WHITE);
     panel.setLayout(new FlowLayout(FlowLayout.CENTER));
 
-    JLabel totalLabel = new JLabel(
-      "Total Bill: $" +
-      String.format("%.2f", StaffController.calculateTotalPrice())
-    );
+    totalLabel = new JLabel("Total Bill: $...");
     totalLabel.setFont(new Font("Arial", Font.BOLD, 16));
 
     panel.add(totalLabel);
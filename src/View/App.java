@@ -1,12 +1,20 @@
 package View;
 
+import Controller.AsyncController;
 import Controller.CustomerController;
 import Controller.ServiceController;
+import Controller.StaffController;
 import Model.Customer;
 import Model.ServiceType;
 import Model.UtilityBill;
+import java.awt.CardLayout;
+import java.awt.Container;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
 import javax.swing.text.View;
 
 /**
@@ -16,6 +24,12 @@ import javax.swing.text.View;
  * and contains fields for various views and controllers used in the application. It also includes a reference to the
  * logged-in customer. The class provides a central point for managing the application's views and controllers.</p>
  *
+ * <p>The dashboards and the edit bill view are built once and cached for the session, each as a card of a
+ * {@link CardLayout}, so moving between screens only flips which card is visible. A cached dashboard is a
+ * {@link CachedView} and is told each time it is shown, so it fetches just the bills changed since it was last shown.
+ * The other views are built each time they are opened and dropped once left, so the login views never keep a typed
+ * password around. Logging out, or logging in again, discards the cached views.</p>
+ *
  * <p><strong>Note:</strong> The actual implementation of the views and controllers is not shown in this class.
  * Please refer to the specific view and controller classes for more details.</p>
  *
@@ -89,6 +103,21 @@ public class App extends JFrame {
    */
   private Customer loggedInCustomer;
 
+  /**
+   * The layout of the content pane, holding one card per view in it.
+   */
+  private final CardLayout cards = new CardLayout();
+
+  /**
+   * The view currently shown.
+   */
+  private JPanel shownPanel;
+
+  /**
+   * The number of views added to the content pane so far, used to name their cards.
+   */
+  private int cardCount;
+
   /**
    * Constructs a new instance of the Utility App.
    *
@@ -109,6 +138,7 @@ public class App extends JFrame {
     setSize(650, 750);
     setLocationRelativeTo(null);
     setResizable(false);
+    getContentPane().setLayout(cards);
     selectionPane();
 
     customerController = new CustomerController();
@@ -120,21 +150,69 @@ public class App extends JFrame {
   /**
    * Changes the displayed panel in the container.
    *
-   * <p>This method replaces the currently displayed panel in the container with the specified {@code panel}.
-   * It first removes all components from the content pane using the {@code removeAll} method, then adds the {@code panel}
-   * to the content pane using the {@code add} method. Finally, it calls the {@code revalidate} and {@code repaint} methods
-   * to update the container and repaint it.</p>
+   * <p>This method shows the specified {@code panel} in place of the currently displayed one. A panel that is not in the
+   * content pane yet is added as a new card; a cached view is already there, so showing it again only flips the visible
+   * card and none of its components are rebuilt or laid out again. The panel shown before is removed from the content
+   * pane unless it is cached. Finally, a {@link CachedView} is told it is shown, so it can bring itself up to date.</p>
    *
    * @param panel the panel to be displayed in the container
-   * @implSpec This method relies on the existence of the {@code getContentPane}, {@code removeAll}, {@code add},
-   *           {@code revalidate}, and {@code repaint} methods to perform the operation.
+   * @implSpec This method relies on the {@link CardLayout} of the content pane to switch between the views.
    * @see #getContentPane()
+   * @see CachedView#onShow()
    */
   protected void paneChange(JPanel panel) {
-    getContentPane().removeAll();
-    getContentPane().add(panel);
-    revalidate();
-    repaint();
+    Container pane = getContentPane();
+    if (panel.getParent() != pane) {
+      panel.setName("view-" + cardCount++);
+      pane.add(panel, panel.getName());
+    }
+    cards.show(pane, panel.getName());
+    if (shownPanel != null && shownPanel != panel && !isCached(shownPanel)) {
+      pane.remove(shownPanel);
+    }
+    shownPanel = panel;
+    if (panel instanceof CachedView) {
+      ((CachedView) panel).onShow();
+    }
+  }
+
+  /**
+   * Checks whether a view is kept for the rest of the session.
+   *
+   * @param panel The view.
+   * @return {@code true} if the view is one of the cached dashboards or the edit bill view.
+   */
+  private boolean isCached(JPanel panel) {
+    return (
+      panel == adminDashboardView ||
+      panel == customerDashboardView ||
+      panel == editBillView
+    );
+  }
+
+  /**
+   * Discards the cached views, so the next session builds its own.
+   *
+   * <p>Each {@link CachedView} is told it is discarded, so it stops any request still filling it in, and every cached
+   * view but the one shown is removed from the content pane; the one shown is removed by the next
+   * {@link #paneChange(JPanel)}.</p>
+   */
+  private void discardViews() {
+    JPanel[] views = { adminDashboardView, customerDashboardView, editBillView };
+    adminDashboardView = null;
+    customerDashboardView = null;
+    editBillView = null;
+    for (JPanel view : views) {
+      if (view == null) {
+        continue;
+      }
+      if (view instanceof CachedView) {
+        ((CachedView) view).onDiscard();
+      }
+      if (view != shownPanel) {
+        getContentPane().remove(view);
+      }
+    }
   }
 
   /**
@@ -142,7 +220,7 @@ public class App extends JFrame {
    *
    * <p>This method creates a new instance of the {@link LoginSelectionView} class and assigns it to the {@code loginSelectionView}
    * field of the current instance. It then invokes the {@code paneChange} method, passing the {@code loginSelectionView} as a parameter,
-   * to display the selection pane for login.</p>
+   * to display the selection pane for login. Since this is where logging out leads, the cached views are discarded first.</p>
    *
    * @implNote This method is responsible for displaying the selection pane for login.
    * @implSpec This method relies on the existence of the {@link LoginSelectionView} class and the {@code paneChange} method
@@ -151,6 +229,7 @@ public class App extends JFrame {
    * @see #paneChange(View)
    */
   protected void selectionPane() {
+    discardViews();
     loginSelectionView = new LoginSelectionView(this);
     paneChange(loginSelectionView);
   }
@@ -196,7 +275,7 @@ public class App extends JFrame {
    *
    * <p>This method loads a customer by invoking the {@link CustomerController#loadCustomer(String, String)} method and passing
    * the provided username and password as parameters. The loaded customer is then assigned to the {@code loggedInCustomer}
-   * field of the current instance.</p>
+   * field of the current instance. Any views cached for a previous session are discarded.</p>
    *
    * @implNote This method is responsible for loading a customer based on the provided credentials.
    * @implSpec This method relies on the existence of the {@link CustomerController} class and its {@code loadCustomer} method
@@ -207,6 +286,7 @@ public class App extends JFrame {
    * @see CustomerController#loadCustomer(String, String)
    */
   protected Customer loadCustomer(String username, String password) {
+    discardViews();
     return (
       this.loggedInCustomer =
         customerController.loadCustomer(username, password)
@@ -216,9 +296,10 @@ public class App extends JFrame {
   /**
    * Opens the customer dashboard view.
    *
-   * <p>This method opens the customer dashboard view by creating a new instance of the {@link CustomerDashboardView} class
-   * and passing the current instance and the logged-in customer as parameters. It then calls the {@link #paneChange(View)}
-   * method to change the active pane to the customer dashboard view.</p>
+   * <p>This method opens the customer dashboard view, creating an instance of the {@link CustomerDashboardView} class for
+   * the logged-in customer the first time and reusing it afterwards. It then calls the {@link #paneChange(View)}
+   * method to change the active pane to the customer dashboard view, which updates just the bills changed since it was
+   * last shown.</p>
    *
    * @implNote This method is responsible for opening the customer dashboard view.
    * @implSpec This method relies on the existence of the {@link CustomerDashboardView} class and its constructor, as well as
@@ -228,7 +309,9 @@ public class App extends JFrame {
    * @see #paneChange(View)
    */
   protected void customerDashboard() {
-    customerDashboardView = new CustomerDashboardView(this, loggedInCustomer);
+    if (customerDashboardView == null) {
+      customerDashboardView = new CustomerDashboardView(this, loggedInCustomer);
+    }
     paneChange(customerDashboardView);
   }
 
@@ -255,31 +338,33 @@ public class App extends JFrame {
    *
    * <p>This method allows the logged-in customer to add a new bill by specifying the utility type, meter measurement,
    * and date. It calls the {@link Customer#addBill(String, double, String)} method on the {@link loggedInCustomer}
-   * object, passing the utilityType, meterMeasurement, and date as parameters.</p>
+   * object, passing the utilityType, meterMeasurement, and date as parameters. The bill is written on a background
+   * thread by {@link AsyncController}, so the window stays responsive.</p>
    *
    * @param utilityType The type of utility for the bill (e.g., electricity, water, gas).
    * @param meterMeasurement The meter measurement for the bill.
    * @param date The date of the bill in the format "yyyy-MM-dd".
+   * @return A future completing when the bill has been written.
    * @throws IllegalArgumentException if the utilityType or date is invalid.
    * @implNote This method is responsible for adding new bills for the logged-in customer.
    * @implSpec This method relies on the existence of the {@link loggedInCustomer} object and its
    *           {@link Customer#addBill(String, double, String)} method to perform the addition.
    * @see Customer#addBill(String, double, String)
    */
-  protected void addNewBill(
+  protected CompletableFuture<Void> addNewBill(
     String utilityType,
     double meterMeasurement,
     String date
   ) {
-    loggedInCustomer.addBill(utilityType, meterMeasurement, date);
+    return AsyncController.addBill(loggedInCustomer, utilityType, meterMeasurement, date);
   }
 
   /**
    * Opens the edit bill page for a specific utility bill.
    *
-   * <p>This method opens the edit bill page for a specific utility bill by creating a new instance of the
-   * {@link EditBillView} class and passing the current instance and the utility bill as parameters. It then calls
-   * the {@link #paneChange(View)} method to change the active pane to the edit bill view.</p>
+   * <p>This method opens the edit bill page for a specific utility bill, creating an instance of the
+   * {@link EditBillView} class the first time and pointing the cached instance at the utility bill afterwards. It then
+   * calls the {@link #paneChange(View)} method to change the active pane to the edit bill view.</p>
    *
    * @param utilityBill The utility bill to be edited.
    * @implNote This method is responsible for opening the edit bill page.
@@ -289,7 +374,11 @@ public class App extends JFrame {
    * @see #paneChange(View)
    */
   protected void editBillPage(UtilityBill utilityBill) {
-    editBillView = new EditBillView(this, utilityBill);
+    if (editBillView == null) {
+      editBillView = new EditBillView(this, utilityBill);
+    } else {
+      editBillView.showBill(utilityBill);
+    }
     paneChange(editBillView);
   }
 
@@ -298,35 +387,39 @@ public class App extends JFrame {
    *
    * <p>This method allows the logged-in customer to edit a bill by specifying the ID of the bill and the new meter
    * measurement. It calls the {@link Customer#editBill(int, double)} method on the {@link loggedInCustomer} object,
-   * passing the ID and meterMeasurement as parameters.</p>
+   * passing the ID and meterMeasurement as parameters. The change is written on a background thread by
+   * {@link AsyncController}.</p>
    *
    * @param id The ID of the bill to be edited.
    * @param meterMeasurement The new meter measurement for the bill.
+   * @return A future completing when the change has been written.
    * @throws IllegalArgumentException if the ID is invalid or does not correspond to a bill for the logged-in customer.
    * @implNote This method is responsible for editing bills for the logged-in customer.
    * @implSpec This method relies on the existence of the {@link loggedInCustomer} object and its
    *           {@link Customer#editBill(int, double)} method to perform the editing.
    * @see Customer#editBill(int, double)
    */
-  protected void editBill(int id, double meterMeasurement) {
-    loggedInCustomer.editBill(id, meterMeasurement);
+  protected CompletableFuture<Void> editBill(int id, double meterMeasurement) {
+    return AsyncController.editBill(loggedInCustomer, id, meterMeasurement);
   }
 
   /**
    * Deletes a bill for the logged-in customer.
    *
    * <p>This method deletes the bill with the specified ID for the currently logged-in customer. It calls the
-   * {@link Customer#deleteBill(int)} method on the {@link loggedInCustomer} object, passing the ID as the parameter.</p>
+   * {@link Customer#deleteBill(int)} method on the {@link loggedInCustomer} object, passing the ID as the parameter.
+   * The deletion is written on a background thread by {@link AsyncController}.</p>
    *
    * @param id The ID of the bill to be deleted.
+   * @return A future completing when the deletion has been written.
    * @throws IllegalArgumentException if the ID is invalid or does not correspond to a bill for the logged-in customer.
    * @implNote This method is responsible for deleting bills for the logged-in customer.
    * @implSpec This method relies on the existence of the {@link loggedInCustomer} object and its
    *           {@link Customer#deleteBill(int)} method to perform the deletion.
    * @see Customer#deleteBill(int)
    */
-  protected void deleteBill(int id) {
-    loggedInCustomer.deleteBill(id);
+  protected CompletableFuture<Void> deleteBill(int id) {
+    return AsyncController.deleteBill(loggedInCustomer, id);
   }
 
   /**
@@ -399,9 +492,10 @@ public class App extends JFrame {
   /**
    * Displays the admin dashboard view.
    *
-   * <p>This method creates a new instance of the {@link AdminDashboardView} class, passing the current instance
-   * of the class as a parameter. It then calls the {@link #paneChange} method to change the active pane to the
-   * newly created admin dashboard view.</p>
+   * <p>This method creates an instance of the {@link AdminDashboardView} class the first time, passing the current
+   * instance of the class as a parameter, and reuses it afterwards. It then calls the {@link #paneChange} method to
+   * change the active pane to the admin dashboard view, which updates just the bills changed since it was last
+   * shown.</p>
    *
    * @implNote The admin dashboard view provides access to various administrative functionalities and information
    *           pertaining to the system. It is designed specifically for users with administrative privileges.
@@ -411,7 +505,9 @@ public class App extends JFrame {
    * @see #paneChange(JPanel)
    */
   protected void adminDashboard() {
-    adminDashboardView = new AdminDashboardView(this);
+    if (adminDashboardView == null) {
+      adminDashboardView = new AdminDashboardView(this);
+    }
     paneChange(adminDashboardView);
   }
 
@@ -438,7 +534,12 @@ public class App extends JFrame {
    * Updates the service charges and unit charges for a specific service type.
    *
    * <p>This method updates the service charges and unit charges for a given service type. It calls the
-   * necessary methods from the {@link ServiceController} class to perform the updates.</p>
+   * necessary methods from the {@link ServiceController} class to perform the updates on a background thread through
+   * {@link AsyncController}, since they rewrite the prices file.</p>
+   *
+   * <p>The new charges take effect today, so the bills of the service type dated today or later, and bills without a
+   * valid date, are then repriced in the background by {@link StaffController#repriceBills}. A {@link ProgressMonitor}
+   * shows the progress of a long repricing and lets the admin cancel it; the window stays responsive throughout.</p>
    *
    * @param serviceType   The service type to be edited.
    * @param serviceCharges The new service charges to be set for the service type.
@@ -448,13 +549,68 @@ public class App extends JFrame {
    * @implSpec This method delegates the update operations to the {@link ServiceController} class.
    * @see ServiceController#updateServiceCharges(ServiceType, double)
    * @see ServiceController#updateUnitCharges(ServiceType, double)
+   * @see StaffController#repriceBills
    */
   protected void editService(
     ServiceType serviceType,
     double serviceCharges,
     double unitCharges
   ) {
-    ServiceController.updateServiceCharges(serviceType, serviceCharges);
-    ServiceController.updateUnitCharges(serviceType, unitCharges);
+    AsyncController
+      .run(() -> {
+        ServiceController.updateServiceCharges(serviceType, serviceCharges);
+        ServiceController.updateUnitCharges(serviceType, unitCharges);
+      })
+      .whenComplete((done, error) ->
+        SwingUtilities.invokeLater(() -> {
+          if (error != null) {
+            System.out.println("Error updating service charges: " + error);
+          } else {
+            repriceBills(serviceType);
+          }
+        })
+      );
+  }
+
+  /**
+   * Reprices the bills of a service type affected by new charges that take effect today.
+   *
+   * <p>The bills are repriced in the background by {@link StaffController#repriceBills}, while a {@link ProgressMonitor}
+   * shows the progress and lets the admin cancel the repricing. Once it finishes, the view shown is brought up to date
+   * if it is a {@link CachedView}, since it may show repriced bills.</p>
+   *
+   * @param serviceType The service type whose charges changed.
+   * @see StaffController#repriceBills
+   */
+  private void repriceBills(ServiceType serviceType) {
+    ProgressMonitor monitor = new ProgressMonitor(
+      this,
+      "Repricing " + serviceType.name() + " bills",
+      null,
+      0,
+      100
+    );
+    StaffController
+      .repriceBills(
+        serviceType,
+        LocalDate.now(),
+        null,
+        (job, done, total) ->
+          SwingUtilities.invokeLater(() -> {
+            if (monitor.isCanceled()) {
+              job.cancel();
+            } else if (total > 0) {
+              monitor.setProgress((int) (100L * done / total));
+            }
+          })
+      )
+      .whenComplete((count, error) ->
+        SwingUtilities.invokeLater(() -> {
+          monitor.close();
+          if (shownPanel instanceof CachedView) {
+            ((CachedView) shownPanel).onShow();
+          }
+        })
+      );
   }
 }
@@ -0,0 +1,155 @@
+package View;
+
+import Model.BillChanges;
+import Model.Money;
+import Model.UtilityBill;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The BillTableModel class exposes a list of utility bills to a {@link javax.swing.JTable}.
+ *
+ * <p>The model keeps a reference to the list it is given rather than copying it, and formats a cell only when the
+ * table asks for it. Since a table only asks for the rows inside its viewport, the cost of showing a list of bills does
+ * not grow with the length of the list.</p>
+ *
+ * @see AdminDashboardView
+ * @see UtilityBill
+ */
+@SuppressWarnings("serial")
+public class BillTableModel extends AbstractTableModel {
+
+  /**
+   * The column headings, in display order.
+   */
+  private static final String[] COLUMNS = { "Customer", "Utility", "Usage", "Price", "Date" };
+
+  /**
+   * The bills shown by the table.
+   */
+  private List<UtilityBill> bills = new ArrayList<>();
+
+  /**
+   * Replaces the bills shown by the table.
+   *
+   * @param bills The bills to show; the list is read in place, not copied.
+   */
+  public void setBills(List<UtilityBill> bills) {
+    this.bills = bills == null ? new ArrayList<>() : bills;
+    fireTableDataChanged();
+  }
+
+  /**
+   * Adds bills after the ones already shown, for example the next chunk of a streamed ledger.
+   *
+   * <p>Only the new rows are announced to the table, so appending a chunk costs the same however many rows are
+   * already shown. The bills are added to the list being shown.</p>
+   *
+   * @param more The bills to add.
+   */
+  public void appendBills(List<UtilityBill> more) {
+    if (more.isEmpty()) {
+      return;
+    }
+    int first = bills.size();
+    bills.addAll(more);
+    fireTableRowsInserted(first, bills.size() - 1);
+  }
+
+  /**
+   * Brings the rows up to date with changes made to the ledger since they were read.
+   *
+   * <p>The rows are walked once: a row whose bill was edited is replaced and announced on its own, so the table
+   * repaints just that row, and a row whose bill was removed is dropped. Bills that are not shown yet are appended
+   * when {@code appendNew} is set, for example when every bill is shown, and ignored otherwise, for example when the
+   * rows are the results of a search. Applying the same changes twice leaves the rows as they are.</p>
+   *
+   * @param changes   The changes.
+   * @param appendNew Whether to append the updated bills that are not shown yet.
+   */
+  public void applyChanges(BillChanges changes, boolean appendNew) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    Map<Integer, UtilityBill> updated = new LinkedHashMap<>();
+    for (UtilityBill bill : changes.getUpdatedBills()) {
+      updated.put(bill.getId(), bill);
+    }
+    Set<Integer> removed = new HashSet<>();
+    for (int billId : changes.getRemovedBillIds()) {
+      removed.add(billId);
+    }
+    List<Integer> updatedRows = new ArrayList<>();
+    int kept = 0;
+    for (int row = 0; row < bills.size(); row++) {
+      UtilityBill bill = bills.get(row);
+      if (removed.contains(bill.getId())) {
+        continue;
+      }
+      UtilityBill current = updated.remove(bill.getId());
+      if (current != null) {
+        bill = current;
+        updatedRows.add(kept);
+      }
+      bills.set(kept++, bill);
+    }
+    if (kept < bills.size()) {
+      bills.subList(kept, bills.size()).clear();
+      fireTableDataChanged();
+    } else {
+      for (int row : updatedRows) {
+        fireTableRowsUpdated(row, row);
+      }
+    }
+    if (appendNew) {
+      appendBills(new ArrayList<>(updated.values()));
+    }
+  }
+
+  /**
+   * Returns the bill shown in the given row.
+   *
+   * @param row The row index.
+   * @return The bill in that row.
+   */
+  public UtilityBill getBillAt(int row) {
+    return bills.get(row);
+  }
+
+  @Override
+  public int getRowCount() {
+    return bills.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMNS.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMNS[column];
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    UtilityBill bill = bills.get(row);
+    switch (column) {
+      case 0:
+        return bill.getUserName();
+      case 1:
+        return bill.getUtilityType();
+      case 2:
+        return bill.getMeterMeasurement();
+      case 3:
+        return "$" + Money.format(bill.getPriceCents());
+      default:
+        return bill.getDate();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package View;
+
+/**
+ * The CachedView interface is implemented by the views that {@link App} builds once and keeps while the user moves
+ * between screens.
+ *
+ * <p>A cached view is built empty and fills itself in the first time it is shown. Every later time it is shown it
+ * asks for what changed since it was last shown and updates only that, so coming back to it costs as little as the
+ * change that was made elsewhere. When the user logs out the view is discarded and never shown again.</p>
+ *
+ * <p>Both methods are called on the event dispatch thread.</p>
+ *
+ * @see App#paneChange(javax.swing.JPanel)
+ */
+interface CachedView {
+
+  /**
+   * Called each time the view is shown, and when the data behind the view shown may have changed, to bring it up to
+   * date.
+   */
+  void onShow();
+
+  /**
+   * Called once when the view is dropped from the cache, to stop any request still filling it in.
+   */
+  void onDiscard();
+}
@@ -1,11 +1,16 @@
 package View;
 
+import Controller.AsyncController;
+import Model.BillChanges;
 import Model.Customer;
+import Model.Money;
 import Model.UtilityBill;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import javax.swing.*;
 
 /**
@@ -15,9 +20,17 @@ import javax.swing.*;
  * functionality to display the customer's information panel, current bills panel, and interact with the parent application. It inherits
  * the layout and background properties from JPanel.</p>
  *
+ * <p>The customer's bills are fetched, and deleted, on a background thread through {@link AsyncController}, so the
+ * dashboard appears at once with a progress bar that shows until the bills arrive. The bills are streamed in chunks:
+ * the first page is shown as soon as it is read and the rest are appended while the dashboard stays usable.</p>
+ *
+ * <p>The dashboard is a {@link CachedView}: it is built once per logged-in customer and fills itself in when first
+ * shown. Each time it is shown again only the customer's bills changed since are fetched, and only their panels are
+ * replaced, added or removed, so coming back from editing a bill updates that one bill.</p>
+ *
  * @see JPanel
  */
-public class CustomerDashboardView extends JPanel {
+public class CustomerDashboardView extends JPanel implements CachedView {
 
   /**
    * The customer information panel.
@@ -33,6 +46,37 @@ public class CustomerDashboardView extends JPanel {
    */
   private JPanel currentBillsPanel;
 
+  /**
+   * The content pane holding the current bills panel.
+   *
+   * @see JPanel
+   */
+  private JPanel contentPane;
+
+  /**
+   * The panel the bill panels are added to, or {@code null} while the first chunk of bills is awaited.
+   *
+   * @see JPanel
+   */
+  private JPanel billListPanel;
+
+  /**
+   * The panel shown for each bill in {@link #billListPanel}, by bill ID.
+   */
+  private Map<Integer, JPanel> billPanels = new HashMap<>();
+
+  /**
+   * The ledger version the bill panels are up to date with, or {@code -1} before the bills have been loaded.
+   */
+  private long shownVersion = -1;
+
+  /**
+   * Tracks the background requests for the customer's bills.
+   *
+   * @see RequestTracker
+   */
+  private RequestTracker requests;
+
   /**
    * The customer object.
    *
@@ -54,7 +98,8 @@ public class CustomerDashboardView extends JPanel {
    * top, a scrollable content pane in the center, and an "Add Bill" button at the bottom. The view is initialized with an instance of the
    * parent application and a customer object.</p>
    *
-   * <p><strong>Note:</strong> The customer's bills are obtained from the customer object.</p>
+   * <p><strong>Note:</strong> The customer's bills are obtained from the customer object in the background and
+   * shown when they arrive, starting the first time the dashboard is shown.</p>
    *
    * @param app The parent application.
    * @param customer The customer object for which the dashboard view is created.
@@ -74,8 +119,9 @@ public class CustomerDashboardView extends JPanel {
     setLayout(new BorderLayout());
     setBackground(Color.WHITE);
 
+    requests = new RequestTracker(this);
     customerInfoPanel = createCustomerInfoPanel();
-    currentBillsPanel = createCurrentBillsPanel(this.customer.getBills());
+    currentBillsPanel = createLoadingPanel();
 
     add(customerInfoPanel, BorderLayout.NORTH);
 
@@ -87,7 +133,8 @@ public class CustomerDashboardView extends JPanel {
       JScrollPane.HORIZONTAL_SCROLLBAR_NEVER
     );
     scrollPane.getVerticalScrollBar().setUnitIncrement(16);
-    scrollPane.setViewportView(createContentPane());
+    contentPane = createContentPane();
+    scrollPane.setViewportView(contentPane);
 
     add(scrollPane, BorderLayout.CENTER);
 
@@ -96,7 +143,11 @@ public class CustomerDashboardView extends JPanel {
       app.newBillView();
     });
 
-    add(addBillButton, BorderLayout.SOUTH);
+    JPanel southPanel = new JPanel(new BorderLayout());
+    southPanel.add(requests.getIndicator(), BorderLayout.NORTH);
+    southPanel.add(addBillButton, BorderLayout.CENTER);
+
+    add(southPanel, BorderLayout.SOUTH);
 
     setPreferredSize(new Dimension(600, 400));
 
@@ -125,6 +176,180 @@ public class CustomerDashboardView extends JPanel {
     return contentPane;
   }
 
+  /**
+   * Brings the dashboard up to date each time it is shown.
+   *
+   * <p>The first time, the customer's bills are streamed in. Later, only the customer's bills changed since the
+   * panels were last brought up to date are fetched, and only their panels are replaced, added or removed. If the
+   * ledger no longer remembers every change since, the bills are loaded again. Nothing is fetched while a load is
+   * still in flight, since its result is newer anyway.</p>
+   *
+   * @see AsyncController#changesSince(Customer, long)
+   */
+  @Override
+  public void onShow() {
+    if (requests.isLatestPending()) {
+      return;
+    }
+    if (shownVersion < 0) {
+      loadBills();
+      return;
+    }
+    requests.submitLatest(
+      AsyncController.changesSince(customer, shownVersion),
+      changes -> {
+        if (changes == null) {
+          loadBills();
+          return;
+        }
+        shownVersion = changes.getVersion();
+        applyChanges(changes);
+      }
+    );
+  }
+
+  /**
+   * Cancels any load still filling in the bills.
+   */
+  @Override
+  public void onDiscard() {
+    requests.cancelLatest();
+  }
+
+  /**
+   * Streams every bill of the customer into the dashboard, in place of the bills shown.
+   *
+   * <p>Once the stream completes, the panels are up to date with the ledger version it started from.</p>
+   *
+   * @see AsyncController#streamBills(Customer, AsyncController.ChunkSink)
+   */
+  private void loadBills() {
+    billListPanel = null;
+    billPanels.clear();
+    replaceBillsPanel(createLoadingPanel());
+    requests.streamLatest(
+      chunks -> AsyncController.streamBills(customer, chunks),
+      this::appendBills,
+      version -> {
+        shownVersion = version;
+        if (billListPanel == null) {
+          showBills(new ArrayList<>());
+        }
+      }
+    );
+  }
+
+  /**
+   * Updates the bill panels for changes made to the customer's bills since they were shown.
+   *
+   * <p>The panel of an edited bill is replaced where it stands, the panel of a deleted bill is removed with the spacing
+   * before it, and panels for new bills are appended. The other panels are left as they are.</p>
+   *
+   * @param changes The changes to the customer's bills.
+   */
+  private void applyChanges(BillChanges changes) {
+    if (changes.isEmpty() || billListPanel == null) {
+      return;
+    }
+    boolean wasEmpty = billPanels.isEmpty();
+    for (int billId : changes.getRemovedBillIds()) {
+      JPanel panel = billPanels.remove(billId);
+      if (panel != null) {
+        int index = billListPanel.getComponentZOrder(panel);
+        billListPanel.remove(index);
+        billListPanel.remove(index - 1);
+      }
+    }
+    ArrayList<UtilityBill> added = new ArrayList<>();
+    for (UtilityBill bill : changes.getUpdatedBills()) {
+      JPanel panel = billPanels.get(bill.getId());
+      if (panel == null) {
+        added.add(bill);
+        continue;
+      }
+      int index = billListPanel.getComponentZOrder(panel);
+      billListPanel.remove(index);
+      JPanel replacement = createBillPanel(bill);
+      billListPanel.add(replacement, index);
+      billPanels.put(bill.getId(), replacement);
+    }
+    if (wasEmpty || billPanels.isEmpty() && added.isEmpty()) {
+      showBills(added);
+      return;
+    }
+    addBillPanels(billListPanel, added);
+    billListPanel.revalidate();
+    billListPanel.repaint();
+  }
+
+  /**
+   * Shows the given bills in place of the current bills panel.
+   *
+   * @param bills The customer's bills.
+   * @see #createCurrentBillsPanel(ArrayList)
+   */
+  private void showBills(ArrayList<UtilityBill> bills) {
+    billPanels.clear();
+    replaceBillsPanel(createCurrentBillsPanel(bills));
+  }
+
+  /**
+   * Puts a panel in place of the current bills panel.
+   *
+   * @param panel The new bills panel.
+   */
+  private void replaceBillsPanel(JPanel panel) {
+    contentPane.remove(currentBillsPanel);
+    currentBillsPanel = panel;
+    contentPane.add(currentBillsPanel);
+    contentPane.revalidate();
+    contentPane.repaint();
+  }
+
+  /**
+   * Shows the next chunk of the customer's bills.
+   *
+   * <p>The first chunk replaces the loading panel; later chunks only add their own bill panels.</p>
+   *
+   * @param bills The chunk of bills.
+   * @see #showBills(ArrayList)
+   */
+  private void appendBills(ArrayList<UtilityBill> bills) {
+    if (billListPanel == null) {
+      showBills(bills);
+      return;
+    }
+    addBillPanels(billListPanel, bills);
+    billListPanel.revalidate();
+    billListPanel.repaint();
+  }
+
+  /**
+   * Creates the panel shown while the customer's bills are being fetched.
+   *
+   * @return A JPanel with the bills title and a loading message.
+   */
+  private JPanel createLoadingPanel() {
+    JPanel panel = new JPanel();
+    panel.setBackground(Color.WHITE);
+    panel.setLayout(new BorderLayout());
+    panel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
+
+    JLabel titleLabel = new JLabel("Utility Bills");
+    titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+    titleLabel.setHorizontalAlignment(JLabel.CENTER);
+
+    JLabel loadingLabel = new JLabel("Loading...");
+    loadingLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+    loadingLabel.setHorizontalAlignment(JLabel.CENTER);
+    loadingLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 20, 0));
+
+    panel.add(titleLabel, BorderLayout.NORTH);
+    panel.add(loadingLabel, BorderLayout.CENTER);
+
+    return panel;
+  }
+
   /**
    * Creates a panel displaying customer information.
    *
@@ -258,14 +483,9 @@ public class CustomerDashboardView extends JPanel {
       contentPanel.add(emptyLabel);
       contentPanel.add(Box.createVerticalStrut(20));
     } else {
-      for (UtilityBill bill : bills) {
-        JPanel planPanel = createBillPanel(bill);
-
-        // Add spacing between each plan
-        contentPanel.add(Box.createVerticalStrut(20));
-        contentPanel.add(planPanel);
-      }
+      addBillPanels(contentPanel, bills);
     }
+    billListPanel = contentPanel;
 
     panel.add(contentPanel, BorderLayout.CENTER);
     panel.add(titleLabel, BorderLayout.NORTH);
@@ -273,6 +493,24 @@ public class CustomerDashboardView extends JPanel {
     return panel;
   }
 
+  /**
+   * Adds a bill panel, preceded by spacing, for each of the given bills, and remembers it by bill ID.
+   *
+   * @param contentPanel The panel to add the bill panels to.
+   * @param bills        The bills.
+   * @see #createBillPanel(UtilityBill)
+   */
+  private void addBillPanels(JPanel contentPanel, ArrayList<UtilityBill> bills) {
+    for (UtilityBill bill : bills) {
+      JPanel planPanel = createBillPanel(bill);
+
+      // Add spacing between each plan
+      contentPanel.add(Box.createVerticalStrut(20));
+      contentPanel.add(planPanel);
+      billPanels.put(bill.getId(), planPanel);
+    }
+  }
+
   /**
    * Creates a panel to display information about a utility bill.
    *
@@ -308,7 +546,7 @@ public class CustomerDashboardView extends JPanel {
     dataLabel.setFont(new Font("Arial", Font.PLAIN, 12));
 
     JLabel priceLabel = new JLabel(
-      "Price: $" + String.format("%.2f", bill.getPrice())
+      "Price: $" + Money.format(bill.getPriceCents())
     );
     priceLabel.setFont(new Font("Arial", Font.PLAIN, 12));
 
@@ -332,8 +570,8 @@ public class CustomerDashboardView extends JPanel {
 
     JButton deleteButton = new JButton("Delete");
     deleteButton.addActionListener(e -> {
-      app.deleteBill(bill.getId());
-      app.customerDashboard();
+      deleteButton.setEnabled(false);
+      requests.submit(app.deleteBill(bill.getId()), done -> onShow());
     });
 
     // Create a panel with FlowLayout to hold the buttons side by side
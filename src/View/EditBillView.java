@@ -1,5 +1,6 @@
 package View;
 
+import Model.Money;
 import Model.UtilityBill;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -13,6 +14,11 @@ import javax.swing.border.EmptyBorder;
  * Users can navigate back, delete the bill, or save the changes made to the bill's information.
  * <p>
  * This class serves as part of the App's user interface and is used for managing bill details.
+ * Saving and deleting are written on a background thread; the buttons are disabled and a progress bar is shown
+ * until the change has been written.
+ * <p>
+ * The App keeps one instance for the logged-in customer and points it at the bill to edit with
+ * {@link #showBill(UtilityBill)}, instead of building a new view for every bill.
  */
 public class EditBillView extends JPanel {
 
@@ -22,6 +28,11 @@ public class EditBillView extends JPanel {
    */
   protected App app;
 
+  /**
+   * The bill being edited.
+   */
+  private UtilityBill bill;
+
   /**
    * A label displaying the bill's name.
    */
@@ -57,15 +68,24 @@ public class EditBillView extends JPanel {
    */
   private JButton saveButton;
 
+  /**
+   * Tracks the background requests that save or delete the bill.
+   *
+   * @see RequestTracker
+   */
+  private RequestTracker requests;
+
   /**
    * Constructs a new EditBillView.
    * Initializes the graphical user interface components, including labels and buttons, for
    * viewing and editing bill details. It also sets up event listeners for user interactions.
    *
    * @param app The main application instance to connect the view with the application logic.
+   * @param utilityBill The bill to edit first.
    */
   public EditBillView(App app, UtilityBill utilityBill) {
     this.app = app;
+    this.requests = new RequestTracker(this);
 
     setLayout(new BorderLayout());
     setBackground(Color.WHITE);
@@ -80,24 +100,21 @@ public class EditBillView extends JPanel {
 
     // Subscription details
     JLabel nameFieldLabel = createFieldLabel("Utility Type:");
-    nameLabel = createEditableLabel(utilityBill.getUtilityType());
+    nameLabel = createEditableLabel("");
 
     JLabel priceFieldLabel = createFieldLabel("Price ($):");
-    priceLabel =
-      createEditableLabel(String.format("%.2f", utilityBill.getPrice()));
+    priceLabel = createEditableLabel("");
 
     JLabel readingFieldLabel = createFieldLabel("Reading:");
-    readingLabel =
-      createEditableLabel(Double.toString(utilityBill.getMeterMeasurement()));
+    readingLabel = createEditableLabel("");
     JButton editReadingButton = createEditButton("Edit Reading", readingLabel);
 
     JLabel dateFieldLabel = createFieldLabel("Date (yyyy-MM-dd):");
-    dateLabel = createEditableLabel(utilityBill.getDate());
+    dateLabel = createEditableLabel("");
 
     saveButton = new JButton("Save");
     saveButton.setFont(new Font("Arial", Font.PLAIN, 12));
     saveButton.setAlignmentX(Component.LEFT_ALIGNMENT);
-    saveButton.setEnabled(false);
     saveButton.addActionListener(
       new ActionListener() {
         @Override
@@ -121,13 +138,11 @@ public class EditBillView extends JPanel {
               JOptionPane.ERROR_MESSAGE
             );
           } else {
-            app.editBill(utilityBill.getId(), Double.parseDouble(reading));
-            // priceLabel.setText(String.format("%.2f", price));
-
-            saveButton.setEnabled(false);
-            backButton.setEnabled(true);
-
-            app.editBillPage(utilityBill);
+            UtilityBill edited = bill;
+            requests.submit(
+              app.editBill(edited.getId(), Double.parseDouble(reading)),
+              done -> showBill(edited)
+            );
           }
         }
       }
@@ -153,8 +168,10 @@ public class EditBillView extends JPanel {
         @Override
         public void actionPerformed(ActionEvent e) {
           // Handle delete button action here
-          app.deleteBill(utilityBill.getId());
-          app.adminDashboard();
+          requests.submit(
+            app.deleteBill(bill.getId()),
+            done -> app.adminDashboard()
+          );
         }
       }
     );
@@ -195,6 +212,7 @@ public class EditBillView extends JPanel {
             .addComponent(saveButton)
             .addComponent(backButton)
             .addComponent(deleteButton)
+            .addComponent(requests.getIndicator())
         )
     );
 
@@ -232,15 +250,37 @@ public class EditBillView extends JPanel {
             .addComponent(saveButton)
             .addComponent(backButton)
             .addComponent(deleteButton)
+            .addComponent(requests.getIndicator())
         )
     );
 
+    requests.disableWhileBusy(saveButton, backButton, deleteButton, editReadingButton);
+    showBill(utilityBill);
+
     add(contentPanel, BorderLayout.CENTER);
 
     setPreferredSize(new Dimension(600, 400));
     setVisible(true);
   }
 
+  /**
+   * Shows a bill for editing, discarding any unsaved change to the bill shown before.
+   *
+   * <p>The labels are filled in from the bill as it is now, so after a save they show the new reading and the price
+   * computed for it. Save is disabled until a value is changed.</p>
+   *
+   * @param utilityBill The bill to edit.
+   */
+  public void showBill(UtilityBill utilityBill) {
+    bill = utilityBill;
+    nameLabel.setText(utilityBill.getUtilityType());
+    priceLabel.setText(Money.format(utilityBill.getPriceCents()));
+    readingLabel.setText(Double.toString(utilityBill.getMeterMeasurement()));
+    dateLabel.setText(utilityBill.getDate());
+    saveButton.setEnabled(false);
+    backButton.setEnabled(true);
+  }
+
   /**
    * The createFieldLabel method generates a custom label with specified text, font, alignment, and border.
    * This label is typically used alongside input fields to provide descriptive text or labels for user input.
@@ -13,6 +13,8 @@ import javax.swing.border.EmptyBorder;
  * A JPanel that provides a user interface for creating a new subscription plan for a utility bill.
  * Users can input the utility type, reading, and date, and then add the new bill or cancel the operation.
  * This view is typically used within a larger application to manage utility bills.
+ * The new bill is written on a background thread; the buttons are disabled and a progress bar is shown until it has
+ * been written.
  *
  * <p>Example usage:
  * <pre>
@@ -60,6 +62,13 @@ public class NewBillView extends JPanel {
    */
   private JButton cancelButton;
 
+  /**
+   * Tracks the background request that writes the new bill.
+   *
+   * @see RequestTracker
+   */
+  private RequestTracker requests;
+
   /**
    * <h1>NewBillView</h1>
    * The `NewBillView` class provides a graphical user interface for creating a new utility bill entry. It allows customers to input data for a new utility bill, including the utility type, reading, and date.
@@ -69,6 +78,7 @@ public class NewBillView extends JPanel {
    * @param app The main application instance that controls the view and handles user interactions.
    */
   public NewBillView(App app) {
+    requests = new RequestTracker(this);
     setLayout(new BorderLayout());
     setBackground(Color.WHITE);
     setBorder(new EmptyBorder(20, 20, 20, 20));
@@ -122,20 +132,23 @@ public class NewBillView extends JPanel {
               JOptionPane.ERROR_MESSAGE
             );
           } else {
-            app.addNewBill(type, Double.parseDouble(reading), date);
-
-            typeField.setSelectedIndex(0);
-            readingField.setText("");
-            dateTextField.setText("");
-
-            JOptionPane.showMessageDialog(
-              NewBillView.this,
-              "New Utility Bill added successfully!",
-              "Success",
-              JOptionPane.INFORMATION_MESSAGE
+            requests.submit(
+              app.addNewBill(type, Double.parseDouble(reading), date),
+              done -> {
+                typeField.setSelectedIndex(0);
+                readingField.setText("");
+                dateTextField.setText("");
+
+                JOptionPane.showMessageDialog(
+                  NewBillView.this,
+                  "New Utility Bill added successfully!",
+                  "Success",
+                  JOptionPane.INFORMATION_MESSAGE
+                );
+
+                app.customerDashboard();
+              }
             );
-
-            app.customerDashboard();
           }
         }
       }
@@ -199,6 +212,9 @@ public class NewBillView extends JPanel {
     buttonPanel.setBackground(Color.WHITE);
     buttonPanel.add(addButton);
     buttonPanel.add(cancelButton);
+    buttonPanel.add(requests.getIndicator());
+
+    requests.disableWhileBusy(addButton, cancelButton);
 
     add(titleLabel, BorderLayout.NORTH);
     add(contentPanel, BorderLayout.CENTER);
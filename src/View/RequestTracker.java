@@ -0,0 +1,252 @@
+package View;
+
+import Controller.AsyncController;
+import java.awt.Dimension;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.JComponent;
+import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+/**
+ * The RequestTracker class delivers the results of background controller calls to a view on the event dispatch thread.
+ *
+ * <p>While any call is in flight the tracker shows its indeterminate progress bar and disables the controls registered
+ * with {@link #disableWhileBusy(JComponent...)}, restoring them once every call has finished. Results are only
+ * delivered while the view is still part of the window, so a view that has been discarded is left alone.</p>
+ *
+ * <p>Calls submitted with {@link #submitLatest(CompletableFuture, Consumer)} replace each other: submitting one
+ * cancels the previous one, which is skipped if it has not started, and a result that arrives after a newer call was
+ * submitted is dropped. Rapid keystrokes therefore only ever show the results of the latest text.
+ * {@link #streamLatest(Function, Consumer, Consumer)} does the same for a call that delivers its result in chunks,
+ * each chunk being handed to the view in its own event so input is handled between chunks.</p>
+ *
+ * <p>A view that stays cached while hidden keeps receiving results, since it is still part of the window; it calls
+ * {@link #cancelLatest()} when it is discarded.</p>
+ *
+ * <p>Every method must be called on the event dispatch thread.</p>
+ *
+ * @see Controller.AsyncController
+ */
+final class RequestTracker {
+
+  /**
+   * The view the results are delivered to.
+   */
+  private final JComponent owner;
+
+  /**
+   * The progress bar shown while a call is in flight.
+   */
+  private final JProgressBar indicator;
+
+  /**
+   * The controls disabled while a call is in flight.
+   */
+  private JComponent[] controls = new JComponent[0];
+
+  /**
+   * Whether each control was enabled when the first call in flight started.
+   */
+  private boolean[] enabled = new boolean[0];
+
+  /**
+   * The number of calls in flight.
+   */
+  private int inFlight;
+
+  /**
+   * The call submitted last with {@link #submitLatest}, until its result is delivered.
+   */
+  private CompletableFuture<?> latest;
+
+  /**
+   * Constructs a tracker for a view.
+   *
+   * @param owner The view the results are delivered to.
+   */
+  RequestTracker(JComponent owner) {
+    this.owner = owner;
+    indicator = new JProgressBar();
+    indicator.setIndeterminate(true);
+    indicator.setPreferredSize(new Dimension(120, 8));
+    indicator.setVisible(false);
+  }
+
+  /**
+   * Returns the progress bar shown while a call is in flight, for the view to place.
+   *
+   * @return The progress bar.
+   */
+  JProgressBar getIndicator() {
+    return indicator;
+  }
+
+  /**
+   * Registers the controls to disable while a call is in flight.
+   *
+   * @param components The controls.
+   */
+  void disableWhileBusy(JComponent... components) {
+    controls = components.clone();
+    enabled = new boolean[components.length];
+  }
+
+  /**
+   * Checks whether any call is in flight.
+   *
+   * @return {@code true} if a call has not finished yet.
+   */
+  boolean isBusy() {
+    return inFlight > 0;
+  }
+
+  /**
+   * Tracks a call and delivers its result.
+   *
+   * @param <T>      The type of the result.
+   * @param request  The future of the call.
+   * @param onResult Receives the result on the event dispatch thread.
+   */
+  <T> void submit(CompletableFuture<T> request, Consumer<T> onResult) {
+    track(request, onResult, false);
+  }
+
+  /**
+   * Tracks a call that replaces the previous call submitted this way, which is cancelled.
+   *
+   * @param <T>      The type of the result.
+   * @param request  The future of the call.
+   * @param onResult Receives the result on the event dispatch thread, unless a newer call has been submitted.
+   */
+  <T> void submitLatest(CompletableFuture<T> request, Consumer<T> onResult) {
+    cancelLatest();
+    latest = request;
+    track(request, onResult, true);
+  }
+
+  /**
+   * Checks whether the call submitted last with {@link #submitLatest} or {@link #streamLatest} has not been delivered
+   * yet.
+   *
+   * @return {@code true} if that call is still in flight, or its result is about to be delivered.
+   */
+  boolean isLatestPending() {
+    return latest != null;
+  }
+
+  /**
+   * Cancels the call submitted last with {@link #submitLatest} or {@link #streamLatest}, so its result is never
+   * delivered. A call that has already started runs to completion.
+   */
+  void cancelLatest() {
+    if (latest != null) {
+      latest.cancel(false);
+      latest = null;
+    }
+  }
+
+  /**
+   * Tracks a call and delivers its result.
+   *
+   * @param <T>         The type of the result.
+   * @param request     The future of the call.
+   * @param onResult    Receives the result on the event dispatch thread.
+   * @param replaceable Whether the call was submitted with {@link #submitLatest}, so its result is dropped once a
+   *                    newer call has been.
+   */
+  private <T> void track(CompletableFuture<T> request, Consumer<T> onResult, boolean replaceable) {
+    begin();
+    request.whenComplete((result, error) ->
+      SwingUtilities.invokeLater(() -> {
+        end();
+        if (replaceable) {
+          if (latest != request) {
+            return;
+          }
+          latest = null;
+        }
+        if (request.isCancelled() || !owner.isDisplayable()) {
+          return;
+        }
+        if (error != null) {
+          Throwable cause = error.getCause() != null ? error.getCause() : error;
+          System.out.println("Error in background request: " + cause);
+          JOptionPane.showMessageDialog(
+            owner,
+            "The request could not be completed: " + cause.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE
+          );
+          return;
+        }
+        onResult.accept(result);
+      })
+    );
+  }
+
+  /**
+   * Tracks a streaming call that replaces the previous call submitted with {@link #submitLatest} or this method.
+   *
+   * <p>Each chunk is delivered in its own event on the event dispatch thread, in order and before the final result,
+   * unless a newer call has been submitted by then. The call is asked for the next chunk only once the previous one
+   * has reached the event dispatch thread, so at most one chunk is read ahead of the view, and no background thread
+   * waits for the view in the meantime. A chunk that arrives after the view has left the window cancels the call.</p>
+   *
+   * @param <C>      The type of a chunk.
+   * @param <T>      The type of the final result.
+   * @param call     Starts the call, given the consumer to pass its chunks to from any thread.
+   * @param onChunk  Receives each chunk on the event dispatch thread.
+   * @param onResult Receives the final result on the event dispatch thread.
+   */
+  <C, T> void streamLatest(
+    Function<AsyncController.ChunkSink<C>, CompletableFuture<T>> call,
+    Consumer<C> onChunk,
+    Consumer<T> onResult
+  ) {
+    CompletableFuture<?>[] request = new CompletableFuture<?>[1];
+    request[0] = call.apply((chunk, next) ->
+      SwingUtilities.invokeLater(() -> {
+        if (latest != request[0]) {
+          return;
+        }
+        if (!owner.isDisplayable()) {
+          request[0].cancel(false);
+          return;
+        }
+        next.run();
+        onChunk.accept(chunk);
+      })
+    );
+    @SuppressWarnings("unchecked")
+    CompletableFuture<T> future = (CompletableFuture<T>) request[0];
+    submitLatest(future, onResult);
+  }
+
+  /**
+   * Counts a call as started, showing the indicator and disabling the controls for the first one.
+   */
+  private void begin() {
+    if (inFlight++ == 0) {
+      indicator.setVisible(true);
+      for (int i = 0; i < controls.length; i++) {
+        enabled[i] = controls[i].isEnabled();
+        controls[i].setEnabled(false);
+      }
+    }
+  }
+
+  /**
+   * Counts a call as finished, hiding the indicator and restoring the controls after the last one.
+   */
+  private void end() {
+    if (--inFlight == 0) {
+      indicator.setVisible(false);
+      for (int i = 0; i < controls.length; i++) {
+        controls[i].setEnabled(enabled[i]);
+      }
+    }
+  }
+}
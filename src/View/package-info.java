@@ -12,12 +12,15 @@
  * <li>{@link View.LoginView}</li>
  * <li>{@link View.AdminLoginView}</li>
  * <li>{@link View.AdminDashboardView}</li>
+ * <li>{@link View.BillTableModel}</li>
+ * <li>{@link View.CachedView}</li>
  * <li>{@link View.CustomerRegistrationView}</li>
  * <li>{@link View.CustomerLoginView}</li>
  * <li>{@link View.CustomerDashboardView}</li>
  * <li>{@link View.EditBillView}</li>
  * <li>{@link View.EditServiceView}</li>
  * <li>{@link View.NewBillView}</li>
+ * <li>{@link View.RequestTracker}</li>
  * </ul>
  *
  * @since 1.0